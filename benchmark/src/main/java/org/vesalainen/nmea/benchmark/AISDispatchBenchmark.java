@@ -0,0 +1,256 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.benchmark;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.channels.ScatteringByteChannel;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.vesalainen.parsers.nmea.NMEAParser;
+import org.vesalainen.parsers.nmea.ais.AISContext;
+import org.vesalainen.parsers.nmea.ais.AISDecoding;
+import org.vesalainen.parsers.nmea.ais.AISObserver;
+import org.vesalainen.parsers.nmea.ais.AISParser;
+import org.vesalainen.parsers.nmea.ais.AbstractAISObserver;
+import org.vesalainen.parsers.nmea.ais.SyncAISContext;
+
+/**
+ * AIS message type dispatch with the mixed type ais corpus.
+ * 
+ * <p>reflectiveLookup measures the method lookup which was done for every 
+ * message of type other than 0 - 3 before the switch dispatch. One operation
+ * is one message.
+ * 
+ * <p>switchDispatch and reflectiveDispatch parse the same single sentence 
+ * messages with AISParser.parseMessages and with reflective lookup and 
+ * invoke of parse method. Difference is the dispatch cost per message. 
+ * Payloads end with commit marker like in AISBitChannel and setup checks 
+ * that every message is committed, so that rollback path is not measured.
+ * 
+ * <p>parse benchmarks parse the ais corpus with each AISDecoding. One 
+ * operation is one sentence. parseSynchronous dispatches every message in
+ * one thread so that dispatch cost is not hidden by thread switches.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AISDispatchBenchmark
+{
+    private NMEAParser parser;
+    private AISParser aisParser;
+    private String string;
+    private final int[] types = new int[Corpus.SENTENCES];
+    private final AISCounter aisCounter = new AISCounter();
+    private int[] messageTypes;
+    private ByteArrayChannel[] payloads;
+    private AISContext aisContext;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        parser = NMEAParser.newInstance();
+        aisParser = AISParser.newInstance();
+        string = Corpus.string(Corpus.AIS);
+        String[] sentences = Corpus.sentences(Corpus.AIS);
+        int count = 0;
+        for (String sentence : sentences)
+        {
+            String[] fields = sentence.split(",");
+            if ("1".equals(fields[2]))
+            {
+                int cc = fields[5].charAt(0) - '0';
+                types[count++] = cc > 40 ? cc - 8 : cc;
+            }
+        }
+        for (int ii=count;ii<types.length;ii++)
+        {
+            types[ii] = types[ii % count];
+        }
+        aisContext = new SyncAISContext(aisCounter);
+        int messages = 0;
+        messageTypes = new int[sentences.length];
+        payloads = new ByteArrayChannel[sentences.length];
+        for (String sentence : sentences)
+        {
+            String[] fields = sentence.split(",");
+            if ("1".equals(fields[1]))
+            {
+                String payload = fields[5];
+                int fill = fields[6].charAt(0) - '0';
+                StringBuilder bits = new StringBuilder();
+                for (int ii=0;ii<payload.length();ii++)
+                {
+                    int cc = payload.charAt(ii) - '0';
+                    if (cc > 40)
+                    {
+                        cc -= 8;
+                    }
+                    for (int bit=5;bit>=0;bit--)
+                    {
+                        bits.append((cc & (1<<bit)) != 0 ? '1' : '0');
+                    }
+                }
+                bits.setLength(bits.length()-fill);
+                int type = Integer.parseInt(bits.substring(0, 6), 2);
+                if (AISParser.isParsed(type))
+                {
+                    messageTypes[messages] = type;
+                    bits.append('C');   // commit marker
+                    payloads[messages] = new ByteArrayChannel(bits.substring(6).getBytes(US_ASCII), 1024);
+                    messages++;
+                }
+            }
+        }
+        for (int ii=messages;ii<messageTypes.length;ii++)
+        {
+            messageTypes[ii] = messageTypes[ii % messages];
+            payloads[ii] = payloads[ii % messages];
+        }
+        check("switchDispatch", switchDispatch());
+        try
+        {
+            check("reflectiveDispatch", reflectiveDispatch());
+        }
+        catch (ReflectiveOperationException ex)
+        {
+            throw new IllegalStateException(ex);
+        }
+    }
+    /**
+     * Checks that one pass committed every message.
+     * @param name
+     * @param commits 
+     */
+    private void check(String name, int commits)
+    {
+        if (commits != messageTypes.length || aisCounter.errors != 0)
+        {
+            throw new IllegalStateException(name+" committed "+commits+"/"+messageTypes.length+" errors="+aisCounter.errors);
+        }
+        aisCounter.commits = 0;
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(Corpus.SENTENCES)
+    public void reflectiveLookup(Blackhole bh) throws NoSuchMethodException
+    {
+        for (int type : types)
+        {
+            if (type > 3)
+            {
+                Method method = aisParser.getClass().getMethod("parse"+type+"Messages", ScatteringByteChannel.class, AISObserver.class, AISContext.class);
+                bh.consume(method);
+            }
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(Corpus.SENTENCES)
+    public int switchDispatch()
+    {
+        for (int ii=0;ii<messageTypes.length;ii++)
+        {
+            aisContext.setMessageType(messageTypes[ii]);
+            try
+            {
+                aisParser.parseMessages(messageTypes[ii], payloads[ii].rewind(), aisCounter, aisContext);
+            }
+            catch (RuntimeException ex)
+            {
+                aisCounter.errors++;
+            }
+        }
+        return aisCounter.commits;
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(Corpus.SENTENCES)
+    public int reflectiveDispatch() throws NoSuchMethodException, IllegalAccessException
+    {
+        for (int ii=0;ii<messageTypes.length;ii++)
+        {
+            int type = messageTypes[ii];
+            String name = type <= 3 ? "parse123Messages" : "parse"+type+"Messages";
+            Method method = aisParser.getClass().getMethod(name, ScatteringByteChannel.class, AISObserver.class, AISContext.class);
+            aisContext.setMessageType(type);
+            try
+            {
+                method.invoke(aisParser, payloads[ii].rewind(), aisCounter, aisContext);
+            }
+            catch (InvocationTargetException ex)
+            {
+                aisCounter.errors++;
+            }
+        }
+        return aisCounter.commits;
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(Corpus.SENTENCES)
+    public int parseGrammar() throws IOException
+    {
+        parser.parse(string, false, null, null, aisCounter, AISDecoding.Grammar);
+        return aisCounter.commits;
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(Corpus.SENTENCES)
+    public int parseSynchronous() throws IOException
+    {
+        parser.parse(string, false, null, null, aisCounter, AISDecoding.Synchronous);
+        return aisCounter.commits;
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(Corpus.SENTENCES)
+    public int parseBitPacked() throws IOException
+    {
+        parser.parse(string, false, null, null, aisCounter, AISDecoding.BitPacked);
+        return aisCounter.commits;
+    }
+    
+    private static class AISCounter extends AbstractAISObserver
+    {
+        private int commits;
+        private int errors;
+        
+        @Override
+        public void commit(String reason)
+        {
+            commits++;
+        }
+        
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ScatteringByteChannel;
+
+/**
+ * In-memory channel for benchmarks. Reads return given bytes in chunks of 
+ * at most readSize bytes and -1 after that until rewind. Writes are 
+ * discarded.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public class ByteArrayChannel implements ByteChannel, ScatteringByteChannel, GatheringByteChannel
+{
+    private final byte[] array;
+    private final int readSize;
+    private int position;
+    private long written;
+    private boolean open = true;
+
+    public ByteArrayChannel()
+    {
+        this(new byte[0], 0);
+    }
+
+    public ByteArrayChannel(byte[] array, int readSize)
+    {
+        this.array = array;
+        this.readSize = readSize;
+    }
+    
+    public ByteArrayChannel rewind()
+    {
+        position = 0;
+        open = true;
+        return this;
+    }
+
+    public long getWritten()
+    {
+        return written;
+    }
+    
+    @Override
+    public int read(ByteBuffer dst) throws IOException
+    {
+        if (position >= array.length)
+        {
+            return -1;
+        }
+        int len = Math.min(Math.min(dst.remaining(), readSize), array.length - position);
+        dst.put(array, position, len);
+        position += len;
+        return len;
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException
+    {
+        if (position >= array.length)
+        {
+            return -1;
+        }
+        long count = 0;
+        for (int ii=0;ii<length;ii++)
+        {
+            ByteBuffer bb = dsts[offset+ii];
+            if (bb.hasRemaining())
+            {
+                int rc = read(bb);
+                if (rc <= 0)
+                {
+                    break;
+                }
+                count += rc;
+                if (bb.hasRemaining())
+                {
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts) throws IOException
+    {
+        return read(dsts, 0, dsts.length);
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException
+    {
+        int len = src.remaining();
+        src.position(src.limit());
+        written += len;
+        return len;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException
+    {
+        long count = 0;
+        for (int ii=0;ii<length;ii++)
+        {
+            count += write(srcs[offset+ii]);
+        }
+        return count;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs) throws IOException
+    {
+        return write(srcs, 0, srcs.length);
+    }
+
+    @Override
+    public boolean isOpen()
+    {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        open = false;
+    }
+    
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vesalainen.parsers.nmea.AbstractNMEAObserver;
+import org.vesalainen.parsers.nmea.NMEAParser;
+
+/**
+ * Checksum verification cost. corrupted has every sentence checksum altered 
+ * so that every sentence takes the failure path. Run with -prof gc to see 
+ * that neither path allocates per sentence.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(Corpus.SENTENCES)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChecksumBenchmark
+{
+    private NMEAParser parser;
+    private ByteArrayChannel valid;
+    private ByteArrayChannel corrupted;
+    private final Counter counter = new Counter();
+
+    @Setup
+    public void setup() throws IOException
+    {
+        parser = NMEAParser.newInstance();
+        byte[] bytes = Corpus.bytes(Corpus.NMEA);
+        valid = new ByteArrayChannel(bytes, 1024);
+        byte[] bad = bytes.clone();
+        for (int ii=0;ii<bad.length;ii++)
+        {
+            if (bad[ii] == '\r')
+            {
+                bad[ii-1] = (byte) (bad[ii-1] == '0' ? '1' : '0');
+            }
+        }
+        corrupted = new ByteArrayChannel(bad, 1024);
+    }
+    
+    @Benchmark
+    public int valid() throws IOException
+    {
+        parser.parse(valid.rewind(), false, null, counter, null);
+        return counter.commits + counter.rollbacks;
+    }
+    
+    @Benchmark
+    public int corrupted() throws IOException
+    {
+        parser.parse(corrupted.rewind(), false, null, counter, null);
+        return counter.commits + counter.rollbacks;
+    }
+    
+    private static class Counter extends AbstractNMEAObserver
+    {
+        private int commits;
+        private int rollbacks;
+        
+        @Override
+        public void commit(String reason)
+        {
+            commits++;
+        }
+
+        @Override
+        public void rollback(String reason)
+        {
+            rollbacks++;
+        }
+        
+    }
+}
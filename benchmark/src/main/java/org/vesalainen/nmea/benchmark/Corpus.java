@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Benchmark input corpora. Each corpus contains exactly SENTENCES valid 
+ * sentences with CR LF line ends.
+ * 
+ * <p>nmea corpus contains HDG, MWV, RMC and DPT sentences. ais corpus contains
+ * VDM/VDO sentences including multi-sentence messages. gnss corpus is a GPS 
+ * receiver feed where 6 of every 10 sentences are GSV.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public final class Corpus
+{
+    public static final int SENTENCES = 1000;
+    public static final String NMEA = "nmea";
+    public static final String AIS = "ais";
+    public static final String GNSS = "gnss";
+    
+    private Corpus()
+    {
+    }
+    
+    public static byte[] bytes(String name) throws IOException
+    {
+        try (InputStream is = Corpus.class.getResourceAsStream(name+".nmea"))
+        {
+            if (is == null)
+            {
+                throw new IllegalArgumentException(name+" corpus not found");
+            }
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            byte[] buf = new byte[4096];
+            int rc = is.read(buf);
+            while (rc != -1)
+            {
+                baos.write(buf, 0, rc);
+                rc = is.read(buf);
+            }
+            return baos.toByteArray();
+        }
+    }
+    
+    public static String string(String name) throws IOException
+    {
+        return new String(bytes(name), US_ASCII);
+    }
+    /**
+     * Returns corpus sentences without line ends
+     * @param name
+     * @return
+     * @throws IOException 
+     */
+    public static String[] sentences(String name) throws IOException
+    {
+        String[] arr = string(name).split("\r\n");
+        if (arr.length != SENTENCES)
+        {
+            throw new IllegalArgumentException(name+" has "+arr.length+" sentences");
+        }
+        return arr;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vesalainen.math.UnitType;
+import static org.vesalainen.parsers.nmea.Converter.KTS;
+import static org.vesalainen.parsers.nmea.MessageType.MWV;
+import org.vesalainen.parsers.nmea.NMEAEncoder;
+import org.vesalainen.parsers.nmea.NMEASentence;
+import static org.vesalainen.parsers.nmea.TalkerId.UP;
+
+/**
+ * Cost of generating one MWV sentence to a ByteBuffer with NMEASentence and 
+ * with reused NMEAEncoder. Run with -prof gc to see that encoder doesn't 
+ * allocate.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NMEAEncoderBenchmark
+{
+    private final NMEAEncoder encoder = new NMEAEncoder();
+    private final ByteBuffer bb = ByteBuffer.allocate(128);
+    private int angle;
+    private double speed;
+
+    @Setup
+    public void setup()
+    {
+        encoder.begin(UP, MWV).add().add('T').add().add(KTS).add('A');
+    }
+    
+    @Benchmark
+    public ByteBuffer sentence() throws IOException
+    {
+        next();
+        bb.clear();
+        bb.put(NMEASentence.mwv(angle, speed, UnitType.Knot, true).getByteBuffer());
+        return bb;
+    }
+    
+    @Benchmark
+    public ByteBuffer encoder()
+    {
+        next();
+        bb.clear();
+        encoder.set(1, angle).set(3, speed, 1);
+        encoder.writeTo(bb);
+        return bb;
+    }
+    
+    private void next()
+    {
+        angle = (angle+7) % 360;
+        speed = (speed+0.37) % 40;
+    }
+}
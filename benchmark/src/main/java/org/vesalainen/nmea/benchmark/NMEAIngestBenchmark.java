@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vesalainen.nmea.util.NMEAIngest;
+
+/**
+ * NMEAIngest throughput scaling with parallelism. Input is FILES files each 
+ * containing nmea corpus REPEAT times. One operation is one sentence.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(NMEAIngestBenchmark.FILES*NMEAIngestBenchmark.REPEAT*Corpus.SENTENCES)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NMEAIngestBenchmark
+{
+    public static final int FILES = 8;
+    public static final int REPEAT = 20;
+    
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+    
+    private Path dir;
+    private final List<Path> files = new ArrayList<>();
+    private NMEAIngest ingest;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        byte[] bytes = Corpus.bytes(Corpus.NMEA);
+        dir = Files.createTempDirectory("ingest");
+        for (int ii=0;ii<FILES;ii++)
+        {
+            Path file = dir.resolve("log"+ii+".nmea");
+            try (OutputStream os = Files.newOutputStream(file))
+            {
+                for (int jj=0;jj<REPEAT;jj++)
+                {
+                    os.write(bytes);
+                }
+            }
+            files.add(file);
+        }
+        ingest = new NMEAIngest(parallelism);
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        ingest.close();
+        for (Path file : files)
+        {
+            Files.deleteIfExists(file);
+        }
+        Files.deleteIfExists(dir);
+    }
+    
+    @Benchmark
+    public long forEach() throws IOException
+    {
+        LongAdder count = new LongAdder();
+        ingest.forEach(files, (p,s)->count.increment(), "latitude", "longitude", "speedOverGround", "magneticSensorHeading", "relativeWindAngle", "windSpeed", "depthBelowTransducer");
+        return count.sum();
+    }
+    
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vesalainen.parsers.nmea.AbstractNMEAObserver;
+import org.vesalainen.parsers.nmea.NMEAParser;
+import org.vesalainen.parsers.nmea.ais.AbstractAISObserver;
+
+/**
+ * NMEAParser throughput for each input type. One operation is one sentence.
+ * parseFileInputStream and parseMappedFile read the corpus from a temporary
+ * file.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(Corpus.SENTENCES)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NMEAParserBenchmark
+{
+    @Param({Corpus.NMEA, Corpus.AIS})
+    public String corpus;
+    
+    private NMEAParser parser;
+    private String string;
+    private byte[] bytes;
+    private ByteArrayChannel channel;
+    private Path file;
+    private final NMEACounter nmeaCounter = new NMEACounter();
+    private final AISCounter aisCounter = new AISCounter();
+
+    @Setup
+    public void setup() throws IOException
+    {
+        parser = NMEAParser.newInstance();
+        string = Corpus.string(corpus);
+        bytes = Corpus.bytes(corpus);
+        channel = new ByteArrayChannel(bytes, 1024);
+        file = Files.createTempFile(corpus, ".nmea");
+        Files.write(file, bytes);
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        Files.deleteIfExists(file);
+    }
+    
+    @Benchmark
+    public int parseString() throws IOException
+    {
+        parser.parse(string, false, null, nmeaCounter, aisCounter);
+        return nmeaCounter.commits + aisCounter.commits;
+    }
+    
+    @Benchmark
+    public int parseInputStream() throws IOException
+    {
+        parser.parse(new ByteArrayInputStream(bytes), false, null, nmeaCounter, aisCounter);
+        return nmeaCounter.commits + aisCounter.commits;
+    }
+    
+    @Benchmark
+    public int parseChannel() throws IOException
+    {
+        parser.parse(channel.rewind(), false, null, nmeaCounter, aisCounter);
+        return nmeaCounter.commits + aisCounter.commits;
+    }
+    
+    @Benchmark
+    public int parseFileInputStream() throws IOException
+    {
+        try (InputStream is = Files.newInputStream(file))
+        {
+            parser.parse(is, false, null, nmeaCounter, aisCounter);
+        }
+        return nmeaCounter.commits + aisCounter.commits;
+    }
+    
+    @Benchmark
+    public int parseMappedFile() throws IOException
+    {
+        parser.parse(file, false, null, nmeaCounter, aisCounter);
+        return nmeaCounter.commits + aisCounter.commits;
+    }
+    
+    private static class NMEACounter extends AbstractNMEAObserver
+    {
+        private int commits;
+        
+        @Override
+        public void commit(String reason)
+        {
+            commits++;
+        }
+        
+    }
+    private static class AISCounter extends AbstractAISObserver
+    {
+        private int commits;
+        
+        @Override
+        public void commit(String reason)
+        {
+            commits++;
+        }
+        
+    }
+}
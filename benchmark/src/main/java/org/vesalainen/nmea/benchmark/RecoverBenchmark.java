@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.benchmark;
+
+import java.io.IOException;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vesalainen.parsers.nmea.AbstractNMEAObserver;
+import org.vesalainen.parsers.nmea.NMEAParser;
+
+/**
+ * Parsing of noisy input. Every corrupt:th sentence of nmea corpus has a 
+ * framing error in the middle.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(Corpus.SENTENCES)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecoverBenchmark
+{
+    @Param({"2", "10"})
+    public int corrupt;
+    
+    private NMEAParser parser;
+    private ByteArrayChannel channel;
+    private final Counter counter = new Counter();
+
+    @Setup
+    public void setup() throws IOException
+    {
+        parser = NMEAParser.newInstance();
+        StringBuilder sb = new StringBuilder();
+        String[] sentences = Corpus.sentences(Corpus.NMEA);
+        for (int ii=0;ii<sentences.length;ii++)
+        {
+            String sentence = sentences[ii];
+            if (ii % corrupt == 0)
+            {
+                int mid = sentence.length()/2;
+                sb.append(sentence, 0, mid).append('#').append(sentence, mid+1, sentence.length());
+            }
+            else
+            {
+                sb.append(sentence);
+            }
+            sb.append("\r\n");
+        }
+        channel = new ByteArrayChannel(sb.toString().getBytes(US_ASCII), 1024);
+    }
+    
+    @Benchmark
+    public int parseChannel() throws IOException
+    {
+        parser.parse(channel.rewind(), false, null, counter, null);
+        return counter.rollbacks;
+    }
+    
+    private static class Counter extends AbstractNMEAObserver
+    {
+        private int rollbacks;
+
+        @Override
+        public void rollback(String reason)
+        {
+            rollbacks++;
+        }
+        
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vesalainen.parsers.nmea.NMEAParser;
+import org.vesalainen.parsers.nmea.NMEAParserSession;
+import org.vesalainen.parsers.nmea.ais.AISDecoding;
+import org.vesalainen.parsers.nmea.ais.AbstractAISObserver;
+import org.vesalainen.parsers.nmea.time.GPSClock;
+
+/**
+ * AIS corpus is parsed as short inputs of CHUNK sentences like in reconnect 
+ * loop. Without session every input creates AIS context and sets clock.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(Corpus.SENTENCES)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionBenchmark
+{
+    private static final int CHUNK = 10;
+    @Param({"false", "true"})
+    public boolean session;
+    @Param({"Grammar", "Synchronous"})
+    public AISDecoding aisDecoding;
+    
+    private NMEAParser parser;
+    private NMEAParserSession parserSession;
+    private String[] inputs;
+    private final Counter counter = new Counter();
+
+    @Setup
+    public void setup() throws IOException
+    {
+        parser = NMEAParser.newInstance();
+        parserSession = new NMEAParserSession(parser, new GPSClock(false), null, counter, aisDecoding);
+        String[] sentences = Corpus.sentences(Corpus.AIS);
+        inputs = new String[sentences.length/CHUNK];
+        for (int ii=0;ii<inputs.length;ii++)
+        {
+            StringBuilder sb = new StringBuilder();
+            for (int jj=0;jj<CHUNK;jj++)
+            {
+                sb.append(sentences[ii*CHUNK+jj]).append("\r\n");
+            }
+            inputs[ii] = sb.toString();
+        }
+    }
+    
+    @Benchmark
+    public int parseInputs() throws IOException
+    {
+        for (String input : inputs)
+        {
+            if (session)
+            {
+                parserSession.parse(input);
+            }
+            else
+            {
+                parser.parse(input, false, null, null, counter, aisDecoding);
+            }
+        }
+        return counter.commits;
+    }
+    
+    private static class Counter extends AbstractAISObserver
+    {
+        private int commits;
+
+        @Override
+        public void commit(String reason)
+        {
+            commits++;
+        }
+        
+    }
+}
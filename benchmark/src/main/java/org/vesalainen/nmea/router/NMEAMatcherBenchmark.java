@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.router;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vesalainen.nmea.benchmark.Corpus;
+import org.vesalainen.util.Matcher.Status;
+
+/**
+ * NMEAMatcher fed byte at a time. One operation is one sentence.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(Corpus.SENTENCES)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NMEAMatcherBenchmark
+{
+    @Param({Corpus.NMEA, Corpus.AIS})
+    public String corpus;
+    
+    private byte[] bytes;
+    private NMEAMatcher<String> matcher;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        bytes = Corpus.bytes(corpus);
+        matcher = createMatcher();
+    }
+    
+    static NMEAMatcher<String> createMatcher()
+    {
+        NMEAMatcher<String> nm = new NMEAMatcher<>();
+        nm.addExpression("$II???", "II");
+        nm.addExpression("$GP???", "GP");
+        nm.addExpression("!AIVD?", "AI");
+        nm.compile();
+        return nm;
+    }
+    
+    @Benchmark
+    public int match()
+    {
+        int matches = 0;
+        for (byte b : bytes)
+        {
+            if (matcher.match(b) == Status.Match)
+            {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.router;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vesalainen.nio.RingByteBuffer;
+import org.vesalainen.nmea.benchmark.ByteArrayChannel;
+import org.vesalainen.nmea.benchmark.Corpus;
+
+/**
+ * NMEAReader over in-memory channel. readSize simulates serial (small) and 
+ * network (large) reads. One operation is one sentence.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(Corpus.SENTENCES)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NMEAReaderBenchmark
+{
+    @Param({Corpus.NMEA, Corpus.AIS})
+    public String corpus;
+    @Param({"16", "1024"})
+    public int readSize;
+    
+    private ByteArrayChannel channel;
+    private NMEAReader reader;
+    private int oks;
+    private int errors;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        channel = new ByteArrayChannel(Corpus.bytes(corpus), readSize);
+        reader = new NMEAReader("benchmark", NMEAMatcherBenchmark.createMatcher(), channel, 1024, this::onOk, this::onError);
+    }
+    
+    private void onOk(RingByteBuffer ring, long timestamp)
+    {
+        oks++;
+    }
+    
+    private void onError(Supplier<byte[]> errInput)
+    {
+        errors++;
+    }
+    
+    @Benchmark
+    public int read() throws IOException
+    {
+        channel.rewind();
+        try
+        {
+            reader.read();
+        }
+        catch (EOFException ex)
+        {
+        }
+        return oks + errors;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.router;
+
+import java.io.IOException;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vesalainen.nio.RingByteBuffer;
+import org.vesalainen.nmea.benchmark.ByteArrayChannel;
+import org.vesalainen.nmea.jaxb.router.RouteType;
+import org.vesalainen.nmea.router.endpoint.SinkEndpoint;
+
+/**
+ * Route.write fan-out of one sentence to targets number of endpoints. One 
+ * operation is one routed sentence.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteBenchmark
+{
+    private static final String SENTENCE = "$GPRMC,062458,A,6009.2053,N,02453.6493,E,000.0,001.3,171009,,,A*72\r\n";
+    private static final long PREFIX = PrefixKey.encode("$GPRMC");
+    @Param({"1", "4", "16"})
+    public int targets;
+    /**
+     * Target write queue size. 0 writes synchronously.
+     */
+    @Param({"0", "64"})
+    public int writeQueue;
+    
+    private final List<SinkEndpoint> sinks = new ArrayList<>();
+    private SinkEndpoint source;
+    private Route route;
+    private RingByteBuffer ring;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException
+    {
+        source = new SinkEndpoint("source");
+        RouteType routeType = new RouteType();
+        routeType.setPrefix("$GPRMC");
+        for (int ii=0;ii<targets;ii++)
+        {
+            SinkEndpoint sink = new SinkEndpoint("target"+ii);
+            sink.register();
+            if (writeQueue > 0)
+            {
+                sink.startWriteQueue(writeQueue);
+            }
+            sinks.add(sink);
+            routeType.getTarget().add(sink.getName());
+        }
+        route = new Route(routeType);
+        byte[] bytes = SENTENCE.getBytes(US_ASCII);
+        ring = new RingByteBuffer(128, true);
+        ring.fill(new ByteArrayChannel(bytes, bytes.length));
+        boolean mark = true;
+        while (ring.hasRemaining())
+        {
+            ring.get(mark);
+            mark = false;
+        }
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        for (SinkEndpoint sink : sinks)
+        {
+            sink.unregister();
+        }
+        sinks.clear();
+    }
+    
+    @Benchmark
+    public RingByteBuffer write() throws IOException
+    {
+        route.write(source, PREFIX, ring, System.currentTimeMillis());
+        return ring;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.router;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vesalainen.nmea.benchmark.ByteArrayChannel;
+import org.vesalainen.nmea.benchmark.Corpus;
+import org.vesalainen.nmea.jaxb.router.RouteType;
+import org.vesalainen.nmea.router.endpoint.SinkEndpoint;
+
+/**
+ * Router throughput from one source endpoint through NMEAReader, 
+ * NMEAMatcher, Endpoint.onOk and Route to running endpoints. Each route has 
+ * 4 targets out of endpoints. One operation is one sentence. With -prof gc 
+ * gc.alloc.rate.norm shows that routing doesn't allocate.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(Corpus.SENTENCES)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouterBenchmark
+{
+    @Param({Corpus.NMEA, Corpus.AIS})
+    public String corpus;
+    /**
+     * Number of running endpoints.
+     */
+    @Param({"12", "48"})
+    public int endpoints;
+    
+    private final List<SinkEndpoint> sinks = new ArrayList<>();
+    private SinkEndpoint source;
+    private ByteArrayChannel channel;
+    private NMEAReader reader;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        for (int ii=0;ii<endpoints;ii++)
+        {
+            SinkEndpoint sink = new SinkEndpoint("endpoint"+ii);
+            sink.register();
+            sinks.add(sink);
+        }
+        source = new SinkEndpoint("source", 
+                createRoute("$II???", 0), 
+                createRoute("$GP???", 4), 
+                createRoute("!AIVD?", 8)
+        );
+        channel = new ByteArrayChannel(Corpus.bytes(corpus), 1024);
+        reader = source.createReader(channel, 1024);
+    }
+    
+    private RouteType createRoute(String prefix, int first)
+    {
+        RouteType routeType = new RouteType();
+        routeType.setPrefix(prefix);
+        for (int ii=0;ii<4;ii++)
+        {
+            routeType.getTarget().add("endpoint"+(first+ii));
+        }
+        return routeType;
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        for (SinkEndpoint sink : sinks)
+        {
+            sink.unregister();
+        }
+        sinks.clear();
+    }
+    
+    @Benchmark
+    public long route() throws IOException
+    {
+        channel.rewind();
+        try
+        {
+            reader.read();
+        }
+        catch (EOFException ex)
+        {
+        }
+        return source.getReadCount();
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.router.endpoint;
+
+import java.io.EOFException;
+import java.io.IOException;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vesalainen.nmea.benchmark.ByteArrayChannel;
+import org.vesalainen.nmea.jaxb.router.GpsFusionType;
+import org.vesalainen.nmea.jaxb.router.RouteType;
+import org.vesalainen.nmea.router.NMEAReader;
+
+/**
+ * Latency of routing RMC, GGA and GSA sentences from 3 GPS sources through
+ * GpsFusionEndpoint to a sink compared to routing them directly to the sink.
+ * Difference of fusion=true and fusion=false is the latency added by
+ * GpsFusionEndpoint. One operation is one sentence.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(GpsFusionBenchmark.SOURCES*GpsFusionBenchmark.SECONDS*3)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GpsFusionBenchmark
+{
+    static final int SOURCES = 3;
+    static final int SECONDS = 100;
+    
+    @Param({"true", "false"})
+    public boolean fusion;
+    
+    private SinkEndpoint sink;
+    private GpsFusionEndpoint fusionEndpoint;
+    private final SinkEndpoint[] sources = new SinkEndpoint[SOURCES];
+    private final ByteArrayChannel[] channels = new ByteArrayChannel[SOURCES];
+    private final NMEAReader[] readers = new NMEAReader[SOURCES];
+
+    @Setup
+    public void setup() throws IOException
+    {
+        sink = new SinkEndpoint("sink");
+        sink.register();
+        GpsFusionType fusionType = new GpsFusionType();
+        fusionType.setName("fusion");
+        fusionType.setEnable(Boolean.TRUE);
+        fusionType.getRoute().add(createRoute("sink"));
+        fusionEndpoint = new GpsFusionEndpoint(fusionType, null);
+        fusionEndpoint.onStart();
+        for (int ii=0;ii<SOURCES;ii++)
+        {
+            sources[ii] = new SinkEndpoint("gps"+ii, createRoute(fusion ? "fusion" : "sink"));
+            channels[ii] = new ByteArrayChannel(corpus(ii), 1024);
+            readers[ii] = sources[ii].createReader(channels[ii], 1024);
+        }
+    }
+    
+    private RouteType createRoute(String target)
+    {
+        RouteType routeType = new RouteType();
+        routeType.setPrefix("$GP???");
+        routeType.getTarget().add(target);
+        return routeType;
+    }
+    /**
+     * Creates RMC, GGA and GSA sentences for SECONDS seconds. Sources have 
+     * different fix quality and HDOP.
+     * @param source
+     * @return 
+     */
+    private static byte[] corpus(int source)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int ii=0;ii<SECONDS;ii++)
+        {
+            String time = String.format("0624%02d", ii%60);
+            String lat = String.format("6009.%04d", 2053+ii);
+            String lon = String.format("02453.%04d", 6493+ii);
+            String hdop = String.format("%d.%d", 1+source, source);
+            sentence(sb, "$GPRMC,"+time+",A,"+lat+",N,"+lon+",E,000.0,001.3,171009,,,A");
+            sentence(sb, "$GPGGA,"+time+","+lat+",N,"+lon+",E,"+(1+source%2)+",08,"+hdop+",10.0,M,18.0,M,,");
+            sentence(sb, "$GPGSA,A,3,04,05,,09,12,,,24,,,,,2.5,"+hdop+",2.1");
+        }
+        return sb.toString().getBytes(US_ASCII);
+    }
+    
+    private static void sentence(StringBuilder sb, String body)
+    {
+        int xor = 0;
+        for (int ii=1;ii<body.length();ii++)
+        {
+            xor ^= body.charAt(ii);
+        }
+        sb.append(String.format("%s*%02X\r\n", body, xor));
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        fusionEndpoint.onStop();
+        sink.unregister();
+    }
+    
+    @Benchmark
+    public long route() throws IOException
+    {
+        for (int ii=0;ii<SOURCES;ii++)
+        {
+            channels[ii].rewind();
+            try
+            {
+                readers[ii].read();
+            }
+            catch (EOFException ex)
+            {
+            }
+        }
+        return sink.getWriteCount();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.router.endpoint;
+
+import java.io.IOException;
+import java.nio.channels.ScatteringByteChannel;
+import org.vesalainen.nmea.benchmark.ByteArrayChannel;
+import org.vesalainen.nmea.jaxb.router.EndpointType;
+import org.vesalainen.nmea.jaxb.router.OverflowType;
+import org.vesalainen.nmea.jaxb.router.RouteType;
+import org.vesalainen.nmea.router.NMEAReader;
+
+/**
+ * Endpoint which discards everything written to it. Used as route target and
+ * source in benchmarks.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public class SinkEndpoint extends Endpoint<EndpointType,ByteArrayChannel>
+{
+    private Thread writer;
+
+    public SinkEndpoint(String name, RouteType... routes)
+    {
+        super(createType(name, routes), null);
+        this.channel = createChannel();
+    }
+    
+    private static EndpointType createType(String name, RouteType... routes)
+    {
+        EndpointType endpointType = new EndpointType();
+        endpointType.setName(name);
+        endpointType.setEnable(Boolean.TRUE);
+        for (RouteType route : routes)
+        {
+            endpointType.getRoute().add(route);
+        }
+        return endpointType;
+    }
+    /**
+     * Creates reader which routes input like running endpoint.
+     * @param input
+     * @param bufSize
+     * @return 
+     */
+    public NMEAReader createReader(ScatteringByteChannel input, int bufSize)
+    {
+        return new NMEAReader(name, matcher, input, bufSize, this::onOk, this::onError);
+    }
+    /**
+     * Makes this endpoint visible to routes
+     * @throws IOException 
+     */
+    public void register() throws IOException
+    {
+        onStart();
+    }
+    
+    /**
+     * Starts write queue writer thread.
+     * @param size Queue size
+     * @throws InterruptedException 
+     */
+    public void startWriteQueue(int size) throws InterruptedException
+    {
+        writeQueue = new WriteQueue(this, size, OverflowType.DROP_OLDEST);
+        writer = new Thread(writeQueue, name);
+        writer.start();
+        while (!writeQueue.isActive())
+        {
+            Thread.sleep(1);
+        }
+    }
+    
+    public void unregister() throws IOException
+    {
+        onStop();
+        if (writer != null)
+        {
+            writer.interrupt();
+            writer = null;
+        }
+    }
+    
+    @Override
+    protected final ByteArrayChannel createChannel()
+    {
+        return new ByteArrayChannel();
+    }
+    
+}
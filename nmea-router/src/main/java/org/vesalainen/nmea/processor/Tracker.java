@@ -31,6 +31,7 @@ import java.util.logging.Level;
 import java.util.stream.Stream;
 import org.vesalainen.nmea.jaxb.router.TrackerType;
 import org.vesalainen.nmea.util.NMEAFilters;
+import org.vesalainen.nmea.util.NMEAPropertyIndex;
 import org.vesalainen.nmea.util.NMEASample;
 import org.vesalainen.nmea.util.TrackOutput;
 import org.vesalainen.parsers.nmea.NMEAService;
@@ -141,7 +142,8 @@ public class Tracker extends AbstractSampleConsumer implements AutoCloseable
     @Override
     protected void process(NMEASample sample)
     {
-        output(sample.getTime(), sample.getProperty("latitude"), sample.getProperty("longitude"));
+        // bearingToleranceFilter keeps references to samples, so they are not recycled
+        output(sample.getTime(), sample.getProperty(NMEAPropertyIndex.LATITUDE), sample.getProperty(NMEAPropertyIndex.LONGITUDE));
     }
     public void output(long time, float latitude, float longitude)
     {
@@ -23,13 +23,16 @@ import java.nio.channels.GatheringByteChannel;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.logging.Level;
 import java.util.stream.Stream;
-import org.vesalainen.math.UnitType;
 import org.vesalainen.nmea.jaxb.router.TrueWindSourceType;
 import org.vesalainen.navi.TrueWind;
 import org.vesalainen.nmea.util.NMEAFilters;
 import org.vesalainen.nmea.util.NMEAMappers;
+import org.vesalainen.nmea.util.NMEAPropertyIndex;
 import org.vesalainen.nmea.util.NMEASample;
-import org.vesalainen.parsers.nmea.NMEASentence;
+import static org.vesalainen.parsers.nmea.Converter.KTS;
+import static org.vesalainen.parsers.nmea.MessageType.MWV;
+import org.vesalainen.parsers.nmea.NMEAEncoder;
+import static org.vesalainen.parsers.nmea.TalkerId.UP;
 import org.vesalainen.util.navi.Velocity;
 
 /**
@@ -45,13 +48,25 @@ public class TrueWindSource extends AbstractSampleConsumer
         "windSpeed",
         "speedOverGround"
             };
+    private static final int SPEED_OVER_GROUND = NMEAPropertyIndex.indexOf("speedOverGround");
+    private static final int DRIFT_ANGLE = NMEAPropertyIndex.indexOf("driftAngle");
+    private static final int RELATIVE_WIND_ANGLE = NMEAPropertyIndex.indexOf("relativeWindAngle");
+    private static final int WIND_SPEED = NMEAPropertyIndex.indexOf("windSpeed");
     private final GatheringByteChannel channel;
     private final TrueWind trueWind = new TrueWind();
+    private final NMEAEncoder mwv = new NMEAEncoder();
+    private final ByteBuffer bb = ByteBuffer.allocate(128);
 
     public TrueWindSource(GatheringByteChannel channel, TrueWindSourceType trueWindSourceType, ScheduledExecutorService executor)
     {
         super(TrueWindSource.class, executor);
         this.channel = channel;
+        mwv.begin(UP, MWV)
+                .add()      // angle
+                .add('T')
+                .add()      // speed
+                .add(KTS)
+                .add('A');
     }
     
     @Override
@@ -74,16 +89,20 @@ public class TrueWindSource extends AbstractSampleConsumer
     {
         try
         {
-            trueWind.setBoatSpeed(sample.getProperty("speedOverGround"));
-            trueWind.setDriftAngle(sample.getProperty("driftAngle"));
-            trueWind.setRelativeAngle(sample.getProperty("relativeWindAngle"));
-            trueWind.setRelativeSpeed(Velocity.toKnots(sample.getProperty("windSpeed")));
+            trueWind.setBoatSpeed(sample.getProperty(SPEED_OVER_GROUND));
+            trueWind.setDriftAngle(sample.getProperty(DRIFT_ANGLE));
+            trueWind.setRelativeAngle(sample.getProperty(RELATIVE_WIND_ANGLE));
+            trueWind.setRelativeSpeed(Velocity.toKnots(sample.getProperty(WIND_SPEED)));
+            sample.recycle();
             trueWind.calc();
             finest("%s", trueWind);
             int trueAngle = (int) trueWind.getTrueAngle();
             double trueSpeed = trueWind.getTrueSpeed();
-            NMEASentence mwv = NMEASentence.mwv(trueAngle, trueSpeed, UnitType.Knot, true);
-            channel.write(mwv.getByteBuffer());
+            mwv.set(1, trueAngle).set(3, trueSpeed, 1);
+            bb.clear();
+            mwv.writeTo(bb);
+            bb.flip();
+            channel.write(bb);
             finest("send MWV trueAngle=%d trueSpeed=%f", trueAngle, trueSpeed);
         }
         catch (IOException ex)
@@ -90,6 +90,7 @@ public class VariationSource extends AbstractSampleConsumer
                 nextCalendarUpdate = time+DayInMillis;
             }
             double decl = geoMag.getDeclination(sample.getLatitude(), sample.getLongitude(), geoMag.decimalYear(calendar), 0);
+            sample.recycle();
             if (Math.abs(declination-decl) > 0.1)
             {
                 declination = decl;
@@ -40,5 +40,38 @@ public interface DataSourceMXBean
         return 100*getErrorBytes()/getReadBytes();
     }
     List<String> getDistribution();
+    /**
+     * Returns read buffer size.
+     * @return 
+     */
+    int getBufferSize();
+    /**
+     * Returns buffer size suggested by reads so far. It is used in next 
+     * start unless buffer size is configured.
+     * @return 
+     */
+    int getSuggestedBufferSize();
+    /**
+     * Returns number of sentences dropped because write queue was full.
+     * @return 
+     */
+    long getDropCount();
+    /**
+     * Returns number of sentences in write queue.
+     * @return 
+     */
+    int getQueued();
+    /**
+     * Returns number of sentences not routed because backup route was
+     * suppressed by primary source.
+     * @return 
+     */
+    long getSuppressedCount();
+    /**
+     * Returns number of sentences routed by backup route while primary 
+     * source was silent.
+     * @return 
+     */
+    long getBackupWriteCount();
     String getChannel();
 }
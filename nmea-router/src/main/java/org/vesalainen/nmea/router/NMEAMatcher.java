@@ -18,20 +18,24 @@ package org.vesalainen.nmea.router;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.zip.Checksum;
-import org.vesalainen.parsers.nmea.NMEAChecksum;
+import org.vesalainen.nio.RingByteBuffer;
 import org.vesalainen.regex.Regex;
 import org.vesalainen.regex.WildcardMatcher;
 
 /**
- *
+ * NMEAMatcher matches prefix expressions and checks sentence syntax and 
+ * checksum.
+ * 
+ * <p>Only prefix is matched with WildcardMatcher. After that rest of the 
+ * sentence can be scanned in bulk with scan method.
  * @author Timo Vesalainen <timo.vesalainen@iki.fi>
  */
 public class NMEAMatcher<T> extends WildcardMatcher<T>
 {
     enum State {Prefix, Data, Checksum1, Checksum2, Cr, Lf};
     private State state = State.Prefix;
-    private final Checksum checksum;
+    private boolean on;
+    private int xor;
     private int cs;
     private float matches;
     private boolean parsing;
@@ -41,7 +45,6 @@ public class NMEAMatcher<T> extends WildcardMatcher<T>
 
     public NMEAMatcher()
     {
-        this.checksum = new NMEAChecksum();
     }
 
     @Override
@@ -77,7 +80,23 @@ public class NMEAMatcher<T> extends WildcardMatcher<T>
     @Override
     public Status match(int cc)
     {
-        checksum.update(cc);
+        switch (cc)
+        {
+            case '*':
+                on = false;
+                break;
+            case '$':
+            case '!':
+                xor = 0;
+                on = true;
+                break;
+            default:
+                if (on)
+                {
+                    xor ^= cc;
+                }
+                break;
+        }
         switch (state)
         {
             case Prefix:
@@ -97,7 +116,7 @@ public class NMEAMatcher<T> extends WildcardMatcher<T>
                 switch (cc)
                 {
                     case '*':
-                        cs = (int) checksum.getValue();
+                        cs = xor;
                         state = State.Checksum1;
                         return Status.WillMatch;
                     case '\r':
@@ -144,6 +163,96 @@ public class NMEAMatcher<T> extends WildcardMatcher<T>
         }
     }
 
+    /**
+     * Returns true if prefix is matched and rest of the sentence can be
+     * scanned.
+     * @return 
+     * @see #scan(org.vesalainen.nio.RingByteBuffer) 
+     */
+    public boolean isScanning()
+    {
+        return state != State.Prefix;
+    }
+    /**
+     * Scans rest of the sentence from ring. Same as calling match for each
+     * byte but without per byte status. Ring is read until sentence ends,
+     * error is found or ring has no more bytes.
+     * @param ring
+     * @return Match, Error or WillMatch if ring has no more bytes.
+     * @see #isScanning() 
+     */
+    public Status scan(RingByteBuffer ring)
+    {
+        int x = xor;
+        try
+        {
+            while (ring.hasRemaining())
+            {
+                int cc = ring.get(false) & 0xff;
+                switch (state)
+                {
+                    case Data:
+                        switch (cc)
+                        {
+                            case '*':
+                                on = false;
+                                cs = x;
+                                state = State.Checksum1;
+                                break;
+                            case '$':
+                            case '!':
+                                x = 0;
+                                break;
+                            default:
+                                if (cc < ' ' || cc > '~')
+                                {
+                                    return error();
+                                }
+                                x ^= cc;
+                                break;
+                        }
+                        break;
+                    case Checksum1:
+                        if ((cs>>4) != Character.digit(cc, 16))
+                        {
+                            return error();
+                        }
+                        state = State.Checksum2;
+                        break;
+                    case Checksum2:
+                        if ((cs&0xf) != Character.digit(cc, 16))
+                        {
+                            return error();
+                        }
+                        state = State.Cr;
+                        break;
+                    case Cr:
+                        if (cc != '\r')
+                        {
+                            return error();
+                        }
+                        state = State.Lf;
+                        break;
+                    case Lf:
+                        if (cc != '\n')
+                        {
+                            return error();
+                        }
+                        clear();
+                        matches++;
+                        return Status.Match;
+                    default:
+                        throw new IllegalStateException(state+" not scannable");
+                }
+            }
+            return Status.WillMatch;
+        }
+        finally
+        {
+            xor = x;
+        }
+    }
+
     @Override
     public T getMatched()
     {
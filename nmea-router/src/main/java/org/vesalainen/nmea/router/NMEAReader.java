@@ -19,7 +19,6 @@ package org.vesalainen.nmea.router;
 import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
-import java.nio.BufferUnderflowException;
 import java.nio.channels.ScatteringByteChannel;
 import java.util.List;
 import java.util.Objects;
@@ -35,6 +34,8 @@ import org.vesalainen.util.logging.JavaLogging;
  */
 public class NMEAReader extends JavaLogging
 {
+    public static final int MIN_BUFFER_SIZE = 128;
+    public static final int MAX_BUFFER_SIZE = 8192;
     private String name;
     private NMEAMatcher matcher;
     private ScatteringByteChannel channel;
@@ -42,6 +43,13 @@ public class NMEAReader extends JavaLogging
     private OkConsumer onOk;
     private IOConsumer<Supplier<byte[]>> onError;
     private ReadCountDistribution distribution;
+    private final RingByteBuffer ring;
+    private final ByteArrayOutputStream errInput = new ByteArrayOutputStream();
+    private boolean mark = true;
+    private int maxSentence;
+    private long reads;
+    private long fullReads;
+    private long overflows;
 
     public NMEAReader(String name, NMEAMatcher matcher, ScatteringByteChannel channel, int bufSize, OkConsumer onOk, IOConsumer<Supplier<byte[]>> onError)
     {
@@ -57,67 +65,157 @@ public class NMEAReader extends JavaLogging
         this.onOk = onOk;
         this.onError = onError;
         this.distribution = new ReadCountDistribution(bufSize);
+        this.ring = new RingByteBuffer(bufSize, true);
     }
     
+    /**
+     * Reads channel until exception.
+     * @throws IOException 
+     */
     public void read() throws IOException
     {
-        boolean mark = true;
-        RingByteBuffer ring = new RingByteBuffer(bufferSize, true);
-        ByteArrayOutputStream errInput = new ByteArrayOutputStream();
         while (true)
         {
-            if (ring.isFull())
-            {
-                severe("%s buffer is too small %d", name, bufferSize);
-                throw new BufferUnderflowException();
-            }
-            int count = ring.fill(channel);
-            long timestamp = System.currentTimeMillis();
-            finest("handle %s read %d bytes", name, count);
+            int count = readAvailable();
             if (count == 0)
             {
                 throw new IOException(name+" return 0 in read");
             }
-            if (count == -1)
-            {
-                throw new EOFException(name);
-            }
-            distribution.increment(count);
-            Matcher.Status match;
-            while (ring.hasRemaining())
+        }
+    }
+    /**
+     * Reads once from channel and handles read input. This can be used with
+     * non-blocking channels.
+     * 
+     * <p>Bytes are matched one at a time only until prefix is matched. Rest
+     * of the sentence is scanned in bulk by matcher.
+     * @return Number of bytes read. Can be 0 for non-blocking channel.
+     * @throws IOException 
+     * @throws EOFException At end of stream.
+     */
+    public int readAvailable() throws IOException
+    {
+        if (ring.isFull())
+        {
+            overflow();
+        }
+        int free = bufferSize - ring.length();
+        int count = ring.fill(channel);
+        long timestamp = System.currentTimeMillis();
+        finest("handle %s read %d bytes", name, count);
+        if (count == -1)
+        {
+            throw new EOFException(name);
+        }
+        if (count == 0)
+        {
+            return 0;
+        }
+        distribution.increment(count);
+        reads++;
+        if (count >= free)
+        {
+            fullReads++;
+        }
+        Matcher.Status match;
+        while (ring.hasRemaining())
+        {
+            if (matcher.isScanning())
             {
-                byte b = ring.get(mark);
-                match = matcher.match(b);
+                match = matcher.scan(ring);
                 switch (match)
                 {
                     case Error:
-                        if (ring.length() > 1)
-                        {
-                            ring.chars().forEach(errInput::write);
-                        }
-                        else
-                        {
-                            errInput.write(b);
-                        }
+                        ring.chars().forEach(errInput::write);
                         mark = true;
                         break;
-                    case Ok:
-                    case WillMatch:
-                        if (mark && errInput.size()> 0)
-                        {
-                            onError.apply(errInput::toByteArray);
-                            errInput.reset();
-                        }
-                        mark = false;
-                        break;
                     case Match:
+                        maxSentence = Math.max(maxSentence, ring.length());
                         onOk.apply(ring, timestamp);
                         mark = true;
                         ring.discard();
                         break;
                 }
+                continue;
+            }
+            byte b = ring.get(mark);
+            match = matcher.match(b);
+            switch (match)
+            {
+                case Error:
+                    if (ring.length() > 1)
+                    {
+                        ring.chars().forEach(errInput::write);
+                    }
+                    else
+                    {
+                        errInput.write(b);
+                    }
+                    mark = true;
+                    break;
+                case Ok:
+                case WillMatch:
+                    if (mark && errInput.size()> 0)
+                    {
+                        onError.apply(errInput::toByteArray);
+                        errInput.reset();
+                    }
+                    mark = false;
+                    break;
+                case Match:
+                    maxSentence = Math.max(maxSentence, ring.length());
+                    onOk.apply(ring, timestamp);
+                    mark = true;
+                    ring.discard();
+                    break;
             }
         }
+        return count;
+    }
+    /**
+     * Sentence didn't fit in buffer. It is rejected and counted so that 
+     * suggested buffer size grows.
+     */
+    private void overflow()
+    {
+        warning("%s buffer %d is too small, sentence rejected", name, bufferSize);
+        overflows++;
+        if (!mark)
+        {
+            ring.chars().forEach(errInput::write);
+        }
+        ring.discard();
+        matcher.clear();
+        mark = true;
+    }
+    /**
+     * Returns buffer size which suits read sizes and sentence lengths seen 
+     * so far. Buffer holds at least two longest sentences. It is doubled if
+     * sentence didn't fit or if more than 10% of reads filled whole free
+     * space.
+     * @return Power of 2 between MIN_BUFFER_SIZE and MAX_BUFFER_SIZE
+     */
+    public int getSuggestedBufferSize()
+    {
+        int need = 2*maxSentence;
+        if (overflows > 0 || fullReads*10 > reads)
+        {
+            need = Math.max(need, 2*bufferSize);
+        }
+        int size = Integer.highestOneBit(Math.max(need, 1));
+        if (size < need)
+        {
+            size <<= 1;
+        }
+        return Math.min(MAX_BUFFER_SIZE, Math.max(MIN_BUFFER_SIZE, size));
+    }
+    /**
+     * Returns length of longest sentence read.
+     * @return 
+     */
+    public int getMaxSentence()
+    {
+        return maxSentence;
     }
 
     public List<String> getDistribution()
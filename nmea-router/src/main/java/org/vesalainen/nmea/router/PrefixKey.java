@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.router;
+
+/**
+ * Encodes sentence prefix (e.g. $GPRMC) to long. Each character before ','
+ * takes 8 bits, so prefixes up to 8 characters are unique. Longer prefixes
+ * are truncated. 0 means no prefix.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public final class PrefixKey
+{
+    private static final int MAX_LENGTH = 8;
+    /**
+     * Returns encoded prefix of seq. seq can be prefix or whole sentence.
+     * Doesn't allocate.
+     * @param seq
+     * @return 
+     */
+    public static final long encode(CharSequence seq)
+    {
+        long key = 0;
+        int len = Math.min(seq.length(), MAX_LENGTH);
+        for (int ii=0;ii<len;ii++)
+        {
+            char cc = seq.charAt(ii);
+            if (cc == ',' || cc == '*' || cc == '\r')
+            {
+                break;
+            }
+            key = (key<<8) | (cc & 0xff);
+        }
+        return key;
+    }
+    /**
+     * Returns prefix string of key.
+     * @param key
+     * @return 
+     */
+    public static final String decode(long key)
+    {
+        StringBuilder sb = new StringBuilder(MAX_LENGTH);
+        while (key != 0)
+        {
+            sb.append((char)(key & 0xff));
+            key >>>= 8;
+        }
+        return sb.reverse().toString();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.router;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free fixed size map from prefix key to time. Any thread can put and
+ * get concurrently. Keys are never removed. When table is full new keys are
+ * not stored and get returns 0 for them. Put and get don't allocate.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ * @see PrefixKey
+ */
+public final class PrefixTimeMap
+{
+    private final AtomicLongArray keys;
+    private final AtomicLongArray times;
+    private final int mask;
+    /**
+     * Creates PrefixTimeMap
+     * @param size Number of keys. Rounded up to power of 2.
+     */
+    public PrefixTimeMap(int size)
+    {
+        int capacity = Integer.highestOneBit(size);
+        if (capacity < size)
+        {
+            capacity <<= 1;
+        }
+        keys = new AtomicLongArray(capacity);
+        times = new AtomicLongArray(capacity);
+        mask = capacity - 1;
+    }
+    /**
+     * Sets time for key.
+     * @param key Non zero key
+     * @param time 
+     */
+    public void put(long key, long time)
+    {
+        int idx = index(key, true);
+        if (idx != -1)
+        {
+            times.lazySet(idx, time);
+        }
+    }
+    /**
+     * Returns time of key or 0 if key is not found.
+     * @param key
+     * @return 
+     */
+    public long get(long key)
+    {
+        int idx = index(key, false);
+        if (idx != -1)
+        {
+            return times.get(idx);
+        }
+        return 0;
+    }
+    /**
+     * Returns stored keys.
+     * @return 
+     */
+    public long[] keys()
+    {
+        long[] arr = new long[keys.length()];
+        int count = 0;
+        for (int ii=0;ii<arr.length;ii++)
+        {
+            long k = keys.get(ii);
+            if (k != 0)
+            {
+                arr[count++] = k;
+            }
+        }
+        return Arrays.copyOf(arr, count);
+    }
+    private int index(long key, boolean insert)
+    {
+        if (key == 0)
+        {
+            throw new IllegalArgumentException("key 0");
+        }
+        int start = hash(key);
+        int ii = 0;
+        while (ii <= mask)
+        {
+            int idx = (start + ii) & mask;
+            long k = keys.get(idx);
+            if (k == key)
+            {
+                return idx;
+            }
+            if (k == 0)
+            {
+                if (!insert)
+                {
+                    return -1;
+                }
+                if (keys.compareAndSet(idx, 0, key))
+                {
+                    return idx;
+                }
+            }
+            else
+            {
+                ii++;
+            }
+        }
+        return -1;
+    }
+    private static int hash(long key)
+    {
+        int h = (int) (key ^ (key >>> 32)) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -17,13 +17,12 @@
 package org.vesalainen.nmea.router;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import static java.util.logging.Level.FINEST;
 import org.vesalainen.nio.RingByteBuffer;
 import org.vesalainen.nmea.jaxb.router.RouteType;
 import org.vesalainen.nmea.router.endpoint.Endpoint;
-import org.vesalainen.util.LongMap;
-import org.vesalainen.util.LongReference;
 import org.vesalainen.util.logging.JavaLogging;
 
 /**
@@ -32,14 +31,18 @@ import org.vesalainen.util.logging.JavaLogging;
  */
 public final class Route extends JavaLogging
 {
-    private static final LongMap<String> PREFIX_MAP = new LongMap<>();
+    private static final PrefixTimeMap PREFIX_MAP = new PrefixTimeMap(1024);
     private final String[] targetList;
+    private Endpoint[] targets = new Endpoint[0];
+    private int version = -1;
     private boolean backup;
     private long lastWrote;
     private List<Route> backupSources;
     private long expireTime = 1500;
     private int count;
     private int backupCount;
+    private PrefixTimeMap promoted;
+    private long promotions;
     private String toString;
 
     Route() // for test
@@ -71,6 +74,10 @@ public final class Route extends JavaLogging
         {
             backup = b;
         }
+        if (backup)
+        {
+            promoted = new PrefixTimeMap(1024);
+        }
         Long expire = routeType.getExpire();
         if (expire != null)
         {
@@ -78,42 +85,131 @@ public final class Route extends JavaLogging
         }
     }
 
-    public final void write(Endpoint src, String prefix, RingByteBuffer ring) throws IOException
+    /**
+     * Writes ring to targets unless this is backup route and prefix was
+     * written by primary route within expire time.
+     * @param src
+     * @param prefix Prefix key
+     * @param ring
+     * @param timestamp Read time in millis.
+     * @return false if backup route was suppressed.
+     * @throws IOException 
+     * @see PrefixKey
+     */
+    public final boolean write(Endpoint src, long prefix, RingByteBuffer ring, long timestamp) throws IOException
     {
-        if (canWrite(prefix))
+        lastWrote = timestamp;
+        if (canWrite(prefix, timestamp))
+        {
+            if (version != Endpoint.version())
+            {
+                resolve();
+            }
+            src.getFields().reset(ring, prefix);
+            for (Endpoint endpoint : targets)
+            {
+                endpoint.write(src, ring);
+                if (isLoggable(FINEST))
+                {
+                    StringBuilder sb = new StringBuilder();
+                    sb.append(ring);
+                    finest("%s->%s %s", src.getName(), endpoint.getName(), sb.substring(0, sb.length()-2));
+                }
+            }
+            count++;
+            return true;
+        }
+        else
+        {
+            backupCount++;
+            return false;
+        }
+    }
+
+    /**
+     * Looks up currently running target endpoints.
+     */
+    private void resolve()
+    {
+        int ver = Endpoint.version();
+        List<Endpoint> list = new ArrayList<>();
+        if (targetList != null)
         {
-            lastWrote = System.currentTimeMillis();
             for (String target : targetList)
             {
                 Endpoint endpoint = Endpoint.get(target);
                 if (endpoint != null)
                 {
-                    endpoint.write(src, ring);
-                    if (isLoggable(FINEST))
-                    {
-                        StringBuilder sb = new StringBuilder();
-                        sb.append(ring);
-                        finest("%s->%s %s", src.getName(), target, sb.substring(0, sb.length()-2));
-                    }
+                    list.add(endpoint);
                 }
             }
-            count++;
-            PREFIX_MAP.put(prefix, lastWrote);
         }
+        targets = list.toArray(new Endpoint[list.size()]);
+        version = ver;
+        finer("%s resolved %d targets", toString, targets.length);
     }
 
-    private boolean canWrite(String prefix)
+    /**
+     * Primary route marks prefix written. Backup route can write if primary
+     * hasn't written prefix within expire time. Backup state is kept per
+     * prefix, so that wildcard backup logs only real transitions.
+     * @param prefix
+     * @param now
+     * @return 
+     */
+    boolean canWrite(long prefix, long now)
     {
-        if (!backup)
+        if (prefix == 0)
         {
             return true;
         }
-        LongReference ref = PREFIX_MAP.get(prefix);
-        if (ref == null)
+        if (!backup)
         {
+            PREFIX_MAP.put(prefix, now);
             return true;
         }
-        return ref.getValue()+expireTime < System.currentTimeMillis();
+        boolean can = PREFIX_MAP.get(prefix)+expireTime < now;
+        if (can != isPromoted(prefix))
+        {
+            if (can)
+            {
+                promoted.put(prefix, now);
+                promotions++;
+                info("backup %s promoted for %s", toString, PrefixKey.decode(prefix));
+            }
+            else
+            {
+                promoted.put(prefix, 0);
+                info("backup %s suppressed for %s", toString, PrefixKey.decode(prefix));
+            }
+        }
+        return can;
+    }
+    /**
+     * Returns true if backup route is currently writing prefix.
+     * @param prefix
+     * @return 
+     */
+    boolean isPromoted(long prefix)
+    {
+        return promoted != null && promoted.get(prefix) != 0;
+    }
+    /**
+     * Returns number of times backup route has been promoted for any 
+     * prefix.
+     * @return 
+     */
+    public long getPromotions()
+    {
+        return promotions;
+    }
+    /**
+     * Returns true if this is backup route
+     * @return 
+     */
+    public boolean isBackup()
+    {
+        return backup;
     }
 
     @Override
@@ -41,6 +41,7 @@ import org.vesalainen.nmea.jaxb.router.Nmea0183HsType;
 import org.vesalainen.nmea.jaxb.router.Nmea0183Type;
 import org.vesalainen.nmea.jaxb.router.NmeaType;
 import org.vesalainen.nmea.jaxb.router.ObjectFactory;
+import org.vesalainen.nmea.jaxb.router.OverflowType;
 import org.vesalainen.nmea.jaxb.router.RouteType;
 import org.vesalainen.nmea.jaxb.router.ScriptType;
 import org.vesalainen.nmea.jaxb.router.SeatalkType;
@@ -217,6 +218,120 @@ public class RouterConfig extends JavaLogging
             return 1000;
         }
     }
+    /**
+     * Returns number of sentences queued for endpoints writer thread. 
+     * Endpoints writeQueue attribute overrides nmea elements. 0 means 
+     * synchronous writes in source thread. Default is 64.
+     * @param endpointType
+     * @return 
+     */
+    public int getWriteQueueSize(EndpointType endpointType)
+    {
+        Long value = endpointType.getWriteQueue();
+        if (value == null)
+        {
+            value = nmea.getValue().getWriteQueue();
+        }
+        if (value != null)
+        {
+            return value.intValue();
+        }
+        else
+        {
+            return 64;
+        }
+    }
+    /**
+     * Returns what to do when endpoints write queue is full. Endpoints 
+     * overflow attribute overrides nmea elements. Default is DROP_OLDEST.
+     * @param endpointType
+     * @return 
+     */
+    public OverflowType getOverflow(EndpointType endpointType)
+    {
+        OverflowType value = endpointType.getOverflow();
+        if (value == null)
+        {
+            value = nmea.getValue().getOverflow();
+        }
+        if (value != null)
+        {
+            return value;
+        }
+        else
+        {
+            return OverflowType.DROP_OLDEST;
+        }
+    }
+    /**
+     * Returns how many read sentences there are per JMX notification. 
+     * Endpoints notificationSample attribute overrides nmea elements. 
+     * Default is 1.
+     * @param endpointType
+     * @return 
+     */
+    public int getNotificationSample(EndpointType endpointType)
+    {
+        Long value = endpointType.getNotificationSample();
+        if (value == null)
+        {
+            value = nmea.getValue().getNotificationSample();
+        }
+        if (value != null)
+        {
+            return value.intValue();
+        }
+        else
+        {
+            return 1;
+        }
+    }
+    /**
+     * Returns minimum milliseconds between read sentence JMX notifications.
+     * Endpoints notificationInterval attribute overrides nmea elements. 
+     * Default is 100.
+     * @param endpointType
+     * @return 
+     */
+    public long getNotificationInterval(EndpointType endpointType)
+    {
+        Long value = endpointType.getNotificationInterval();
+        if (value == null)
+        {
+            value = nmea.getValue().getNotificationInterval();
+        }
+        if (value != null)
+        {
+            return value;
+        }
+        else
+        {
+            return 100;
+        }
+    }
+    /**
+     * Returns endpoints read buffer size. Endpoints bufferSize attribute 
+     * overrides nmea elements. If bufferSize is omitted from both, returns 0
+     * which means that size is adapted to input on restart.
+     * @param endpointType
+     * @return 
+     */
+    public int getBufferSize(EndpointType endpointType)
+    {
+        Long value = endpointType.getBufferSize();
+        if (value == null)
+        {
+            value = nmea.getValue().getBufferSize();
+        }
+        if (value != null)
+        {
+            return value.intValue();
+        }
+        else
+        {
+            return 0;
+        }
+    }
     public List<String> getAllDevices()
     {
         return nmea.getValue().getAllDevices();
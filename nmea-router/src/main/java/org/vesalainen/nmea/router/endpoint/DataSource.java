@@ -19,6 +19,8 @@ package org.vesalainen.nmea.router.endpoint;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 import java.util.logging.Logger;
@@ -49,8 +51,15 @@ public abstract class DataSource extends JavaLogging implements Runnable, DataSo
     protected long errorBytes;
     protected long lastRead;
     protected long lastWrite;
+    protected long suppressedCount;
+    protected long backupWriteCount;
     protected SimpleNotificationEmitter emitter;
     protected ObjectName objectName;
+    private final List<NotificationListener> listeners = new CopyOnWriteArrayList<>();
+    private int notificationSample = 1;
+    private long notificationInterval = 100;
+    private int sampleCount;
+    private long lastNotification;
 
     public DataSource(String name)
     {
@@ -83,6 +92,54 @@ public abstract class DataSource extends JavaLogging implements Runnable, DataSo
 
     public abstract int write(Endpoint src, RingByteBuffer ring) throws IOException;
 
+    /**
+     * Returns true if notification listeners are registered. Notifications
+     * are not needed otherwise.
+     * @return 
+     */
+    public boolean isSubscribed()
+    {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * Sets read sentence notification rate.
+     * @param sample Every sample sentence is notified.
+     * @param interval Minimum milliseconds between notifications.
+     */
+    public void setNotificationRate(int sample, long interval)
+    {
+        if (sample < 1 || interval < 0)
+        {
+            throw new IllegalArgumentException("sample="+sample+" interval="+interval);
+        }
+        this.notificationSample = sample;
+        this.notificationInterval = interval;
+    }
+    /**
+     * Returns true if read sentence should be notified. Returns false 
+     * without locking when nobody is subscribed. Otherwise sentences are
+     * sampled by notification rate. Called by reading thread.
+     * @param timestamp
+     * @return 
+     * @see #setNotificationRate(int, long) 
+     */
+    protected boolean sampleNotification(long timestamp)
+    {
+        if (listeners.isEmpty())
+        {
+            return false;
+        }
+        sampleCount++;
+        if (sampleCount < notificationSample || timestamp - lastNotification < notificationInterval)
+        {
+            return false;
+        }
+        sampleCount = 0;
+        lastNotification = timestamp;
+        return true;
+    }
+
     public synchronized void sendNotification(Supplier<String> textSupplier, Supplier<?> userDataSupplier, LongSupplier timestampSupplier)
     {
         emitter.sendNotification(textSupplier, userDataSupplier, timestampSupplier);
@@ -97,18 +154,21 @@ public abstract class DataSource extends JavaLogging implements Runnable, DataSo
     public synchronized void removeNotificationListener(NotificationListener listener, NotificationFilter filter, Object handback) throws ListenerNotFoundException
     {
         emitter.removeNotificationListener(listener, filter, handback);
+        listeners.remove(listener);
     }
 
     @Override
     public synchronized void addNotificationListener(NotificationListener listener, NotificationFilter filter, Object handback) throws IllegalArgumentException
     {
         emitter.addNotificationListener(listener, filter, handback);
+        listeners.add(listener);
     }
 
     @Override
     public synchronized void removeNotificationListener(NotificationListener listener) throws ListenerNotFoundException
     {
         emitter.removeNotificationListener(listener);
+        listeners.removeIf((l)->l.equals(listener));
     }
 
     @Override
@@ -153,6 +213,18 @@ public abstract class DataSource extends JavaLogging implements Runnable, DataSo
         return errorBytes;
     }
 
+    @Override
+    public long getSuppressedCount()
+    {
+        return suppressedCount;
+    }
+
+    @Override
+    public long getBackupWriteCount()
+    {
+        return backupWriteCount;
+    }
+
     @Override
     public Date getLastRead()
     {
@@ -25,11 +25,13 @@ import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.ScatteringByteChannel;
 import static java.nio.charset.StandardCharsets.US_ASCII;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import static java.util.logging.Level.*;
 import org.vesalainen.nio.RingByteBuffer;
@@ -39,10 +41,14 @@ import org.vesalainen.nmea.jaxb.router.RouteType;
 import org.vesalainen.nmea.jaxb.router.ScriptType;
 import org.vesalainen.nmea.router.NMEAMatcher;
 import org.vesalainen.nmea.router.NMEAReader;
+import org.vesalainen.nmea.router.PrefixKey;
+import org.vesalainen.nmea.router.PrefixTimeMap;
 import org.vesalainen.nmea.router.Route;
 import org.vesalainen.nmea.router.Router;
-import org.vesalainen.nmea.router.filter.MessageFilter;
-import org.vesalainen.parsers.nmea.NMEA;
+import org.vesalainen.nmea.router.RouterConfig;
+import static org.vesalainen.nmea.router.RouterManager.POOL;
+import org.vesalainen.nmea.router.filter.FilterChain;
+import org.vesalainen.nmea.router.filter.NMEAFields;
 import org.vesalainen.util.HexDump;
 
 /**
@@ -54,16 +60,24 @@ import org.vesalainen.util.HexDump;
 public abstract class Endpoint<E extends EndpointType, T extends ScatteringByteChannel & GatheringByteChannel> extends DataSource
 {
     protected static final Map<String,Endpoint> endpointMap = new ConcurrentHashMap<>();
+    private static final AtomicInteger version = new AtomicInteger();
+    private static final Map<String,Integer> bufferSizes = new ConcurrentHashMap<>();
+    private static final Map<String,Integer> sourceIndexes = new ConcurrentHashMap<>();
+    private static final AtomicInteger sourceCount = new AtomicInteger();
     protected final Router router;
     protected final E endpointType;
-    protected int bufferSize = 128;
+    protected int bufferSize = NMEAReader.MIN_BUFFER_SIZE;
+    private boolean fixedBufferSize;
     protected T channel;
     protected NMEAMatcher<Route> matcher;
     protected RingByteBuffer ring;
     protected EndpointScriptEngine scriptEngine;
-    protected List<MessageFilter> filterList;
-    protected Set<String> fingerPrint = new HashSet<>();
+    protected FilterChain filterChain;
+    private final NMEAFields fields = new NMEAFields();
+    private final int sourceIndex;
+    protected final PrefixTimeMap fingerPrint = new PrefixTimeMap(256);
     private NMEAReader reader;
+    WriteQueue writeQueue;
 
     public Endpoint(E endpointType, Router router)
     {
@@ -80,6 +94,7 @@ public abstract class Endpoint<E extends EndpointType, T extends ScatteringByteC
         super(endpointType.getName()+ext);
         this.router = router;
         this.endpointType = endpointType;
+        this.sourceIndex = sourceIndexes.computeIfAbsent(name, (n)->sourceCount.getAndIncrement());
         init();
         config("started %s", endpointType.getName());
     }
@@ -95,31 +110,40 @@ public abstract class Endpoint<E extends EndpointType, T extends ScatteringByteC
         if (filters != null && !filters.isEmpty())
         {
             config("add filters for %s", name);
-            filterList = new ArrayList<>();
+            List<String> classnames = new ArrayList<>();
             for (FilterType filterType : filters)
             {
                 String classname = filterType.getClassname();
                 config("creating filter %s", classname);
-                try
-                {
-                    Class<?> cls = Class.forName(classname);
-                    if (MessageFilter.class.isAssignableFrom(cls))
-                    {
-                        MessageFilter filterInstance = (MessageFilter) cls.newInstance();
-                        filterList.add(filterInstance);
-                    }
-                    else
-                    {
-                        throw new IllegalArgumentException(cls + " not subclass of " + MessageFilter.class);
-                    }
-                }
-                catch (ClassNotFoundException | InstantiationException | IllegalAccessException ex)
-                {
-                    throw new IllegalArgumentException(ex);
-                }
+                classnames.add(classname);
             }
+            filterChain = new FilterChain(classnames);
         }
         matcher = createMatcher(endpointType);
+        if (router != null)
+        {
+            RouterConfig config = router.getConfig();
+            int writeQueueSize = config.getWriteQueueSize(endpointType);
+            if (writeQueueSize > 0)
+            {
+                writeQueue = new WriteQueue(this, writeQueueSize, config.getOverflow(endpointType));
+            }
+            setNotificationRate(config.getNotificationSample(endpointType), config.getNotificationInterval(endpointType));
+            int size = config.getBufferSize(endpointType);
+            if (size > 0)
+            {
+                bufferSize = size;
+                fixedBufferSize = true;
+            }
+        }
+        if (!fixedBufferSize)
+        {
+            Integer learned = bufferSizes.get(name);
+            if (learned != null)
+            {
+                bufferSize = learned;
+            }
+        }
     }
 
     protected NMEAMatcher<Route> createMatcher(EndpointType endpointType)
@@ -142,31 +166,68 @@ public abstract class Endpoint<E extends EndpointType, T extends ScatteringByteC
         return wm;
     }
 
+    /**
+     * Writes ring content to channel. If write queue is active content is
+     * queued for writer thread and ring length is returned if it was queued.
+     * @param src
+     * @param ring
+     * @return
+     * @throws IOException 
+     */
     @Override
     public int write(Endpoint src, RingByteBuffer ring) throws IOException
     {
-        lastWrite = System.currentTimeMillis();
         int cnt = 0;
         if (channel != null)
         {
-            if (filterList != null)
+            if (!accept(src))
             {
-                for (MessageFilter filter : filterList)
-                {
-                    if (!filter.accept(ring))
-                    {
-                        return 0;
-                    }
-                }
+                return 0;
+            }
+            if (writeQueue != null && writeQueue.isActive())
+            {
+                return writeQueue.offer(ring) ? ring.length() : 0;
             }
+            lastWrite = System.currentTimeMillis();
             cnt = ring.writeTo(channel);
-            finer("write %s = %d", ring, cnt);
+            if (isLoggable(FINER))
+            {
+                finer("write %s = %d", ring, cnt);
+            }
             writeCount++;
             writeBytes += cnt;
         }
         return cnt;
     }
 
+    /**
+     * Returns true if filters accept current sentence of src.
+     * @param src
+     * @return 
+     */
+    protected boolean accept(Endpoint src)
+    {
+        return filterChain == null || filterChain.accept(src.sourceIndex, src.fields);
+    }
+    /**
+     * Returns index of this endpoint as a source. Index is same for all
+     * endpoints with same name.
+     * @return 
+     */
+    public int getSourceIndex()
+    {
+        return sourceIndex;
+    }
+    /**
+     * Returns current routed sentence split to fields. Route resets it once 
+     * per sentence before writing to targets.
+     * @return 
+     */
+    public NMEAFields getFields()
+    {
+        return fields;
+    }
+
     @Override
     public int write(ByteBuffer bb) throws IOException
     {
@@ -181,10 +242,46 @@ public abstract class Endpoint<E extends EndpointType, T extends ScatteringByteC
         }
         return cnt;
     }
+    /**
+     * Writes all of bb to channel in writer thread.
+     * @param bb
+     * @throws IOException 
+     */
+    void writeQueued(ByteBuffer bb) throws IOException
+    {
+        lastWrite = System.currentTimeMillis();
+        int cnt = 0;
+        while (bb.hasRemaining())
+        {
+            cnt += channel.write(bb);
+        }
+        if (isLoggable(FINER))
+        {
+            finer("write %s = %d", bb, cnt);
+        }
+        writeCount++;
+        writeBytes += cnt;
+    }
     protected abstract T createChannel() throws IOException;
-    protected void onStart() throws IOException
+    /**
+     * Makes this endpoint available as route target.
+     */
+    protected void putEndpoint()
     {
         endpointMap.put(name, this);
+        version.incrementAndGet();
+    }
+    /**
+     * Removes this endpoint from route targets.
+     */
+    protected void removeEndpoint()
+    {
+        endpointMap.remove(name, this);
+        version.incrementAndGet();
+    }
+    protected void onStart() throws IOException
+    {
+        putEndpoint();
         if (scriptEngine != null)
         {
             scriptEngine.start();
@@ -193,7 +290,7 @@ public abstract class Endpoint<E extends EndpointType, T extends ScatteringByteC
     }
     protected void onStop() throws IOException
     {
-        endpointMap.remove(name);
+        removeEndpoint();
         if (scriptEngine != null)
         {
             scriptEngine.stop();
@@ -213,15 +310,25 @@ public abstract class Endpoint<E extends EndpointType, T extends ScatteringByteC
             config("registerMBean %s", objectName);
             ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
             onStart();
+            Future<?> writerFuture = null;
             try (T ch = createChannel())
             {
                 channel = ch;
                 config("started %s", channel);
+                if (writeQueue != null)
+                {
+                    writerFuture = POOL.submit(writeQueue);
+                }
                 reader = new NMEAReader(name, matcher, channel, bufferSize, this::onOk, this::onError);
                 reader.read();
             }
             finally
             {
+                if (writerFuture != null)
+                {
+                    writerFuture.cancel(true);
+                }
+                learnBufferSize();
                 onStop();
                 if (priority != null)
                 {
@@ -237,28 +344,66 @@ public abstract class Endpoint<E extends EndpointType, T extends ScatteringByteC
         }
     }
 
+    /**
+     * Stores suggested buffer size for the next start of this endpoint 
+     * unless buffer size is configured.
+     */
+    private void learnBufferSize()
+    {
+        if (reader != null && !fixedBufferSize)
+        {
+            int suggested = reader.getSuggestedBufferSize();
+            if (suggested != bufferSize)
+            {
+                config("%s buffer size %d -> %d for next start", name, bufferSize, suggested);
+            }
+            bufferSizes.put(name, suggested);
+        }
+    }
     protected void onOk(RingByteBuffer ring, long timestamp) throws IOException
+    {
+        onOk(matcher.getMatched(), ring, timestamp);
+    }
+    /**
+     * Routes matched sentence. Doesn't allocate unless sampled for
+     * notification or logging is FINER.
+     * @param route Route of matched prefix.
+     * @param ring
+     * @param timestamp
+     * @throws IOException 
+     */
+    protected void onOk(Route route, RingByteBuffer ring, long timestamp) throws IOException
     {
         readBytes += ring.length();
         readCount++;
-        lastRead = System.currentTimeMillis();
-        finer("read: %s", ring);
-        String prefix = null;
-        CharSequence seqPrefix = NMEA.getPrefix(ring);
-        if (seqPrefix != null)
+        lastRead = timestamp;
+        if (isLoggable(FINER))
+        {
+            finer("read: %s", ring);
+        }
+        long prefix = PrefixKey.encode(ring);
+        if (route.write(this, prefix, ring, timestamp))
+        {
+            if (route.isBackup())
+            {
+                backupWriteCount++;
+            }
+        }
+        else
         {
-            prefix = seqPrefix.toString();
+            suppressedCount++;
         }
-        Route route = matcher.getMatched();
-        route.write(this, prefix, ring);
         if (scriptEngine != null)
         {
             scriptEngine.write(ring);
         }
-        sendNotification(()->ring.getString(), ()->route.toString(), ()->timestamp);
-        if (prefix != null)
+        if (sampleNotification(timestamp))
+        {
+            sendNotification(()->ring.getString(), ()->route.toString(), ()->timestamp);
+        }
+        if (prefix != 0)
         {
-            fingerPrint.add(prefix);
+            fingerPrint.put(prefix, timestamp);
         }
     }
     protected void onError(Supplier<byte[]> errInput) throws IOException
@@ -268,7 +413,10 @@ public abstract class Endpoint<E extends EndpointType, T extends ScatteringByteC
         errorBytes += error.length;
         warning("%s: rejected %s", name, new String(error, US_ASCII));
         finest(()->HexDump.toHex(errInput));
-        sendNotification(()->new String(error, US_ASCII), ()->error, ()->lastRead);
+        if (isSubscribed())
+        {
+            sendNotification(()->new String(error, US_ASCII), ()->error, ()->lastRead);
+        }
     }
 
     @Override
@@ -280,7 +428,12 @@ public abstract class Endpoint<E extends EndpointType, T extends ScatteringByteC
     @Override
     public Set<String> getFingerPrint()
     {
-        return fingerPrint;
+        Set<String> set = new TreeSet<>();
+        for (long key : fingerPrint.keys())
+        {
+            set.add(PrefixKey.decode(key));
+        }
+        return set;
     }
 
     @Override
@@ -293,6 +446,42 @@ public abstract class Endpoint<E extends EndpointType, T extends ScatteringByteC
         return null;
     }
 
+    @Override
+    public int getBufferSize()
+    {
+        return bufferSize;
+    }
+
+    @Override
+    public int getSuggestedBufferSize()
+    {
+        if (reader != null)
+        {
+            return reader.getSuggestedBufferSize();
+        }
+        return bufferSize;
+    }
+
+    @Override
+    public long getDropCount()
+    {
+        if (writeQueue != null)
+        {
+            return writeQueue.getDropCount();
+        }
+        return 0;
+    }
+
+    @Override
+    public int getQueued()
+    {
+        if (writeQueue != null)
+        {
+            return writeQueue.getQueued();
+        }
+        return 0;
+    }
+
     public E getEndpointType()
     {
         return endpointType;
@@ -302,6 +491,15 @@ public abstract class Endpoint<E extends EndpointType, T extends ScatteringByteC
     {
         return endpointMap.get(name);
     }
+    /**
+     * Returns version which is changed every time endpoint is added or
+     * removed. Routes resolve their targets again when version changes.
+     * @return 
+     */
+    public static int version()
+    {
+        return version.get();
+    }
     @Override
     public String toString()
     {
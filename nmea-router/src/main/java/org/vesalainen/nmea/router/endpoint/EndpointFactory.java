@@ -20,6 +20,7 @@ import org.vesalainen.nmea.jaxb.router.BroadcastNMEAType;
 import org.vesalainen.nmea.jaxb.router.BroadcastType;
 import org.vesalainen.nmea.jaxb.router.DatagramType;
 import org.vesalainen.nmea.jaxb.router.EndpointType;
+import org.vesalainen.nmea.jaxb.router.GpsFusionType;
 import org.vesalainen.nmea.jaxb.router.LogEndpointType;
 import org.vesalainen.nmea.jaxb.router.MulticastNMEAType;
 import org.vesalainen.nmea.jaxb.router.MulticastType;
@@ -51,6 +52,10 @@ public final class EndpointFactory
         {
             return new ProcessorEndpoint((ProcessorType) endpointType, router);
         }
+        if (endpointType instanceof GpsFusionType)
+        {
+            return new GpsFusionEndpoint((GpsFusionType) endpointType, router);
+        }
         if (endpointType instanceof MulticastNMEAType)
         {
             return new MulticastNMEAEndpoint((MulticastNMEAType) endpointType, router);
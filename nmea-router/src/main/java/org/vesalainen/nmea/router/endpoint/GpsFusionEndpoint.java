@@ -0,0 +1,541 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.router.endpoint;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.vesalainen.lang.Primitives;
+import org.vesalainen.nio.RingByteBuffer;
+import org.vesalainen.nio.channels.PipeChannel;
+import org.vesalainen.nmea.jaxb.router.GpsFusionType;
+import org.vesalainen.nmea.router.Route;
+import org.vesalainen.nmea.router.Router;
+import org.vesalainen.nmea.router.filter.NMEAFields;
+
+/**
+ * GpsFusionEndpoint takes position sentences from several GPS sources and
+ * routes RMC and GGA sentences of the best source only.
+ * 
+ * <p>Sources are scored by GGA fix quality and HDOP from GGA or GSA. A source
+ * is not eligible if it hasn't had a valid fix in staleTime, or if its 
+ * position jumped more than maxJump degrees until it has 2 consistent fix 
+ * epochs again. Fix epoch is the UTC time field, so RMC and GGA of the same
+ * fix count once. Selected source is changed only when another source has
+ * score better by MARGIN or selected source is not eligible.
+ * 
+ * <p>Everything is done in the writing source thread. Each source state is 
+ * written only by its own thread and read by others. Selected sentence is 
+ * routed as it is without copying. If period is set, RMC and GGA are 
+ * routed at most once in period milliseconds.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public class GpsFusionEndpoint extends Endpoint<GpsFusionType,PipeChannel>
+{
+    private static final int RMC = ('R'<<16)|('M'<<8)|'C';
+    private static final int GGA = ('G'<<16)|('G'<<8)|'A';
+    private static final int GSA = ('G'<<16)|('S'<<8)|'A';
+    private static final int[] QUALITY = new int[] {0, 1, 2, 2, 4, 3, 0, 0, 0};
+    private static final int CONSISTENT = 2;
+    private static final int MARGIN = 10;
+    private long period;
+    private long staleTime = 3000;
+    private double maxJump = 0.1;
+    private volatile Source[] sources = new Source[0];
+    private final AtomicInteger selected = new AtomicInteger(-1);
+    private final AtomicBoolean routing = new AtomicBoolean();
+    private final AtomicLong lastRMC = new AtomicLong();
+    private final AtomicLong lastGGA = new AtomicLong();
+    private final AtomicLong switchCount = new AtomicLong();
+    private final LongSupplier clock;
+
+    public GpsFusionEndpoint(GpsFusionType gpsFusionType, Router router)
+    {
+        this(gpsFusionType, router, System::currentTimeMillis);
+    }
+    
+    GpsFusionEndpoint(GpsFusionType gpsFusionType, Router router, LongSupplier clock)
+    {
+        super(gpsFusionType, router);
+        this.clock = clock;
+        Long p = gpsFusionType.getPeriod();
+        if (p != null)
+        {
+            period = p;
+        }
+        Long st = gpsFusionType.getStaleTime();
+        if (st != null)
+        {
+            staleTime = st;
+        }
+        BigDecimal mj = gpsFusionType.getMaxJump();
+        if (mj != null)
+        {
+            maxJump = mj.doubleValue();
+        }
+    }
+
+    @Override
+    public PipeChannel createChannel() throws IOException
+    {
+        PipeChannel[] peers = PipeChannel.createPeers();
+        return peers[0];
+    }
+    /**
+     * Updates src state and routes RMC and GGA if src is selected.
+     * @param src
+     * @param ring
+     * @return
+     * @throws IOException 
+     */
+    @Override
+    public int write(Endpoint src, RingByteBuffer ring) throws IOException
+    {
+        if (!accept(src))
+        {
+            return 0;
+        }
+        NMEAFields fields = src.getFields();
+        long prefix = fields.getPrefix();
+        if ((prefix>>>40) != '$')
+        {
+            return 0;
+        }
+        int type = (int) (prefix & 0xffffff);
+        if (type != RMC && type != GGA && type != GSA)
+        {
+            return 0;
+        }
+        long now = clock.getAsLong();
+        Source source = getSource(src);
+        source.update(type, fields, now);
+        if (select(now) == source.index && type != GSA)
+        {
+            return route(type, ring, now);
+        }
+        return 0;
+    }
+    /**
+     * Returns index of selected source or -1 if none is eligible. Eligible
+     * selected source is kept unless other source score is better by MARGIN.
+     * @param now
+     * @return 
+     */
+    private int select(long now)
+    {
+        int current = selected.get();
+        Source[] arr = sources;
+        Source best = null;
+        int bestScore = 0;
+        int threshold = 0;
+        if (current >= 0 && current < arr.length && arr[current] != null)
+        {
+            int score = arr[current].score(now);
+            if (score > 0)
+            {
+                best = arr[current];
+                bestScore = score;
+                threshold = score + MARGIN;
+            }
+        }
+        for (Source s : arr)
+        {
+            if (s != null)
+            {
+                int score = s.score(now);
+                if (score > threshold)
+                {
+                    best = s;
+                    bestScore = score;
+                    threshold = score;
+                }
+            }
+        }
+        int index = best != null ? best.index : -1;
+        if (index != current && selected.compareAndSet(current, index))
+        {
+            switchCount.incrementAndGet();
+            if (best != null)
+            {
+                info("%s selected %s score=%d", name, best.name, bestScore);
+            }
+            else
+            {
+                warning("%s no eligible source", name);
+            }
+        }
+        return selected.get();
+    }
+    
+    /**
+     * Routes ring if routing is free and period has elapsed. Period slot is
+     * claimed only after routing is taken so that a dropped sentence doesn't
+     * use it up.
+     * @param type
+     * @param ring
+     * @param now
+     * @return
+     * @throws IOException 
+     */
+    private int route(int type, RingByteBuffer ring, long now) throws IOException
+    {
+        if (routing.compareAndSet(false, true))
+        {
+            try
+            {
+                AtomicLong last = type == RMC ? lastRMC : lastGGA;
+                if (period > 0 && now - last.get() < period)
+                {
+                    return 0;
+                }
+                Route route = match(ring);
+                if (route != null)
+                {
+                    last.set(now);
+                    onOk(route, ring, now);
+                    return ring.length();
+                }
+            }
+            finally
+            {
+                routing.set(false);
+            }
+        }
+        return 0;
+    }
+    /**
+     * Returns route of ring prefix or null.
+     * @param ring
+     * @return 
+     */
+    private Route match(RingByteBuffer ring)
+    {
+        matcher.clear();
+        try
+        {
+            int length = ring.length();
+            for (int ii=0;ii<length;ii++)
+            {
+                switch (matcher.match(ring.charAt(ii)))
+                {
+                    case Error:
+                        return null;
+                }
+                if (matcher.isScanning())
+                {
+                    return matcher.getMatched();
+                }
+            }
+            return null;
+        }
+        finally
+        {
+            matcher.clear();
+        }
+    }
+
+    private Source getSource(Endpoint src)
+    {
+        int index = src.getSourceIndex();
+        Source[] arr = sources;
+        if (index < arr.length && arr[index] != null)
+        {
+            return arr[index];
+        }
+        return addSource(src);
+    }
+    
+    private synchronized Source addSource(Endpoint src)
+    {
+        int index = src.getSourceIndex();
+        Source[] arr = sources;
+        if (index >= arr.length)
+        {
+            arr = Arrays.copyOf(arr, index+1);
+        }
+        else
+        {
+            if (arr[index] != null)
+            {
+                return arr[index];
+            }
+            arr = arr.clone();
+        }
+        Source source = new Source(index, src.getName());
+        arr[index] = source;
+        sources = arr;
+        config("%s added source %s", name, source.name);
+        return source;
+    }
+    /**
+     * Returns number of times selected source has changed.
+     * @return 
+     */
+    public long getSwitchCount()
+    {
+        return switchCount.get();
+    }
+    /**
+     * Returns name of selected source or null.
+     * @return 
+     */
+    public String getSelected()
+    {
+        int index = selected.get();
+        Source[] arr = sources;
+        if (index >= 0 && index < arr.length && arr[index] != null)
+        {
+            return arr[index].name;
+        }
+        return null;
+    }
+    
+    private class Source
+    {
+        private final int index;
+        private final String name;
+        private volatile long fixTime;
+        private volatile int quality;
+        private int hdop = 99;
+        private double latitude = Double.NaN;
+        private double longitude = Double.NaN;
+        private long positionTime;
+        private int consistent;
+        private long epoch = -1;
+        private boolean hasGGA;
+
+        public Source(int index, String name)
+        {
+            this.index = index;
+            this.name = name;
+        }
+        /**
+         * Returns score or 0 if not eligible. Can be called from any thread.
+         * @param now
+         * @return 
+         */
+        private int score(long now)
+        {
+            long time = fixTime;
+            int q = quality;
+            if (time == 0 || now - time > staleTime || q == 0)
+            {
+                return 0;
+            }
+            return 100*q+100-hdop;
+        }
+        /**
+         * Updates state. Called only from source thread.
+         * @param type
+         * @param fields
+         * @param now 
+         */
+        private void update(int type, NMEAFields fields, long now)
+        {
+            try
+            {
+                switch (type)
+                {
+                    case RMC:
+                        if (fields.getFieldCount() > 6)
+                        {
+                            if (fields.equals(2, "A"))
+                            {
+                                position(fields, 3, now);
+                            }
+                            else
+                            {
+                                fixTime = 0;
+                            }
+                        }
+                        break;
+                    case GGA:
+                        if (fields.getFieldCount() > 8)
+                        {
+                            int q = parseInt(fields, 6, 0);
+                            q = q >= 0 && q < QUALITY.length ? QUALITY[q] : 0;
+                            setHdop(fields, 8);
+                            hasGGA = true;
+                            if (q > 0)
+                            {
+                                position(fields, 2, now);
+                            }
+                            else
+                            {
+                                fixTime = 0;
+                            }
+                            quality = q;
+                        }
+                        break;
+                    case GSA:
+                        if (fields.getFieldCount() > 16)
+                        {
+                            setHdop(fields, 16);
+                        }
+                        break;
+                }
+            }
+            catch (IllegalArgumentException ex)
+            {
+                warning("%s: %s", name, ex.getMessage());
+            }
+        }
+        /**
+         * Sets position from fields index - index+3. Fix is valid after
+         * CONSISTENT fix epochs without jump.
+         * @param fields
+         * @param index
+         * @param now 
+         */
+        private void position(NMEAFields fields, int index, long now)
+        {
+            long utc = utc(fields, 1);
+            double lat = coordinate(fields, index, 'N', 'S');
+            double lon = coordinate(fields, index+2, 'E', 'W');
+            if (
+                    !Double.isNaN(latitude) && 
+                    now - positionTime <= staleTime &&
+                    (Math.abs(lat-latitude) > maxJump || Math.abs(lon-longitude) > maxJump)
+                    )
+            {
+                warning("%s: position jumped from %f %f to %f %f", name, latitude, longitude, lat, lon);
+                consistent = 0;
+            }
+            else
+            {
+                if (utc != epoch && consistent < CONSISTENT)
+                {
+                    consistent++;
+                }
+            }
+            epoch = utc;
+            latitude = lat;
+            longitude = lon;
+            positionTime = now;
+            if (!hasGGA)
+            {
+                quality = QUALITY[1];
+            }
+            fixTime = consistent >= CONSISTENT ? now : 0;
+        }
+        
+        private void setHdop(NMEAFields fields, int index)
+        {
+            int begin = fields.getBegin(index);
+            int end = fields.getEnd(index);
+            if (begin < end)
+            {
+                float h = Primitives.parseFloat(fields.getSequence(), begin, end);
+                hdop = Math.min(99, Math.round(h*10));
+            }
+        }
+    }
+    
+    private static int parseInt(NMEAFields fields, int index, int def)
+    {
+        int begin = fields.getBegin(index);
+        int end = fields.getEnd(index);
+        if (begin < end)
+        {
+            return Primitives.parseInt(fields.getSequence(), begin, end);
+        }
+        return def;
+    }
+    /**
+     * Returns hhmmss.ss time field digits as long. Used only for comparing
+     * fix epochs.
+     * @param fields
+     * @param index
+     * @return 
+     */
+    private static long utc(NMEAFields fields, int index)
+    {
+        CharSequence cs = fields.getSequence();
+        int begin = fields.getBegin(index);
+        int end = fields.getEnd(index);
+        if (begin == end)
+        {
+            throw new IllegalArgumentException("no time "+cs);
+        }
+        long value = 0;
+        for (int ii=begin;ii<end;ii++)
+        {
+            char cc = cs.charAt(ii);
+            if (cc >= '0' && cc <= '9')
+            {
+                value = 10*value + cc - '0';
+            }
+            else
+            {
+                if (cc != '.')
+                {
+                    throw new IllegalArgumentException("illegal time "+cs);
+                }
+            }
+        }
+        return value;
+    }
+    /**
+     * Returns coordinate in degrees from ddmm.mmm field and hemisphere field.
+     * @param fields
+     * @param index
+     * @param pos
+     * @param neg
+     * @return 
+     */
+    private static double coordinate(NMEAFields fields, int index, char pos, char neg)
+    {
+        CharSequence cs = fields.getSequence();
+        int begin = fields.getBegin(index);
+        int end = fields.getEnd(index);
+        int idx = -1;
+        for (int ii=begin;ii<end;ii++)
+        {
+            if (cs.charAt(ii) == '.')
+            {
+                idx = ii-2;
+                break;
+            }
+        }
+        if (idx < begin)
+        {
+            throw new IllegalArgumentException("illegal coordinate "+cs);
+        }
+        double deg = Primitives.parseInt(cs, begin, idx);
+        double min = Primitives.parseFloat(cs, idx, end);
+        double value = deg+min/60.0;
+        int hi = fields.getBegin(index+1);
+        if (hi == fields.getEnd(index+1))
+        {
+            throw new IllegalArgumentException("no hemisphere "+cs);
+        }
+        char hemisphere = cs.charAt(hi);
+        if (hemisphere == neg)
+        {
+            return -value;
+        }
+        if (hemisphere != pos)
+        {
+            throw new IllegalArgumentException("illegal hemisphere "+cs);
+        }
+        return value;
+    }
+}
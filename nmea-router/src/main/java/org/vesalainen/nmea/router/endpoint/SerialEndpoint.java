@@ -54,7 +54,7 @@ public abstract class SerialEndpoint<E extends SerialType, T extends ScatteringB
         if (!routing)
         {
             routing = true;
-            endpointMap.put(name, this);
+            putEndpoint();
             if (scriptEngine != null)
             {
                 scriptEngine.start();
@@ -17,35 +17,79 @@
 package org.vesalainen.nmea.router.endpoint;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.net.InetSocketAddress;
 import static java.net.StandardSocketOptions.SO_REUSEADDR;
 import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import static java.nio.channels.SelectionKey.*;
+import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
-import java.util.Map.Entry;
-import java.util.concurrent.Future;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.logging.Level;
 import static java.util.logging.Level.SEVERE;
-import java.util.logging.Logger;
 import org.vesalainen.nio.RingByteBuffer;
-import org.vesalainen.nio.SynchronizedRingByteBuffer;
+import org.vesalainen.nmea.jaxb.router.OverflowType;
 import org.vesalainen.nmea.jaxb.router.TcpEndpointType;
+import org.vesalainen.nmea.router.NMEAMatcher;
+import org.vesalainen.nmea.router.NMEAReader;
+import org.vesalainen.nmea.router.Route;
 import org.vesalainen.nmea.router.Router;
-import static org.vesalainen.nmea.router.RouterManager.POOL;
 
 /**
+ * TCPListenerEndpoint serves all clients from one selector thread.
  *
+ * <p>Routed sentences are filtered once and queued to write queue. Selector
+ * thread drains the queue to a shared broadcast buffer which is written to
+ * every client. Client socket that cannot take the whole broadcast skips it
+ * and client that makes no write progress in STALL_TIMEOUT is disconnected.
+ * When selector thread stops the write queue is stopped, so that blocked
+ * writers return.
+ * 
+ * <p>Sentences read from clients are routed synchronously in selector 
+ * thread. Therefore own write queue cannot block: a route back to this 
+ * endpoint would wait for the selector thread itself. BLOCK overflow is 
+ * replaced with DROP_OLDEST. Routing client input to other endpoints with 
+ * BLOCK overflow stalls accept, read and flush of all clients while the 
+ * target is full.
  * @author Timo Vesalainen <timo.vesalainen@iki.fi>
  */
 public class TCPListenerEndpoint extends Endpoint<TcpEndpointType,SocketChannel>
 {
-    private AtomicInteger listenerCount = new AtomicInteger();
-    private AtomicInteger seq = new AtomicInteger();
-    
+    private static final long STALL_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+    private static final int DEFAULT_QUEUE = 64;
+    private final AtomicInteger clientCount = new AtomicInteger();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    private final List<Client> clients = new ArrayList<>();
+    private int seq;
+    private Selector selector;
+    private ServerSocketChannel serverSocketChannel;
+    private ByteBuffer broadcast;
+    private int clientBufferSize;
+    private volatile long skipCount;
+
     public TCPListenerEndpoint(TcpEndpointType tcpEndpointType, Router router)
     {
         super(tcpEndpointType, router);
+        if (writeQueue == null)
+        {
+            writeQueue = new WriteQueue(this, DEFAULT_QUEUE, OverflowType.DROP_OLDEST);
+        }
+        else
+        {
+            if (writeQueue.getOverflow() == OverflowType.BLOCK)
+            {
+                warning("%s overflow BLOCK would block selector thread, using DROP_OLDEST", name);
+                writeQueue = new WriteQueue(this, writeQueue.capacity(), OverflowType.DROP_OLDEST);
+            }
+        }
+        clientBufferSize = 2*writeQueue.capacity()*bufferSize;
+        broadcast = ByteBuffer.allocateDirect(clientBufferSize);
     }
 
     @Override
@@ -59,144 +103,324 @@ public class TCPListenerEndpoint extends Endpoint<TcpEndpointType,SocketChannel>
     {
         try
         {
-            Endpoint.endpointMap.put(name, this);
-            int port = endpointType.getPort();
-            InetSocketAddress socketAddress = new InetSocketAddress(port);
-            ServerSocketChannel serverSocketChannel = ServerSocketChannel.open();
-            serverSocketChannel.setOption(SO_REUSEADDR, true);
-            serverSocketChannel.bind(socketAddress);
-            while (true)
+            config("registerMBean %s", objectName);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            try (Selector sel = Selector.open();
+                ServerSocketChannel ssc = ServerSocketChannel.open())
+            {
+                selector = sel;
+                serverSocketChannel = ssc;
+                ssc.setOption(SO_REUSEADDR, true);
+                ssc.bind(new InetSocketAddress(endpointType.getPort()));
+                ssc.configureBlocking(false);
+                ssc.register(selector, OP_ACCEPT);
+                writeQueue.start();
+                onStart();
+                loop();
+            }
+            finally
             {
-                SocketChannel socketChannel = serverSocketChannel.accept();
-                TCPEndpoint tcpEndpoint = new TCPEndpoint(socketChannel, endpointType, router);
-                POOL.submit(tcpEndpoint);
+                writeQueue.stop();
+                onStop();
+                for (Client client : new ArrayList<>(clients))
+                {
+                    client.close();
+                }
+                clientCount.set(0);
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+                config("unregisterMBean %s", objectName);
             }
         }
         catch (Throwable ex)
         {
             log(SEVERE, ex, "%s stopped because of %s", name, ex);
         }
-        finally
+    }
+
+    private void loop() throws IOException
+    {
+        while (!Thread.currentThread().isInterrupted())
         {
-            Endpoint.endpointMap.remove(name);
+            selector.select(STALL_TIMEOUT);
+            wakeupPending.set(false);
+            Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+            while (iterator.hasNext())
+            {
+                SelectionKey key = iterator.next();
+                iterator.remove();
+                if (key.isValid())
+                {
+                    if (key.isAcceptable())
+                    {
+                        accept();
+                    }
+                    else
+                    {
+                        Client client = (Client) key.attachment();
+                        if (key.isReadable())
+                        {
+                            client.read();
+                        }
+                        if (key.isValid() && key.isWritable())
+                        {
+                            client.flush();
+                        }
+                    }
+                }
+            }
+            broadcast.clear();
+            broadcast = writeQueue.drain(broadcast);
+            broadcast.flip();
+            boolean hasBroadcast = broadcast.hasRemaining();
+            long now = System.currentTimeMillis();
+            for (int ii=clients.size()-1;ii>=0;ii--)
+            {
+                Client client = clients.get(ii);
+                if (hasBroadcast)
+                {
+                    broadcast.rewind();
+                    client.send(broadcast, now);
+                }
+                client.checkStall(now);
+            }
         }
     }
 
+    private void accept() throws IOException
+    {
+        SocketChannel socketChannel = serverSocketChannel.accept();
+        if (socketChannel != null)
+        {
+            socketChannel.configureBlocking(false);
+            Client client = new Client(socketChannel);
+            client.key = socketChannel.register(selector, OP_READ, client);
+            clients.add(client);
+            clientCount.incrementAndGet();
+            config("starting socket connection %s", socketChannel);
+        }
+    }
+    /**
+     * Queues ring content for clients.
+     * @param src
+     * @param ring
+     * @return
+     * @throws IOException
+     */
+    @Override
+    public int write(Endpoint src, RingByteBuffer ring) throws IOException
+    {
+        if (clientCount.get() > 0)
+        {
+            if (!accept(src))
+            {
+                return 0;
+            }
+            if (writeQueue.offer(ring))
+            {
+                wakeup();
+                return ring.length();
+            }
+        }
+        return 0;
+    }
+
     @Override
     public int write(ByteBuffer bb) throws IOException
     {
-        int count = 0;
-        if (listenerCount.get() > 0)
+        if (clientCount.get() > 0)
         {
-            for (Entry<String, Endpoint> entry : endpointMap.entrySet())
+            int remaining = bb.remaining();
+            if (writeQueue.offer(bb))
             {
-                String key = entry.getKey();
-                if (key.startsWith(name) && !key.equals(name))
-                {
-                    int cnt = entry.getValue().write(bb);
-                    count += cnt;
-                }
+                bb.position(bb.limit());
+                wakeup();
+                return remaining;
             }
         }
-        return count;
+        return 0;
+    }
+
+    private void wakeup()
+    {
+        if (wakeupPending.compareAndSet(false, true))
+        {
+            selector.wakeup();
+        }
     }
 
     @Override
-    public int write(Endpoint src, RingByteBuffer ring) throws IOException
+    public String getChannel()
+    {
+        return String.valueOf(serverSocketChannel);
+    }
+
+    @Override
+    public long getDropCount()
+    {
+        return super.getDropCount()+skipCount;
+    }
+
+    private void skip(ByteBuffer bb)
     {
         int count = 0;
-        if (listenerCount.get() > 0)
+        for (int ii=bb.position();ii<bb.limit();ii++)
         {
-            for (Entry<String, Endpoint> entry : endpointMap.entrySet())
+            if (bb.get(ii) == '\n')
             {
-                String key = entry.getKey();
-                if (key.startsWith(name) && !key.equals(name))
-                {
-                    int cnt = entry.getValue().write(src, ring);
-                    count += cnt;
-                }
+                count++;
             }
         }
-        return count;
+        skipCount += count;
     }
 
-    private class TCPEndpoint extends Endpoint<TcpEndpointType,SocketChannel>
+    private class Client
     {
-        private SocketChannel socketChannel;
-        private SynchronizedRingByteBuffer syncBuffer = new SynchronizedRingByteBuffer(1024, true);
-        private Future<?> proxyFuture;
+        private final String clientName;
+        private final SocketChannel socketChannel;
+        private final NMEAMatcher<Route> clientMatcher;
+        private final NMEAReader reader;
+        private final ByteBuffer[] srcs = new ByteBuffer[2];
+        private ByteBuffer pending;
+        private SelectionKey key;
+        private long stalled;
 
-        public TCPEndpoint(SocketChannel socketChannel, TcpEndpointType endpointType, Router router)
+        public Client(SocketChannel socketChannel)
         {
-            super(endpointType, router, "-"+seq.incrementAndGet());
+            this.clientName = name+"-"+(++seq);
             this.socketChannel = socketChannel;
+            this.clientMatcher = createMatcher(endpointType);
+            this.reader = new NMEAReader(clientName, clientMatcher, socketChannel, bufferSize, this::onOk, TCPListenerEndpoint.this::onError);
+            this.pending = ByteBuffer.allocateDirect(clientBufferSize);
+            this.srcs[0] = pending;
         }
-        
-        @Override
-        public SocketChannel createChannel() throws IOException
+
+        private void onOk(RingByteBuffer ring, long timestamp) throws IOException
         {
-            return socketChannel;
+            TCPListenerEndpoint.this.onOk(clientMatcher.getMatched(), ring, timestamp);
         }
 
-        @Override
-        public int write(Endpoint src, RingByteBuffer ring) throws IOException
+        private void read()
         {
             try
             {
-                finest("write=%s", ring.getString());
-                int rc = syncBuffer.tryFillAll(ring);
-                finest("wrote rc=%d %s", rc, syncBuffer);
-                return rc;
+                reader.readAvailable();
             }
-            catch (InterruptedException ex)
+            catch (IOException ex)
             {
-                throw new IOException(ex);
+                config("%s closed because of %s", clientName, ex);
+                close();
             }
         }
-
-        private void proxy()
+        /**
+         * Writes bb to client. If client socket cannot take all, rest is
+         * kept in pending buffer. If pending buffer cannot take it, whole
+         * bb is skipped so that client never gets partial sentences.
+         * @param bb
+         * @param now
+         */
+        private void send(ByteBuffer bb, long now)
         {
-            try
+            if (bb.remaining() > pending.remaining())
             {
-                while (true)
+                if (pending.position() > 0)
                 {
-                    syncBuffer.waitRemaining();
-                    syncBuffer.getAll(false);
-                    finest("proxy %s", syncBuffer);
-                    super.write(this, syncBuffer);
-                    syncBuffer.discard();
+                    skip(bb);
+                    return;
                 }
+                pending = ByteBuffer.allocateDirect(bb.remaining());
+                srcs[0] = pending;
             }
-            catch (InterruptedException ex)
+            try
             {
-                finest("interrupted");
+                long cnt;
+                if (pending.position() == 0)
+                {
+                    cnt = socketChannel.write(bb);
+                }
+                else
+                {
+                    pending.flip();
+                    srcs[1] = bb;
+                    cnt = socketChannel.write(srcs);
+                    pending.compact();
+                }
+                if (bb.hasRemaining())
+                {
+                    pending.put(bb);
+                }
+                written(cnt, now);
             }
             catch (IOException ex)
             {
-                ex.printStackTrace();
-                log(SEVERE, ex, "%s %s", name, ex.getMessage());
+                config("%s closed because of %s", clientName, ex);
+                close();
             }
         }
-        @Override
-        public void run()
+
+        private void flush()
         {
             try
             {
-                listenerCount.incrementAndGet();
-                config("starting socket connection %s", socketChannel);
-                proxyFuture = POOL.submit(this::proxy);
-                super.run();
+                pending.flip();
+                int cnt = socketChannel.write(pending);
+                pending.compact();
+                written(cnt, System.currentTimeMillis());
             }
-            catch (Exception ex)
+            catch (IOException ex)
             {
-                ex.printStackTrace();
+                config("%s closed because of %s", clientName, ex);
+                close();
             }
-            finally
+        }
+
+        private void written(long cnt, long now)
+        {
+            if (cnt > 0)
+            {
+                lastWrite = now;
+                writeCount++;
+                writeBytes += cnt;
+            }
+            if (pending.position() > 0)
+            {
+                if (stalled == 0 || cnt > 0)
+                {
+                    stalled = now;
+                }
+                key.interestOps(OP_READ|OP_WRITE);
+            }
+            else
             {
-                proxyFuture.cancel(true);
-                listenerCount.decrementAndGet();
+                stalled = 0;
+                key.interestOps(OP_READ);
             }
         }
-        
+
+        private void checkStall(long now)
+        {
+            if (stalled != 0 && now - stalled > STALL_TIMEOUT)
+            {
+                warning("%s disconnected because no write progress in %d ms", clientName, STALL_TIMEOUT);
+                close();
+            }
+        }
+
+        private void close()
+        {
+            if (clients.remove(this))
+            {
+                clientCount.decrementAndGet();
+                key.cancel();
+                try
+                {
+                    socketChannel.close();
+                }
+                catch (IOException ex)
+                {
+                    log(SEVERE, ex, "%s close %s", clientName, ex);
+                }
+            }
+        }
+
     }
 }
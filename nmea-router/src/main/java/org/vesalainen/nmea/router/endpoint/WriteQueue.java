@@ -0,0 +1,366 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.router.endpoint;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import static java.util.logging.Level.SEVERE;
+import org.vesalainen.nio.RingByteBuffer;
+import org.vesalainen.nmea.jaxb.router.OverflowType;
+
+/**
+ * WriteQueue is a bounded lock-free queue of sentences written to endpoint
+ * by dedicated writer thread. Many source threads can offer concurrently.
+ * 
+ * <p>Slots and their byte arrays are allocated once, so offering and writing
+ * doesn't allocate.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+final class WriteQueue implements Runnable
+{
+    private static final long BLOCK_PARK = TimeUnit.MICROSECONDS.toNanos(100);
+    private final Endpoint endpoint;
+    private final OverflowType overflow;
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong drops = new AtomicLong();
+    private volatile Thread writer;
+    private volatile boolean waiting;
+    private volatile boolean stopped;
+    private ByteBuffer bb = ByteBuffer.allocate(128);
+    /**
+     * Creates WriteQueue
+     * @param endpoint Target
+     * @param size Number of sentences. Rounded up to power of 2.
+     * @param overflow 
+     */
+    WriteQueue(Endpoint endpoint, int size, OverflowType overflow)
+    {
+        if (size <= 0)
+        {
+            throw new IllegalArgumentException("size "+size);
+        }
+        this.endpoint = endpoint;
+        this.overflow = overflow;
+        int capacity = Integer.highestOneBit(size);
+        if (capacity < size)
+        {
+            capacity <<= 1;
+        }
+        slots = new Slot[capacity];
+        for (int ii=0;ii<capacity;ii++)
+        {
+            slots[ii] = new Slot(ii);
+        }
+        mask = capacity - 1;
+    }
+    /**
+     * Returns true if writer thread is running.
+     * @return 
+     */
+    boolean isActive()
+    {
+        return writer != null;
+    }
+    /**
+     * Marks queue consumer running. Called by writer thread or by the owner
+     * of drain.
+     */
+    void start()
+    {
+        stopped = false;
+    }
+    /**
+     * Marks queue consumer stopped. After this offers drop and blocked 
+     * offers return false. Called by writer thread or by the owner of drain
+     * when it stops draining.
+     */
+    void stop()
+    {
+        stopped = true;
+    }
+    /**
+     * Offers rings content to queue.
+     * @param ring
+     * @return true if queued. False if dropped or if consumer has stopped.
+     * @throws IOException If interrupted while blocking.
+     */
+    boolean offer(RingByteBuffer ring) throws IOException
+    {
+        return offer(ring, null);
+    }
+    /**
+     * Offers buffers remaining content to queue. Buffers position is not
+     * changed.
+     * @param bb
+     * @return true if queued. False if dropped or if consumer has stopped.
+     * @throws IOException If interrupted while blocking.
+     */
+    boolean offer(ByteBuffer bb) throws IOException
+    {
+        return offer(null, bb);
+    }
+    private boolean offer(RingByteBuffer ring, ByteBuffer bb) throws IOException
+    {
+        if (stopped)
+        {
+            drops.incrementAndGet();
+            return false;
+        }
+        while (true)
+        {
+            long pos = tail.get();
+            Slot slot = slots[(int) pos & mask];
+            long dif = slot.seq - pos;
+            if (dif == 0)
+            {
+                if (tail.compareAndSet(pos, pos + 1))
+                {
+                    if (ring != null)
+                    {
+                        slot.fill(ring);
+                    }
+                    else
+                    {
+                        slot.fill(bb);
+                    }
+                    slot.seq = pos + 1;
+                    if (waiting)
+                    {
+                        LockSupport.unpark(writer);
+                    }
+                    return true;
+                }
+            }
+            else
+            {
+                if (dif < 0)
+                {
+                    switch (overflow)
+                    {
+                        case DROP_NEWEST:
+                            drops.incrementAndGet();
+                            return false;
+                        case DROP_OLDEST:
+                            long old = claim();
+                            if (old != -1)
+                            {
+                                release(old);
+                                drops.incrementAndGet();
+                            }
+                            break;
+                        case BLOCK:
+                            if (stopped)
+                            {
+                                drops.incrementAndGet();
+                                return false;
+                            }
+                            LockSupport.parkNanos(this, BLOCK_PARK);
+                            if (Thread.interrupted())
+                            {
+                                throw new InterruptedIOException();
+                            }
+                            break;
+                        default:
+                            throw new UnsupportedOperationException(overflow+" not supported");
+                    }
+                }
+            }
+        }
+    }
+    /**
+     * Returns number of sentences queue can hold.
+     * @return 
+     */
+    OverflowType getOverflow()
+    {
+        return overflow;
+    }
+    
+    int capacity()
+    {
+        return slots.length;
+    }
+    /**
+     * Moves queued sentences to bb without blocking. At most capacity
+     * sentences are moved, so that blocking sources cannot keep caller
+     * here. This is used instead of writer thread when endpoint has its own
+     * event loop.
+     * @param bb
+     * @return bb or bigger buffer if bb didn't have room.
+     */
+    ByteBuffer drain(ByteBuffer bb)
+    {
+        for (int ii=0;ii<slots.length;ii++)
+        {
+            long pos = claim();
+            if (pos == -1)
+            {
+                break;
+            }
+            Slot slot = slots[(int) pos & mask];
+            if (bb.remaining() < slot.length)
+            {
+                ByteBuffer b = ByteBuffer.allocate(Math.max(2*bb.capacity(), bb.position()+slot.length));
+                bb.flip();
+                b.put(bb);
+                bb = b;
+            }
+            bb.put(slot.data, 0, slot.length);
+            release(pos);
+        }
+        return bb;
+    }
+    /**
+     * Returns number of dropped sentences.
+     * @return 
+     */
+    long getDropCount()
+    {
+        return drops.get();
+    }
+    /**
+     * Returns approximate number of queued sentences.
+     * @return 
+     */
+    int getQueued()
+    {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+    /**
+     * Writes queued sentences until interrupted.
+     */
+    @Override
+    public void run()
+    {
+        start();
+        writer = Thread.currentThread();
+        try
+        {
+            while (!Thread.currentThread().isInterrupted())
+            {
+                long pos = claim();
+                if (pos == -1)
+                {
+                    waiting = true;
+                    if (isEmpty())
+                    {
+                        LockSupport.park(this);
+                    }
+                    waiting = false;
+                }
+                else
+                {
+                    Slot slot = slots[(int) pos & mask];
+                    if (bb.capacity() < slot.length)
+                    {
+                        bb = ByteBuffer.allocate(slot.data.length);
+                    }
+                    bb.clear();
+                    bb.put(slot.data, 0, slot.length);
+                    release(pos);
+                    bb.flip();
+                    endpoint.writeQueued(bb);
+                }
+            }
+        }
+        catch (IOException ex)
+        {
+            endpoint.log(SEVERE, ex, "%s writer stopped because of %s", endpoint.getName(), ex);
+        }
+        finally
+        {
+            writer = null;
+            stop();
+        }
+    }
+    private boolean isEmpty()
+    {
+        long pos = head.get();
+        return slots[(int) pos & mask].seq != pos + 1;
+    }
+    /**
+     * Claims the oldest slot for reading.
+     * @return Claimed position or -1 if queue is empty.
+     */
+    private long claim()
+    {
+        while (true)
+        {
+            long pos = head.get();
+            Slot slot = slots[(int) pos & mask];
+            long dif = slot.seq - (pos + 1);
+            if (dif == 0)
+            {
+                if (head.compareAndSet(pos, pos + 1))
+                {
+                    return pos;
+                }
+            }
+            else
+            {
+                if (dif < 0)
+                {
+                    return -1;
+                }
+            }
+        }
+    }
+    private void release(long pos)
+    {
+        slots[(int) pos & mask].seq = pos + mask + 1;
+    }
+    private static final class Slot
+    {
+        private volatile long seq;
+        private byte[] data = new byte[128];
+        private int length;
+
+        public Slot(long seq)
+        {
+            this.seq = seq;
+        }
+        
+        private void fill(RingByteBuffer ring)
+        {
+            length = ring.length();
+            if (data.length < length)
+            {
+                data = new byte[length];
+            }
+            for (int ii=0;ii<length;ii++)
+            {
+                data[ii] = (byte) ring.charAt(ii);
+            }
+        }
+        private void fill(ByteBuffer bb)
+        {
+            length = bb.remaining();
+            if (data.length < length)
+            {
+                data = new byte[length];
+            }
+            bb.duplicate().get(data, 0, length);
+        }
+    }
+}
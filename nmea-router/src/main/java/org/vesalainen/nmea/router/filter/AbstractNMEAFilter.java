@@ -16,6 +16,8 @@
  */
 package org.vesalainen.nmea.router.filter;
 
+import static java.util.logging.Level.*;
+import org.vesalainen.nmea.router.PrefixKey;
 import org.vesalainen.util.logging.JavaLogging;
 
 /**
@@ -26,10 +28,53 @@ public abstract class AbstractNMEAFilter implements MessageFilter
 {
     protected final JavaLogging log = new JavaLogging();
     protected enum Cond {Accept, Reject, GoOn};
+    private final long prefix;
 
     public AbstractNMEAFilter()
+    {
+        this(null);
+    }
+    /**
+     * Creates filter which examines only sentences with given prefix.
+     * @param prefix E.g. $GPRMC or null for all.
+     */
+    protected AbstractNMEAFilter(String prefix)
     {
         log.setLogger(this.getClass());
+        this.prefix = prefix != null ? PrefixKey.encode(prefix) : 0;
+    }
+
+    @Override
+    public long getPrefix()
+    {
+        return prefix;
+    }
+
+    @Override
+    public boolean accept(NMEAFields fields)
+    {
+        CharSequence cs = fields.getSequence();
+        int count = fields.getFieldCount();
+        for (int ii=0;ii<count;ii++)
+        {
+            Cond cond = acceptField(cs, ii, fields.getBegin(ii), fields.getEnd(ii));
+            switch (cond)
+            {
+                case Accept:
+                    if (log.isLoggable(FINER))
+                    {
+                        log.finer("accept %s", cs);
+                    }
+                    return true;
+                case Reject:
+                    if (log.isLoggable(FINE))
+                    {
+                        log.fine("reject %s", cs);
+                    }
+                    return false;
+            }
+        }
+        return true;
     }
 
     @Override
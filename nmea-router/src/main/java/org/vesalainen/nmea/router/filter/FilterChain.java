@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.router.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Filters of one target endpoint. Each source endpoint gets its own filter
+ * instances, so stateful filters don't mix sentences from different sources.
+ * Filter that has a prefix is called only for sentences with that prefix.
+ * 
+ * <p>accept is called from source reader thread and must be called with 
+ * same source index from one thread at a time.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public class FilterChain
+{
+    private final Class<? extends MessageFilter>[] classes;
+    private final long[] prefixes;
+    private volatile MessageFilter[][] filters = new MessageFilter[0][];
+    /**
+     * Creates FilterChain
+     * @param classnames MessageFilter implementation class names.
+     */
+    public FilterChain(List<String> classnames)
+    {
+        int size = classnames.size();
+        List<Class<? extends MessageFilter>> list = new ArrayList<>();
+        prefixes = new long[size];
+        for (int ii=0;ii<size;ii++)
+        {
+            String classname = classnames.get(ii);
+            try
+            {
+                Class<?> cls = Class.forName(classname);
+                if (MessageFilter.class.isAssignableFrom(cls))
+                {
+                    Class<? extends MessageFilter> c = cls.asSubclass(MessageFilter.class);
+                    prefixes[ii] = c.newInstance().getPrefix();
+                    list.add(c);
+                }
+                else
+                {
+                    throw new IllegalArgumentException(cls + " not subclass of " + MessageFilter.class);
+                }
+            }
+            catch (ClassNotFoundException | InstantiationException | IllegalAccessException ex)
+            {
+                throw new IllegalArgumentException(ex);
+            }
+        }
+        classes = list.toArray(new Class[size]);
+    }
+    /**
+     * Returns true if all filters accept sentence.
+     * @param source Index of source endpoint
+     * @param fields
+     * @return 
+     */
+    public boolean accept(int source, NMEAFields fields)
+    {
+        long prefix = fields.getPrefix();
+        MessageFilter[] chain = null;
+        for (int ii=0;ii<prefixes.length;ii++)
+        {
+            long p = prefixes[ii];
+            if (p == 0 || p == prefix)
+            {
+                if (chain == null)
+                {
+                    chain = getFilters(source);
+                }
+                if (!chain[ii].accept(fields))
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private MessageFilter[] getFilters(int source)
+    {
+        MessageFilter[][] arr = filters;
+        if (source < arr.length)
+        {
+            MessageFilter[] chain = arr[source];
+            if (chain != null)
+            {
+                return chain;
+            }
+        }
+        return createFilters(source);
+    }
+
+    private synchronized MessageFilter[] createFilters(int source)
+    {
+        MessageFilter[][] arr = filters;
+        if (source < arr.length && arr[source] != null)
+        {
+            return arr[source];
+        }
+        if (source >= arr.length)
+        {
+            arr = Arrays.copyOf(arr, source+1);
+        }
+        else
+        {
+            arr = arr.clone();
+        }
+        MessageFilter[] chain = new MessageFilter[classes.length];
+        for (int ii=0;ii<chain.length;ii++)
+        {
+            try
+            {
+                chain[ii] = classes[ii].newInstance();
+            }
+            catch (InstantiationException | IllegalAccessException ex)
+            {
+                throw new IllegalArgumentException(ex);
+            }
+        }
+        arr[source] = chain;
+        filters = arr;
+        return chain;
+    }
+}
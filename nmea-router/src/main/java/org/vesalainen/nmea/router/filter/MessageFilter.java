@@ -23,4 +23,24 @@ package org.vesalainen.nmea.router.filter;
 public interface MessageFilter
 {
     boolean accept(CharSequence cs);
+    /**
+     * Returns true if sentence is accepted. Default implementation calls 
+     * accept(fields.getSequence()).
+     * @param fields Sentence split to fields.
+     * @return 
+     */
+    default boolean accept(NMEAFields fields)
+    {
+        return accept(fields.getSequence());
+    }
+    /**
+     * Returns encoded prefix of sentences this filter examines or 0 if all.
+     * Other sentences are accepted without calling the filter.
+     * @return 
+     * @see org.vesalainen.nmea.router.PrefixKey
+     */
+    default long getPrefix()
+    {
+        return 0;
+    }
 }
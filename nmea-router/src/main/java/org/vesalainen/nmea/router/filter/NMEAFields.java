@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.router.filter;
+
+import java.util.Arrays;
+
+/**
+ * Sentence split to fields. Field 0 is the prefix (e.g. $GPRMC) and fields 
+ * end with ',' or '*'. Checksum is not a field. Sentence is split lazily on
+ * first field access and only once however many filters read it. Instance 
+ * is reused for every sentence of a source and doesn't allocate.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public final class NMEAFields
+{
+    private int[] ends = new int[32];
+    private CharSequence seq;
+    private long prefix;
+    private int count = -1;
+    /**
+     * Sets new sentence.
+     * @param seq
+     * @param prefix Encoded prefix
+     * @see org.vesalainen.nmea.router.PrefixKey
+     */
+    public void reset(CharSequence seq, long prefix)
+    {
+        this.seq = seq;
+        this.prefix = prefix;
+        this.count = -1;
+    }
+    /**
+     * Returns whole sentence
+     * @return 
+     */
+    public CharSequence getSequence()
+    {
+        return seq;
+    }
+    /**
+     * Returns encoded prefix.
+     * @return 
+     */
+    public long getPrefix()
+    {
+        return prefix;
+    }
+    /**
+     * Returns number of fields.
+     * @return 
+     */
+    public int getFieldCount()
+    {
+        if (count == -1)
+        {
+            split();
+        }
+        return count;
+    }
+    /**
+     * Returns start index of field.
+     * @param index
+     * @return 
+     */
+    public int getBegin(int index)
+    {
+        checkIndex(index);
+        return index == 0 ? 0 : ends[index-1]+1;
+    }
+    /**
+     * Returns end index of field (exclusive).
+     * @param index
+     * @return 
+     */
+    public int getEnd(int index)
+    {
+        checkIndex(index);
+        return ends[index];
+    }
+    /**
+     * Returns true if field content equals str.
+     * @param index
+     * @param str
+     * @return 
+     */
+    public boolean equals(int index, String str)
+    {
+        int begin = getBegin(index);
+        int end = ends[index];
+        if (str.length() != end-begin)
+        {
+            return false;
+        }
+        for (int ii=0;begin<end;begin++,ii++)
+        {
+            if (str.charAt(ii) != seq.charAt(begin))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void checkIndex(int index)
+    {
+        if (index < 0 || index >= getFieldCount())
+        {
+            throw new IndexOutOfBoundsException(index+" fields="+count);
+        }
+    }
+    
+    private void split()
+    {
+        int cnt = 0;
+        int length = seq.length();
+        for (int ii=0;ii<length;ii++)
+        {
+            char cc = seq.charAt(ii);
+            if (cc == ',' || cc == '*')
+            {
+                if (cnt == ends.length)
+                {
+                    ends = Arrays.copyOf(ends, 2*cnt);
+                }
+                ends[cnt++] = ii;
+                if (cc == '*')
+                {
+                    break;
+                }
+            }
+        }
+        count = cnt;
+    }
+}
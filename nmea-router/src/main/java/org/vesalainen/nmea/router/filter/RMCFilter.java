@@ -30,6 +30,11 @@ public class RMCFilter extends AbstractNMEAFilter
     private int count;
     private int prevTime;
     private int time;
+
+    public RMCFilter()
+    {
+        super("$GPRMC");
+    }
     
     private void reset()
     {
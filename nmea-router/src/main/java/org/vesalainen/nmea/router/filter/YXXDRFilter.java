@@ -25,6 +25,11 @@ import org.vesalainen.lang.Primitives;
 public class YXXDRFilter extends AbstractNMEAFilter
 {
 
+    public YXXDRFilter()
+    {
+        super("$YXXDR");
+    }
+
     @Override
     protected Cond acceptField(CharSequence cs, int index, int begin, int end)
     {
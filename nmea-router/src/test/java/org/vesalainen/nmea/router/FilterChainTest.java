@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.router;
+
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.vesalainen.nmea.router.filter.FilterChain;
+import org.vesalainen.nmea.router.filter.MessageFilter;
+import org.vesalainen.nmea.router.filter.NMEAFields;
+import org.vesalainen.nmea.router.filter.RMCFilter;
+
+/**
+ *
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public class FilterChainTest
+{
+    private static final String RMC1 = "$GPRMC,062458,A,6009.2053,N,02453.6493,E,000.0,001.3,171009,,,A*72\r\n";
+    private static final String RMC2 = "$GPRMC,062459,A,6009.2053,N,02453.6493,E,000.0,001.3,171009,,,A*72\r\n";
+    private static final String RMC3 = "$GPRMC,062500,A,6009.2053,N,02453.6493,E,000.0,001.3,171009,,,A*72\r\n";
+    private static final String OTHER1 = "$GPRMC,081836,A,3751.65,S,14507.36,E,000.0,360.0,130998,011.3,E*62\r\n";
+    private static final String OTHER2 = "$GPRMC,081837,A,3751.65,S,14507.36,E,000.0,360.0,130998,011.3,E*62\r\n";
+    private static final String OTHER3 = "$GPRMC,081838,A,3751.65,S,14507.36,E,000.0,360.0,130998,011.3,E*62\r\n";
+
+    @Test
+    public void testFields()
+    {
+        NMEAFields fields = fields("$IIHDG,171,,,06,E*13\r\n");
+        assertEquals(6, fields.getFieldCount());
+        assertTrue(fields.equals(0, "$IIHDG"));
+        assertTrue(fields.equals(1, "171"));
+        assertTrue(fields.equals(2, ""));
+        assertTrue(fields.equals(5, "E"));
+        assertEquals(16, fields.getBegin(5));
+        assertEquals(17, fields.getEnd(5));
+        assertEquals(PrefixKey.encode("$IIHDG"), fields.getPrefix());
+    }
+
+    @Test
+    public void testPerSource()
+    {
+        FilterChain chain = new FilterChain(Arrays.asList(RMCFilter.class.getName()));
+        assertFalse(chain.accept(0, fields(RMC1)));
+        assertFalse(chain.accept(1, fields(OTHER1)));
+        assertTrue(chain.accept(0, fields(RMC2)));
+        assertTrue(chain.accept(1, fields(OTHER2)));
+        assertTrue(chain.accept(0, fields(RMC3)));
+        assertTrue(chain.accept(1, fields(OTHER3)));
+    }
+
+    @Test
+    public void testPrefix()
+    {
+        FilterChain chain = new FilterChain(Arrays.asList(RMCFilter.class.getName(), CountFilter.class.getName()));
+        NMEAFields fields = fields("$IIHDG,171,,,06,E*13\r\n");
+        assertTrue(chain.accept(0, fields));
+        assertEquals(1, CountFilter.count);
+    }
+    
+    private static NMEAFields fields(String sentence)
+    {
+        NMEAFields fields = new NMEAFields();
+        fields.reset(sentence, PrefixKey.encode(sentence));
+        return fields;
+    }
+    
+    public static class CountFilter implements MessageFilter
+    {
+        static int count;
+        
+        @Override
+        public boolean accept(CharSequence cs)
+        {
+            count++;
+            return true;
+        }
+    }
+}
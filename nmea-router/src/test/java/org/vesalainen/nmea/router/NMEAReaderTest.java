@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.router;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ScatteringByteChannel;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public class NMEAReaderTest
+{
+    private static final String INPUT = 
+            "garbage$GPRMC,062458,A,6009.2053,N,02453.6493,E,000.0,001.3,171009,,,A*72\r\n"+
+            "$GPRMC,062458,A,6009.2053,N,02453.6493,E,000.0,001.3,171009,,,A*73\r\n"+
+            "$IIHDG,171,,,06,E*13\r\n"+
+            "$IIHDG,171,,\r\n,06,E*13\r\n"+
+            "!AIVDM,1,1,,A,13aEOK?P00PD2wVMdLDRhgvL289?,0*26\r\n"+
+            "$XXHDG,171,,,06,E*13\r\n"+
+            "$IIHDG,171,,,06,E*13\r\n";
+    
+    public NMEAReaderTest()
+    {
+    }
+
+    @Test
+    public void testRead() throws IOException
+    {
+        List<String> expected = Arrays.asList(
+                "GP:$GPRMC,062458,A,6009.2053,N,02453.6493,E,000.0,001.3,171009,,,A*72\r\n",
+                "II:$IIHDG,171,,,06,E*13\r\n",
+                "AI:!AIVDM,1,1,,A,13aEOK?P00PD2wVMdLDRhgvL289?,0*26\r\n",
+                "II:$IIHDG,171,,,06,E*13\r\n"
+        );
+        for (int chunk : new int[]{1, 3, 7, 16, 1024})
+        {
+            NMEAMatcher<String> matcher = new NMEAMatcher<>();
+            matcher.addExpression("$II???", "II");
+            matcher.addExpression("$GP???", "GP");
+            matcher.addExpression("!AIVD?", "AI");
+            matcher.compile();
+            List<String> ok = new ArrayList<>();
+            List<String> errors = new ArrayList<>();
+            NMEAReader reader = new NMEAReader(
+                    "test", 
+                    matcher, 
+                    new ChunkChannel(INPUT.getBytes(US_ASCII), chunk), 
+                    128, 
+                    (ring, timestamp)->ok.add(matcher.getMatched()+":"+ring.getString()), 
+                    (err)->errors.add(new String(err.get(), US_ASCII))
+            );
+            try
+            {
+                reader.read();
+                fail();
+            }
+            catch (EOFException ex)
+            {
+            }
+            assertEquals("chunk="+chunk, expected, ok);
+            assertEquals("chunk="+chunk, 4, errors.size());
+            assertEquals("garbage", errors.get(0));
+            assertEquals(4, matcher.getMatches());
+            assertEquals(2, matcher.getErrors());
+        }
+    }
+    
+    @Test
+    public void testBufferSize() throws IOException
+    {
+        StringBuilder sb = new StringBuilder("$IIXXX,");
+        for (int ii=0;ii<200;ii++)
+        {
+            sb.append('A');
+        }
+        sb.append("*00\r\n$IIHDG,171,,,06,E*13\r\n");
+        NMEAMatcher<String> matcher = new NMEAMatcher<>();
+        matcher.addExpression("$II???", "II");
+        matcher.compile();
+        List<String> ok = new ArrayList<>();
+        NMEAReader reader = new NMEAReader(
+                "test", 
+                matcher, 
+                new ChunkChannel(sb.toString().getBytes(US_ASCII), 16), 
+                128, 
+                (ring, timestamp)->ok.add(ring.getString()), 
+                (err)->{}
+        );
+        try
+        {
+            reader.read();
+            fail();
+        }
+        catch (EOFException ex)
+        {
+        }
+        assertEquals(Arrays.asList("$IIHDG,171,,,06,E*13\r\n"), ok);
+        assertEquals(256, reader.getSuggestedBufferSize());
+    }
+    
+    @Test
+    public void testSuggestedBufferSize() throws IOException
+    {
+        NMEAMatcher<String> matcher = new NMEAMatcher<>();
+        matcher.addExpression("$II???", "II");
+        matcher.addExpression("$GP???", "GP");
+        matcher.addExpression("!AIVD?", "AI");
+        matcher.compile();
+        NMEAReader reader = new NMEAReader(
+                "test", 
+                matcher, 
+                new ChunkChannel(INPUT.getBytes(US_ASCII), 1), 
+                1024, 
+                (ring, timestamp)->{}, 
+                (err)->{}
+        );
+        try
+        {
+            reader.read();
+            fail();
+        }
+        catch (EOFException ex)
+        {
+        }
+        assertEquals(68, reader.getMaxSentence());
+        assertEquals(256, reader.getSuggestedBufferSize());
+    }
+    
+    private static class ChunkChannel implements ScatteringByteChannel
+    {
+        private final ByteBuffer in;
+        private final int chunk;
+
+        public ChunkChannel(byte[] in, int chunk)
+        {
+            this.in = ByteBuffer.wrap(in);
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException
+        {
+            return (int) read(new ByteBuffer[]{dst}, 0, 1);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException
+        {
+            if (!in.hasRemaining())
+            {
+                return -1;
+            }
+            int count = 0;
+            for (int ii=0;ii<length;ii++)
+            {
+                ByteBuffer dst = dsts[offset+ii];
+                while (count < chunk && dst.hasRemaining() && in.hasRemaining())
+                {
+                    dst.put(in.get());
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts) throws IOException
+        {
+            return read(dsts, 0, dsts.length);
+        }
+
+        @Override
+        public boolean isOpen()
+        {
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.router;
+
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public class PrefixTimeMapTest
+{
+    
+    public PrefixTimeMapTest()
+    {
+    }
+
+    @Test
+    public void testKey()
+    {
+        long key = PrefixKey.encode("$GPRMC");
+        assertEquals(key, PrefixKey.encode("$GPRMC,062458,A,6009.2053,N,02453.6493,E,000.0,001.3,171009,,,A*72\r\n"));
+        assertNotEquals(key, PrefixKey.encode("$IIRMC"));
+        assertEquals("$GPRMC", PrefixKey.decode(key));
+        assertEquals("!AIVDM", PrefixKey.decode(PrefixKey.encode("!AIVDM,1,1,,A,13aEOK?P00PD2wVMdLDRhgvL289?,0*26")));
+        assertEquals(0, PrefixKey.encode(""));
+    }
+    
+    @Test
+    public void testPutGet()
+    {
+        PrefixTimeMap map = new PrefixTimeMap(4);
+        long k1 = PrefixKey.encode("$GPRMC");
+        long k2 = PrefixKey.encode("$GPGGA");
+        assertEquals(0, map.get(k1));
+        map.put(k1, 100);
+        map.put(k2, 200);
+        assertEquals(100, map.get(k1));
+        assertEquals(200, map.get(k2));
+        map.put(k1, 300);
+        assertEquals(300, map.get(k1));
+        long[] keys = map.keys();
+        Arrays.sort(keys);
+        long[] exp = new long[]{k1, k2};
+        Arrays.sort(exp);
+        assertArrayEquals(exp, keys);
+    }
+    
+    @Test
+    public void testFull()
+    {
+        PrefixTimeMap map = new PrefixTimeMap(2);
+        map.put(1, 1);
+        map.put(2, 2);
+        map.put(3, 3);
+        assertEquals(1, map.get(1));
+        assertEquals(2, map.get(2));
+        assertEquals(0, map.get(3));
+    }
+    
+    @Test
+    public void testConcurrent() throws InterruptedException
+    {
+        PrefixTimeMap map = new PrefixTimeMap(256);
+        Thread[] threads = new Thread[4];
+        for (int tt=0;tt<threads.length;tt++)
+        {
+            threads[tt] = new Thread(()->
+            {
+                for (int ii=1;ii<=100000;ii++)
+                {
+                    long key = ii % 100 + 1;
+                    map.put(key, key);
+                }
+            });
+            threads[tt].start();
+        }
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+        for (long key=1;key<=100;key++)
+        {
+            assertEquals(key, map.get(key));
+        }
+    }
+}
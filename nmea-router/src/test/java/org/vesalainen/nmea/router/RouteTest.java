@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.router;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.vesalainen.nmea.jaxb.router.RouteType;
+
+/**
+ *
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public class RouteTest
+{
+    
+    public RouteTest()
+    {
+    }
+
+    @Test
+    public void testWildcardBackup()
+    {
+        Route primary = create(false);
+        Route backup = create(true);
+        long rmc = PrefixKey.encode("$RTRMC");
+        long gga = PrefixKey.encode("$RTGGA");
+        assertTrue(primary.canWrite(rmc, 1000));
+        // primary writes only RMC, backup matches both
+        assertFalse(backup.canWrite(rmc, 1100));
+        assertTrue(backup.canWrite(gga, 1100));
+        assertFalse(backup.canWrite(rmc, 1200));
+        assertTrue(backup.canWrite(gga, 1200));
+        assertFalse(backup.isPromoted(rmc));
+        assertTrue(backup.isPromoted(gga));
+        assertEquals(1, backup.getPromotions());
+        // primary silent
+        assertTrue(backup.canWrite(rmc, 3000));
+        assertTrue(backup.canWrite(gga, 3000));
+        assertTrue(backup.canWrite(rmc, 3100));
+        assertTrue(backup.isPromoted(rmc));
+        assertEquals(2, backup.getPromotions());
+        // primary returns
+        assertTrue(primary.canWrite(rmc, 3200));
+        assertFalse(backup.canWrite(rmc, 3300));
+        assertTrue(backup.canWrite(gga, 3300));
+        assertFalse(backup.isPromoted(rmc));
+        assertTrue(backup.isPromoted(gga));
+        assertEquals(2, backup.getPromotions());
+    }
+    
+    private Route create(boolean backup)
+    {
+        RouteType routeType = new RouteType();
+        routeType.setPrefix("$RT???");
+        routeType.getTarget().add("target");
+        routeType.setBackup(backup);
+        routeType.setExpire(1500L);
+        return new Route(routeType);
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.router.endpoint;
+
+import java.io.EOFException;
+import java.io.IOException;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.vesalainen.nmea.jaxb.router.EndpointType;
+import org.vesalainen.nmea.jaxb.router.GpsFusionType;
+import org.vesalainen.nmea.jaxb.router.RouteType;
+import org.vesalainen.nmea.router.NMEAReader;
+import org.vesalainen.nmea.router.endpoint.WriteQueueTest.TestChannel;
+import org.vesalainen.nmea.router.endpoint.WriteQueueTest.TestEndpoint;
+
+/**
+ *
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public class GpsFusionEndpointTest
+{
+    private static final String LAT1 = "6009.2053";
+    private static final String LAT2 = "6009.2060";
+    private static final String JUMP = "6109.2060";
+    private TestEndpoint out;
+    private GpsFusionEndpoint fusion;
+    private Source gps1;
+    private Source gps2;
+    private long time = 10000;
+
+    @Before
+    public void before() throws IOException
+    {
+        out = new TestEndpoint();
+        out.onStart();
+        fusion = createFusion(null);
+        fusion.onStart();
+        gps1 = new Source("gps1");
+        gps2 = new Source("gps2");
+    }
+    
+    @After
+    public void after() throws IOException
+    {
+        fusion.onStop();
+        out.onStop();
+    }
+
+    @Test
+    public void testSelect() throws IOException
+    {
+        gps1.read(rmc(10, LAT1)+gga(10, LAT1, 1, "1.0"));
+        assertNull(fusion.getSelected());   // RMC and GGA of one epoch
+        gps1.read(rmc(11, LAT1)+gga(11, LAT1, 1, "1.0"));
+        assertEquals("gps1", fusion.getSelected());
+        gps2.read(rmc(10, LAT2)+gga(10, LAT2, 1, "0.8"));
+        gps2.read(rmc(11, LAT2)+gga(11, LAT2, 1, "0.8"));
+        assertEquals("gps1", fusion.getSelected());   // within margin
+        gps2.read(rmc(12, LAT2)+gga(12, LAT2, 2, "0.8"));
+        assertEquals("gps2", fusion.getSelected());
+        gps1.read(rmc(14, LAT1));
+        gps2.read(rmc(14, LAT2));
+        gps2.read(rmc(15, JUMP));
+        assertEquals("gps1", fusion.getSelected());
+        gps1.read(rmc(15, LAT1));
+        assertEquals(
+                rmc(11, LAT1)+gga(11, LAT1, 1, "1.0")+
+                gga(12, LAT2, 2, "0.8")+rmc(14, LAT2)+
+                rmc(15, LAT1), 
+                out.getOutput());
+        assertEquals(3, fusion.getSwitchCount());
+    }
+    
+    @Test
+    public void testJumpRecovery() throws IOException
+    {
+        gps1.read(rmc(10, LAT1));
+        gps1.read(rmc(11, LAT1));
+        assertEquals("gps1", fusion.getSelected());
+        gps1.read(rmc(12, JUMP));
+        assertNull(fusion.getSelected());
+        gps1.read(rmc(13, JUMP)+gga(13, JUMP, 1, "1.0"));
+        assertNull(fusion.getSelected());
+        gps1.read(rmc(14, JUMP));
+        assertEquals("gps1", fusion.getSelected());
+        assertEquals(rmc(11, LAT1)+rmc(14, JUMP), out.getOutput());
+        assertEquals(3, fusion.getSwitchCount());
+    }
+    
+    @Test
+    public void testStale() throws IOException
+    {
+        gps1.read(rmc(10, LAT1)+gga(10, LAT1, 2, "0.8"));
+        gps1.read(rmc(11, LAT1)+gga(11, LAT1, 2, "0.8"));
+        assertEquals("gps1", fusion.getSelected());
+        gps2.read(rmc(10, LAT2));
+        gps2.read(rmc(11, LAT2));
+        assertEquals("gps1", fusion.getSelected());
+        time += 3001;
+        gps2.read(rmc(14, LAT2));
+        assertEquals("gps2", fusion.getSelected());
+        assertEquals(2, fusion.getSwitchCount());
+    }
+    
+    @Test
+    public void testPeriod() throws IOException
+    {
+        fusion.onStop();
+        fusion = createFusion(1000L);
+        fusion.onStart();
+        gps1.read(rmc(10, LAT1)+gga(10, LAT1, 1, "1.0"));
+        gps1.read(rmc(11, LAT1)+gga(11, LAT1, 1, "1.0"));
+        time += 500;
+        gps1.read(rmc(12, LAT1)+gga(12, LAT1, 1, "1.0"));
+        time += 500;
+        gps1.read(rmc(13, LAT1)+gga(13, LAT1, 1, "1.0"));
+        assertEquals(
+                rmc(11, LAT1)+gga(11, LAT1, 1, "1.0")+
+                rmc(13, LAT1)+gga(13, LAT1, 1, "1.0"), 
+                out.getOutput());
+    }
+    
+    private GpsFusionEndpoint createFusion(Long period)
+    {
+        GpsFusionType fusionType = new GpsFusionType();
+        fusionType.setName("fusion");
+        fusionType.setEnable(Boolean.TRUE);
+        fusionType.setPeriod(period);
+        fusionType.getRoute().add(route("test"));
+        return new GpsFusionEndpoint(fusionType, null, ()->time);
+    }
+    
+    private static String rmc(int second, String lat)
+    {
+        return sentence("$GPRMC,0624"+second+",A,"+lat+",N,02453.6493,E,000.0,001.3,171009,,,A");
+    }
+    
+    private static String gga(int second, String lat, int quality, String hdop)
+    {
+        return sentence("$GPGGA,0624"+second+","+lat+",N,02453.6493,E,"+quality+",08,"+hdop+",10.0,M,18.0,M,,");
+    }
+    
+    private static RouteType route(String target)
+    {
+        RouteType routeType = new RouteType();
+        routeType.setPrefix("$GP???");
+        routeType.getTarget().add(target);
+        return routeType;
+    }
+    
+    private static String sentence(String body)
+    {
+        int xor = 0;
+        for (int ii=1;ii<body.length();ii++)
+        {
+            xor ^= body.charAt(ii);
+        }
+        return String.format("%s*%02X\r\n", body, xor);
+    }
+    
+    private static class Source extends Endpoint<EndpointType,TestChannel>
+    {
+
+        public Source(String name)
+        {
+            super(createType(name), null);
+        }
+        
+        private static EndpointType createType(String name)
+        {
+            EndpointType endpointType = new EndpointType();
+            endpointType.setName(name);
+            endpointType.setEnable(Boolean.TRUE);
+            endpointType.getRoute().add(route("fusion"));
+            return endpointType;
+        }
+        
+        public void read(String input) throws IOException
+        {
+            NMEAReader reader = new NMEAReader(name, matcher, new TestChannel(input.getBytes(US_ASCII)), 256, this::onOk, this::onError);
+            try
+            {
+                reader.read();
+                fail();
+            }
+            catch (EOFException ex)
+            {
+            }
+        }
+
+        @Override
+        protected TestChannel createChannel()
+        {
+            return new TestChannel(new byte[0]);
+        }
+    }
+}
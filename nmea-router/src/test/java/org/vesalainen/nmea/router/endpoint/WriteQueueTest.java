@@ -0,0 +1,357 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.router.endpoint;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ScatteringByteChannel;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.vesalainen.nio.RingByteBuffer;
+import org.vesalainen.nmea.jaxb.router.EndpointType;
+import org.vesalainen.nmea.jaxb.router.OverflowType;
+
+/**
+ *
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public class WriteQueueTest
+{
+    
+    public WriteQueueTest()
+    {
+    }
+
+    @Test
+    public void testDropOldest() throws Exception
+    {
+        assertEquals("$3\r\n$4\r\n$5\r\n$6\r\n", run(OverflowType.DROP_OLDEST, 2));
+    }
+    
+    @Test
+    public void testDropNewest() throws Exception
+    {
+        assertEquals("$1\r\n$2\r\n$3\r\n$4\r\n", run(OverflowType.DROP_NEWEST, 2));
+    }
+    
+    @Test
+    public void testBlock() throws Exception
+    {
+        TestEndpoint endpoint = new TestEndpoint();
+        WriteQueue queue = new WriteQueue(endpoint, 4, OverflowType.BLOCK);
+        Thread writer = new Thread(queue);
+        writer.start();
+        while (!queue.isActive())
+        {
+            Thread.sleep(1);
+        }
+        StringBuilder expected = new StringBuilder();
+        for (int ii=0;ii<1000;ii++)
+        {
+            String sentence = "$"+ii+"\r\n";
+            expected.append(sentence);
+            assertTrue(queue.offer(ring(sentence)));
+        }
+        waitEmpty(queue);
+        writer.interrupt();
+        writer.join();
+        assertEquals(0, queue.getDropCount());
+        assertEquals(expected.toString(), endpoint.getOutput());
+    }
+    
+    @Test
+    public void testBlockWriterStopped() throws Exception
+    {
+        TestEndpoint endpoint = new TestEndpoint();
+        CountDownLatch latch = new CountDownLatch(1);
+        endpoint.channel = new BlockingChannel(latch);
+        WriteQueue queue = new WriteQueue(endpoint, 4, OverflowType.BLOCK);
+        Thread writer = new Thread(queue);
+        writer.start();
+        while (!queue.isActive())
+        {
+            Thread.sleep(1);
+        }
+        AtomicInteger queued = new AtomicInteger();
+        Thread producer = new Thread(()->
+        {
+            try
+            {
+                for (int ii=0;ii<10;ii++)
+                {
+                    if (queue.offer(ring("$"+ii+"\r\n")))
+                    {
+                        queued.incrementAndGet();
+                    }
+                }
+            }
+            catch (IOException ex)
+            {
+                throw new IllegalArgumentException(ex);
+            }
+        });
+        producer.start();
+        while (producer.getState() != Thread.State.TIMED_WAITING)
+        {
+            Thread.sleep(1);
+        }
+        writer.interrupt();
+        writer.join();
+        assertFalse(queue.isActive());
+        producer.join(1000);
+        assertFalse(producer.isAlive());
+        assertTrue(queue.getDropCount() > 0);
+        assertEquals(10, queued.get() + queue.getDropCount());
+    }
+    
+    @Test
+    public void testDrain() throws Exception
+    {
+        TestEndpoint endpoint = new TestEndpoint();
+        WriteQueue queue = new WriteQueue(endpoint, 4, OverflowType.DROP_OLDEST);
+        queue.offer(ring("$1\r\n"));
+        queue.offer(ByteBuffer.wrap("$2\r\n".getBytes(US_ASCII)));
+        queue.offer(ring("$3\r\n"));
+        ByteBuffer bb = queue.drain(ByteBuffer.allocate(8));
+        assertEquals(0, queue.getQueued());
+        bb.flip();
+        assertEquals("$1\r\n$2\r\n$3\r\n", US_ASCII.decode(bb).toString());
+        bb.clear();
+        assertSame(bb, queue.drain(bb));
+        assertEquals(0, bb.position());
+    }
+    
+    @Test
+    public void testDrainStop() throws Exception
+    {
+        TestEndpoint endpoint = new TestEndpoint();
+        WriteQueue queue = new WriteQueue(endpoint, 2, OverflowType.BLOCK);
+        queue.start();
+        assertTrue(queue.offer(ring("$1\r\n")));
+        assertTrue(queue.offer(ring("$2\r\n")));
+        AtomicInteger result = new AtomicInteger(-1);
+        Thread producer = new Thread(()->
+        {
+            try
+            {
+                result.set(queue.offer(ring("$3\r\n")) ? 1 : 0);
+            }
+            catch (IOException ex)
+            {
+                throw new IllegalArgumentException(ex);
+            }
+        });
+        producer.start();
+        while (producer.getState() != Thread.State.TIMED_WAITING)
+        {
+            Thread.sleep(1);
+        }
+        queue.stop();   // drain owner stops
+        producer.join(1000);
+        assertFalse(producer.isAlive());
+        assertEquals(0, result.get());
+        assertFalse(queue.offer(ring("$4\r\n")));
+        assertEquals(2, queue.getDropCount());
+    }
+    
+    private String run(OverflowType overflow, int expectedDrops) throws Exception
+    {
+        TestEndpoint endpoint = new TestEndpoint();
+        WriteQueue queue = new WriteQueue(endpoint, 4, overflow);
+        for (int ii=1;ii<=6;ii++)
+        {
+            queue.offer(ring("$"+ii+"\r\n"));
+        }
+        assertEquals(expectedDrops, queue.getDropCount());
+        assertEquals(4, queue.getQueued());
+        Thread writer = new Thread(queue);
+        writer.start();
+        waitEmpty(queue);
+        writer.interrupt();
+        writer.join();
+        return endpoint.getOutput();
+    }
+    
+    private static void waitEmpty(WriteQueue queue) throws InterruptedException
+    {
+        while (queue.getQueued() > 0)
+        {
+            Thread.sleep(1);
+        }
+        Thread.sleep(10);
+    }
+    
+    private static RingByteBuffer ring(String sentence) throws IOException
+    {
+        RingByteBuffer ring = new RingByteBuffer(128, true);
+        ring.fill(new TestChannel(sentence.getBytes(US_ASCII)));
+        boolean mark = true;
+        while (ring.hasRemaining())
+        {
+            ring.get(mark);
+            mark = false;
+        }
+        return ring;
+    }
+    
+    static class TestEndpoint extends Endpoint<EndpointType,TestChannel>
+    {
+
+        public TestEndpoint()
+        {
+            super(createType(), null);
+            this.channel = createChannel();
+        }
+        
+        private static EndpointType createType()
+        {
+            EndpointType endpointType = new EndpointType();
+            endpointType.setName("test");
+            endpointType.setEnable(Boolean.TRUE);
+            return endpointType;
+        }
+
+        @Override
+        protected final TestChannel createChannel()
+        {
+            return new TestChannel(new byte[0]);
+        }
+        
+        public String getOutput()
+        {
+            return new String(channel.out.toByteArray(), US_ASCII);
+        }
+    }
+    static class BlockingChannel extends TestChannel
+    {
+        private final CountDownLatch latch;
+
+        public BlockingChannel(CountDownLatch latch)
+        {
+            super(new byte[0]);
+            this.latch = latch;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException
+        {
+            try
+            {
+                latch.await();
+            }
+            catch (InterruptedException ex)
+            {
+                throw new InterruptedIOException();
+            }
+            return super.write(src);
+        }
+        
+    }
+    static class TestChannel implements ScatteringByteChannel, GatheringByteChannel
+    {
+        private final ByteBuffer in;
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        public TestChannel(byte[] in)
+        {
+            this.in = ByteBuffer.wrap(in);
+        }
+        
+        @Override
+        public int read(ByteBuffer dst) throws IOException
+        {
+            if (!in.hasRemaining())
+            {
+                return -1;
+            }
+            int count = Math.min(dst.remaining(), in.remaining());
+            for (int ii=0;ii<count;ii++)
+            {
+                dst.put(in.get());
+            }
+            return count;
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException
+        {
+            long count = 0;
+            for (int ii=0;ii<length;ii++)
+            {
+                int rc = read(dsts[offset+ii]);
+                if (rc == -1)
+                {
+                    return count > 0 ? count : -1;
+                }
+                count += rc;
+            }
+            return count;
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts) throws IOException
+        {
+            return read(dsts, 0, dsts.length);
+        }
+
+        @Override
+        public synchronized int write(ByteBuffer src) throws IOException
+        {
+            int count = src.remaining();
+            while (src.hasRemaining())
+            {
+                out.write(src.get());
+            }
+            return count;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException
+        {
+            long count = 0;
+            for (int ii=0;ii<length;ii++)
+            {
+                count += write(srcs[offset+ii]);
+            }
+            return count;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs) throws IOException
+        {
+            return write(srcs, 0, srcs.length);
+        }
+
+        @Override
+        public boolean isOpen()
+        {
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+        }
+        
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.util;
+
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.vesalainen.code.AbstractPropertySetter;
+import org.vesalainen.parsers.nmea.MessageType;
+import org.vesalainen.parsers.nmea.TalkerId;
+
+/**
+ * AbstractSampleCollector collects observed properties of one NMEA 
+ * transaction to NMEASample. Committed sample is passed to accept.
+ * 
+ * <p>Property indexes are resolved when properties are added, so that
+ * setting a property value doesn't look up NMEAPropertyIndex.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ * @see NMEASampler
+ * @see SampleCollector
+ */
+abstract class AbstractSampleCollector extends AbstractPropertySetter
+{
+    protected final Set<String> properties = new HashSet<>();
+    private volatile Resolved resolved;
+    private NMEASample sample;
+    private Clock clock;
+    /**
+     * Creates new AbstractSampleCollector
+     * @param properties Observed properties. Properties 'clock', 'messageType',
+     * 'talkerId' and 'origin' are always included.
+     */
+    protected AbstractSampleCollector(String... properties)
+    {
+        this.properties.addAll(Arrays.asList(properties));
+        this.properties.add("clock");
+        this.properties.add("messageType");
+        this.properties.add("talkerId");
+        this.properties.add("origin");
+        resolved = new Resolved(this.properties.toArray(new String[this.properties.size()]));
+    }
+    /**
+     * Adds observed properties and resolves their indexes.
+     * @param properties 
+     */
+    protected final synchronized void addObserved(String... properties)
+    {
+        this.properties.addAll(Arrays.asList(properties));
+        resolved = new Resolved(this.properties.toArray(new String[this.properties.size()]));
+    }
+    /**
+     * Removes observed properties.
+     * @param properties 
+     */
+    protected final synchronized void removeObserved(String... properties)
+    {
+        this.properties.removeAll(Arrays.asList(properties));
+        resolved = new Resolved(this.properties.toArray(new String[this.properties.size()]));
+    }
+    /**
+     * Returns new or recycled sample.
+     * @return 
+     */
+    protected abstract NMEASample createSample();
+    /**
+     * Called for committed sample in parser thread.
+     * @param sample 
+     */
+    protected abstract void accept(NMEASample sample);
+
+    @Override
+    public void start(String reason)
+    {
+        if (clock != null)
+        {
+            if (sample == null)
+            {
+                sample = createSample();
+            }
+        }
+    }
+
+    @Override
+    public void commit(String reason)
+    {
+        if (sample != null && sample.hasProperties())
+        {
+            sample.setTime(clock.millis());
+            accept(sample);
+            sample = null;
+        }
+    }
+
+    @Override
+    public void rollback(String reason)
+    {
+        if (sample != null && sample.hasProperties())
+        {
+            sample.clear();
+        }
+    }
+
+    @Override
+    public void set(String property, Object arg)
+    {
+        switch (property)
+        {
+            case "clock":
+                clock = (Clock) arg;
+                break;
+            case "talkerId":
+                if (sample != null)
+                {
+                    sample.setTalkerId((TalkerId) arg);
+                }
+                break;
+            case "messageType":
+                if (sample != null)
+                {
+                    sample.setMessageType((MessageType) arg);
+                }
+                break;
+            case "origin":
+                if (sample != null)
+                {
+                    sample.setOrigin(arg);
+                }
+                break;
+        }
+    }
+
+    @Override
+    public void set(String property, float arg)
+    {
+        if (sample != null)
+        {
+            sample.setProperty(resolved.indexOf(property), arg);
+        }
+    }
+
+    @Override
+    public final String[] getPrefixes()
+    {
+        return properties.toArray(new String[properties.size()]);
+    }
+    /**
+     * Property names and their resolved indexes. Immutable.
+     */
+    private static class Resolved
+    {
+        private final String[] names;
+        private final int[] indexes;
+
+        private Resolved(String... names)
+        {
+            this.names = names;
+            this.indexes = new int[names.length];
+            for (int ii=0;ii<names.length;ii++)
+            {
+                indexes[ii] = NMEAPropertyIndex.indexOf(names[ii]);
+            }
+        }
+        /**
+         * Returns resolved index. Property names are usually constants, so
+         * identity is tried first.
+         * @param property
+         * @return 
+         */
+        private int indexOf(String property)
+        {
+            for (int ii=0;ii<names.length;ii++)
+            {
+                if (names[ii] == property)
+                {
+                    return indexes[ii];
+                }
+            }
+            for (int ii=0;ii<names.length;ii++)
+            {
+                if (names[ii].equals(property))
+                {
+                    return indexes[ii];
+                }
+            }
+            return NMEAPropertyIndex.indexOf(property);
+        }
+    }
+
+}
@@ -20,9 +20,6 @@ import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.Comparator;
-import java.util.HashSet;
-import java.util.Map.Entry;
-import java.util.Set;
 import java.util.Spliterator;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
@@ -33,8 +30,6 @@ import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import org.vesalainen.navi.Navis;
 import static org.vesalainen.navi.Navis.bearing;
-import org.vesalainen.util.FloatMap;
-import org.vesalainen.util.FloatReference;
 import org.vesalainen.util.Recycler;
 import org.vesalainen.util.logging.JavaLogging;
 import org.vesalainen.util.stream.Streams;
@@ -105,20 +100,28 @@ public class NMEAFilters
     }
     private static class ContainsAllFilter implements Predicate<NMEASample>
     {
-        private final Set<String> set = new HashSet<>();
+        private final int[] indexes;
 
         public ContainsAllFilter(String... properties)
         {
-            for (String property : properties)
+            indexes = new int[properties.length];
+            for (int ii=0;ii<properties.length;ii++)
             {
-                set.add(property);
+                indexes[ii] = NMEAPropertyIndex.indexOf(properties[ii]);
             }
         }
         
         @Override
         public boolean test(NMEASample t)
         {
-            return t.getProperties().containsAll(set);
+            for (int index : indexes)
+            {
+                if (!t.hasProperty(index))
+                {
+                    return false;
+                }
+            }
+            return true;
         }
         
     }
@@ -133,15 +136,12 @@ public class NMEAFilters
     }
     private static class AccumulatorMap implements UnaryOperator<NMEASample>
     {
-        private FloatMap<String> map = new FloatMap<>();
+        private final NMEASample acc = new NMEASample();
         @Override
         public NMEASample apply(NMEASample t)
         {
-            map.entrySet().stream().filter((e) -> (!t.hasProperty(e.getKey()))).forEach((Entry<String, FloatReference> e) ->
-            {
-                t.setProperty(e.getKey(), e.getValue().getValue());
-            });
-            map.putAll(t.getMap());
+            t.setMissing(acc);
+            acc.setAll(t);
             return t;
         }
         
@@ -205,7 +205,7 @@ public class NMEAFilters
         
         private void handle(NMEASample t, Consumer<? super NMEASample> action)
         {
-            if (t.hasProperty("latitude") && t.hasProperty("longitude"))
+            if (t.hasProperty(NMEAPropertyIndex.LATITUDE) && t.hasProperty(NMEAPropertyIndex.LONGITUDE))
             {
                 filter(t, action);
             }
@@ -303,17 +303,17 @@ public class NMEAFilters
         @Override
         public boolean test(NMEASample t)
         {
-            if (t.hasProperty("latitude") && t.hasProperty("longitude"))
+            if (t.hasProperty(NMEAPropertyIndex.LATITUDE) && t.hasProperty(NMEAPropertyIndex.LONGITUDE))
             {
                 if (Double.isNaN(lat1))
                 {
-                    lat1 = t.getProperty("latitude");
-                    lon1 = t.getProperty("longitude");
+                    lat1 = t.getProperty(NMEAPropertyIndex.LATITUDE);
+                    lon1 = t.getProperty(NMEAPropertyIndex.LONGITUDE);
                 }
                 else
                 {
-                    double lat2 = t.getProperty("latitude");
-                    double lon2 = t.getProperty("longitude");
+                    double lat2 = t.getProperty(NMEAPropertyIndex.LATITUDE);
+                    double lon2 = t.getProperty(NMEAPropertyIndex.LONGITUDE);
                     double distance = Navis.distance(lat1, lon1, lat2, lon2);
                     if (distance < minDistance)
                     {
@@ -355,8 +355,8 @@ public class NMEAFilters
         protected void setValue(NMEASample t, int idx)
         {
             tim[idx] = t.getTime();
-            lat[idx] = t.getProperty("latitude");
-            lon[idx] = t.getProperty("longitude");
+            lat[idx] = t.getProperty(NMEAPropertyIndex.LATITUDE);
+            lon[idx] = t.getProperty(NMEAPropertyIndex.LONGITUDE);
         }
 
         @Override
@@ -368,7 +368,7 @@ public class NMEAFilters
         @Override
         protected boolean isValid(NMEASample t)
         {
-            return t.hasProperty("latitude") && t.hasProperty("longitude");
+            return t.hasProperty(NMEAPropertyIndex.LATITUDE) && t.hasProperty(NMEAPropertyIndex.LONGITUDE);
         }
         
     }
@@ -384,13 +384,13 @@ public class NMEAFilters
     }
     private static class PropertyAccelerationFilter extends AccelerationFilter
     {
-        private String property;
+        private int property;
         protected double[] val = new double[2];
         
         public PropertyAccelerationFilter(String property, float maxAcceleration)
         {
             super(maxAcceleration);
-            this.property = property;
+            this.property = NMEAPropertyIndex.indexOf(property);
         }
 
         @Override
@@ -475,13 +475,13 @@ public class NMEAFilters
     }
     private static class RangeFilter implements Predicate<NMEASample>
     {
-        private String property;
+        private int property;
         private float min;
         private float max;
 
         public RangeFilter(String property, float min, float max)
         {
-            this.property = property;
+            this.property = NMEAPropertyIndex.indexOf(property);
             this.min = min;
             this.max = max;
         }
@@ -498,7 +498,7 @@ public class NMEAFilters
                 }
                 else
                 {
-                    JavaLogging.getLogger(TimeFilter.class).info("%s: %f not in range %f - %f", property, value, min, max);
+                    JavaLogging.getLogger(TimeFilter.class).info("%s: %f not in range %f - %f", NMEAPropertyIndex.name(property), value, min, max);
                     return false;
                 }
             }
@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.util;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import java.nio.file.Path;
+import static java.nio.file.StandardOpenOption.READ;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import org.vesalainen.code.SimplePropertySetterDispatcher;
+import org.vesalainen.parsers.nmea.NMEADispatcher;
+import org.vesalainen.parsers.nmea.MappedFileChannel;
+import org.vesalainen.parsers.nmea.NMEAParser;
+import org.vesalainen.parsers.nmea.time.GPSClock;
+import org.vesalainen.util.logging.JavaLogging;
+
+/**
+ * NMEAIngest parses recorded NMEA log files in parallel. Each file is parsed 
+ * by one worker thread with the workers own NMEAParser. Samples are tagged 
+ * with the file path as origin.
+ * 
+ * <p>In forEach and sorted files are the unit of parallelism. parse(Path,...)
+ * splits one file to parts which are parsed in parallel.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public class NMEAIngest extends JavaLogging implements AutoCloseable
+{
+    private final ForkJoinPool pool;
+    private final ThreadLocal<NMEAParser> parsers = ThreadLocal.withInitial(NMEAParser::newInstance);
+    /**
+     * Creates NMEAIngest with parallelism of available processors.
+     */
+    public NMEAIngest()
+    {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+    /**
+     * Creates NMEAIngest
+     * @param parallelism Maximum number of files parsed at the same time.
+     */
+    public NMEAIngest(int parallelism)
+    {
+        super(NMEAIngest.class);
+        this.pool = new ForkJoinPool(parallelism);
+    }
+    /**
+     * Parses files in parallel. Samples of each file are passed to consumer 
+     * in file order. Consumer is called concurrently from worker threads and
+     * must be thread-safe.
+     * @param files
+     * @param consumer
+     * @param properties Observed properties.
+     * @throws IOException 
+     */
+    public void forEach(Collection<Path> files, BiConsumer<Path,NMEASample> consumer, String... properties) throws IOException
+    {
+        List<Future<?>> futures = new ArrayList<>();
+        for (Path file : files)
+        {
+            futures.add(pool.submit(()->
+            {
+                parseFile(file, (s)->consumer.accept(file, s), properties);
+                return null;
+            }));
+        }
+        join(futures);
+    }
+    /**
+     * Parses files in parallel and returns samples of all files in time 
+     * order. Samples having the same time are in files order. All samples are
+     * kept in memory.
+     * @param files
+     * @param properties Observed properties.
+     * @return
+     * @throws IOException 
+     */
+    public List<NMEASample> sorted(Collection<Path> files, String... properties) throws IOException
+    {
+        List<Future<List<NMEASample>>> futures = new ArrayList<>();
+        for (Path file : files)
+        {
+            futures.add(pool.submit(()->
+            {
+                List<NMEASample> list = new ArrayList<>();
+                parseFile(file, list::add, properties);
+                return list;
+            }));
+        }
+        List<NMEASample> all = new ArrayList<>();
+        for (List<NMEASample> list : join(futures))
+        {
+            all.addAll(list);
+        }
+        all.sort(null);   // stable and fast for sorted runs
+        return all;
+    }
+    /**
+     * Parses one file in parallel parts and returns samples in file order.
+     * File is split at sentence boundaries which are not inside 
+     * multi-sentence AIS messages. GPS clock of each part after the first is
+     * primed with the last RMC or ZDA sentence before the part. All samples 
+     * are kept in memory.
+     * @param file
+     * @param properties Observed properties.
+     * @return
+     * @throws IOException 
+     * @see NMEASplitter
+     */
+    public List<NMEASample> parse(Path file, String... properties) throws IOException
+    {
+        long[] bounds;
+        byte[][] primers;
+        try (FileChannel channel = FileChannel.open(file, READ))
+        {
+            bounds = NMEASplitter.split(channel, pool.getParallelism());
+            primers = new byte[bounds.length-1][];
+            for (int ii=1;ii<primers.length;ii++)
+            {
+                primers[ii] = NMEASplitter.primer(channel, bounds[ii]);
+            }
+        }
+        List<Future<List<NMEASample>>> futures = new ArrayList<>();
+        for (int ii=0;ii<primers.length;ii++)
+        {
+            long start = bounds[ii];
+            long end = bounds[ii+1];
+            byte[] primer = primers[ii];
+            futures.add(pool.submit(()->
+            {
+                List<NMEASample> list = new ArrayList<>();
+                parseRange(file, start, end, primer, list::add, properties);
+                return list;
+            }));
+        }
+        List<NMEASample> all = new ArrayList<>();
+        for (List<NMEASample> list : join(futures))
+        {
+            all.addAll(list);
+        }
+        return all;
+    }
+    private void parseRange(Path file, long start, long end, byte[] primer, Consumer<NMEASample> consumer, String... properties) throws IOException
+    {
+        fine("start parsing %s %d - %d", file, start, end);
+        NMEAParser parser = parsers.get();
+        GPSClock clock = new GPSClock(false);
+        if (primer != null)
+        {
+            parser.parse(new String(primer, US_ASCII), clock, null, null, null);
+        }
+        SimplePropertySetterDispatcher dispatcher = new SimplePropertySetterDispatcher();
+        NMEADispatcher nmeaDispatcher = NMEADispatcher.getInstance(NMEADispatcher.class, dispatcher);
+        new SampleCollector(nmeaDispatcher, consumer, properties);
+        try (FileChannel channel = FileChannel.open(file, READ);
+                MappedFileChannel mfc = new MappedFileChannel(channel, start, end, false, MappedFileChannel.DEFAULT_WINDOW))
+        {
+            parser.parse(mfc, clock, ()->file, nmeaDispatcher, null);
+        }
+        fine("end parsing %s %d - %d", file, start, end);
+    }
+    private void parseFile(Path file, Consumer<NMEASample> consumer, String... properties) throws IOException
+    {
+        fine("start parsing %s", file);
+        SimplePropertySetterDispatcher dispatcher = new SimplePropertySetterDispatcher();
+        NMEADispatcher nmeaDispatcher = NMEADispatcher.getInstance(NMEADispatcher.class, dispatcher);
+        new SampleCollector(nmeaDispatcher, consumer, properties);
+        parsers.get().parse(file, false, ()->file, nmeaDispatcher, null);
+        fine("end parsing %s", file);
+    }
+    private <T> List<T> join(List<Future<T>> futures) throws IOException
+    {
+        List<T> list = new ArrayList<>();
+        try
+        {
+            for (Future<T> future : futures)
+            {
+                list.add(future.get());
+            }
+        }
+        catch (InterruptedException ex)
+        {
+            futures.forEach((f)->f.cancel(true));
+            throw new IOException(ex);
+        }
+        catch (ExecutionException ex)
+        {
+            futures.forEach((f)->f.cancel(true));
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+        return list;
+    }
+    /**
+     * Shuts down worker threads.
+     */
+    @Override
+    public void close()
+    {
+        pool.shutdown();
+    }
+}
@@ -39,18 +39,21 @@ public class NMEAMappers
     }
     private static class DriftAngleMap implements UnaryOperator<NMEASample>
     {
+        private static final int TRACK_MADE_GOOD = NMEAPropertyIndex.indexOf("trackMadeGood");
+        private static final int TRUE_HEADING = NMEAPropertyIndex.indexOf("trueHeading");
+        private static final int DRIFT_ANGLE = NMEAPropertyIndex.indexOf("driftAngle");
 
         @Override
         public NMEASample apply(NMEASample t)
         {
-            if (t.hasProperty("trackMadeGood") && t.hasProperty("trueHeading"))
+            if (t.hasProperty(TRACK_MADE_GOOD) && t.hasProperty(TRUE_HEADING))
             {
-                double diff = Navis.angleDiff(t.getProperty("trueHeading"), t.getProperty("trackMadeGood"));
-                t.setProperty("driftAngle", (float) diff);
+                double diff = Navis.angleDiff(t.getProperty(TRUE_HEADING), t.getProperty(TRACK_MADE_GOOD));
+                t.setProperty(DRIFT_ANGLE, (float) diff);
             }
             else
             {
-                t.setProperty("driftAngle", 0);
+                t.setProperty(DRIFT_ANGLE, 0);
             }
             return t;
         }
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * NMEAPropertyIndex interns property names to small integer indexes. Index of
+ * a property never changes during the lifetime of JVM.
+ * 
+ * <p>NMEASample stores property values by index. Resolve indexes once and use
+ * index based methods in hot paths.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ * @see NMEASample
+ */
+public final class NMEAPropertyIndex
+{
+    private static final Map<String,Integer> map = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[64];
+    private static int count;
+    
+    public static final int LATITUDE = indexOf("latitude");
+    public static final int LONGITUDE = indexOf("longitude");
+
+    private NMEAPropertyIndex()
+    {
+    }
+    /**
+     * Returns index of property. New index is created if property doesn't 
+     * have one.
+     * @param property
+     * @return 
+     */
+    public static int indexOf(String property)
+    {
+        Integer index = map.get(property);
+        if (index != null)
+        {
+            return index;
+        }
+        return create(property);
+    }
+    /**
+     * Returns index of property or -1 if property doesn't have index.
+     * @param property
+     * @return 
+     */
+    public static int find(String property)
+    {
+        Integer index = map.get(property);
+        if (index != null)
+        {
+            return index;
+        }
+        return -1;
+    }
+    /**
+     * Returns property name of index.
+     * @param index
+     * @return 
+     */
+    public static String name(int index)
+    {
+        String[] arr = names;
+        if (index < 0 || index >= arr.length || arr[index] == null)
+        {
+            throw new IllegalArgumentException("no property for index "+index);
+        }
+        return arr[index];
+    }
+    /**
+     * Returns number of indexed properties.
+     * @return 
+     */
+    public static synchronized int size()
+    {
+        return count;
+    }
+    private static synchronized int create(String property)
+    {
+        Integer index = map.get(property);
+        if (index != null)
+        {
+            return index;
+        }
+        String[] arr = names;
+        if (count == arr.length)
+        {
+            arr = Arrays.copyOf(arr, 2*arr.length);
+        }
+        arr[count] = property;
+        names = arr;
+        map.put(property, count);
+        return count++;
+    }
+}
@@ -19,55 +19,227 @@ package org.vesalainen.nmea.util;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
-import java.util.Map.Entry;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Queue;
 import java.util.Set;
 import org.vesalainen.lang.Primitives;
 import org.vesalainen.navi.WayPoint;
 import org.vesalainen.parsers.nmea.MessageType;
 import org.vesalainen.parsers.nmea.TalkerId;
 import org.vesalainen.util.FloatMap;
-import org.vesalainen.util.FloatReference;
 
 /**
- *
+ * NMEASample stores property values in float array indexed by 
+ * NMEAPropertyIndex. Presence of property is kept in bitmask.
+ * 
+ * <p>Samples created by NMEASampler are pooled. Consumer that doesn't keep 
+ * reference to sample can return it to pool by calling recycle.
  * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ * @see NMEAPropertyIndex
  */
 public class NMEASample implements Comparable<NMEASample>, WayPoint
 {
     private long time;
     private TalkerId talkerId;
     private MessageType messageType;
-    private FloatMap<String> map = new FloatMap<>();
+    private float[] values = new float[64];
+    private long[] mask = new long[1];
     private Object origin;
+    private final Queue<NMEASample> pool;
 
-    public Set<String> getProperties()
+    public NMEASample()
     {
-        return map.keySet();
+        this(null);
     }
 
+    NMEASample(Queue<NMEASample> pool)
+    {
+        this.pool = pool;
+    }
+    /**
+     * Returns names of present properties. Creates new set.
+     * @return 
+     */
+    public Set<String> getProperties()
+    {
+        Set<String> set = new LinkedHashSet<>();
+        for (int ii=next(0);ii>=0;ii=next(ii+1))
+        {
+            set.add(NMEAPropertyIndex.name(ii));
+        }
+        return set;
+    }
+    /**
+     * Returns present properties in a new map.
+     * @return 
+     */
     public FloatMap<String> getMap()
     {
+        FloatMap<String> map = new FloatMap<>();
+        for (int ii=next(0);ii>=0;ii=next(ii+1))
+        {
+            map.put(NMEAPropertyIndex.name(ii), values[ii]);
+        }
         return map;
     }
     
     public NMEASample setProperty(String property, float value)
     {
-        map.put(property, value);
+        return setProperty(NMEAPropertyIndex.indexOf(property), value);
+    }
+    
+    public NMEASample setProperty(int index, float value)
+    {
+        if (index >= values.length)
+        {
+            values = Arrays.copyOf(values, Math.max(index+1, 2*values.length));
+        }
+        int word = index>>6;
+        if (word >= mask.length)
+        {
+            mask = Arrays.copyOf(mask, word+1);
+        }
+        values[index] = value;
+        mask[word] |= 1L<<index;
         return this;
     }
+    
     public boolean hasProperties()
     {
-        return !map.isEmpty();
+        for (long m : mask)
+        {
+            if (m != 0)
+            {
+                return true;
+            }
+        }
+        return false;
     }
     
     public boolean hasProperty(String property)
     {
-        return map.containsKey(property);
+        return hasProperty(NMEAPropertyIndex.find(property));
     }
     
+    public boolean hasProperty(int index)
+    {
+        if (index < 0)
+        {
+            return false;
+        }
+        int word = index>>6;
+        return word < mask.length && (mask[word] & (1L<<index)) != 0;
+    }
+    
+    /**
+     * Returns property value or NaN if property is not present.
+     * @param property
+     * @return 
+     */
     public float getProperty(String property)
     {
-        return map.getFloat(property);
+        return getProperty(NMEAPropertyIndex.find(property));
+    }
+    /**
+     * Returns property value or NaN if property is not present.
+     * @param index
+     * @return 
+     * @see NMEAPropertyIndex
+     */
+    public float getProperty(int index)
+    {
+        return getProperty(index, Float.NaN);
+    }
+    /**
+     * Returns property value or def if property is not present.
+     * @param index
+     * @param def
+     * @return 
+     */
+    public float getProperty(int index, float def)
+    {
+        if (!hasProperty(index))
+        {
+            return def;
+        }
+        return values[index];
+    }
+    /**
+     * Sets properties of other sample that are not present in this sample.
+     * @param other 
+     */
+    void setMissing(NMEASample other)
+    {
+        for (int ii=other.next(0);ii>=0;ii=other.next(ii+1))
+        {
+            if (!hasProperty(ii))
+            {
+                setProperty(ii, other.values[ii]);
+            }
+        }
+    }
+    /**
+     * Sets all properties of other sample to this sample.
+     * @param other 
+     */
+    void setAll(NMEASample other)
+    {
+        for (int ii=other.next(0);ii>=0;ii=other.next(ii+1))
+        {
+            setProperty(ii, other.values[ii]);
+        }
+    }
+    /**
+     * Returns next present property index starting from index or -1.
+     * @param index
+     * @return 
+     */
+    private int next(int index)
+    {
+        int word = index>>6;
+        if (word >= mask.length)
+        {
+            return -1;
+        }
+        long m = mask[word] & (-1L<<index);
+        while (true)
+        {
+            if (m != 0)
+            {
+                return (word<<6) + Long.numberOfTrailingZeros(m);
+            }
+            word++;
+            if (word == mask.length)
+            {
+                return -1;
+            }
+            m = mask[word];
+        }
+    }
+    /**
+     * Clears sample for reuse.
+     */
+    void clear()
+    {
+        Arrays.fill(mask, 0);
+        time = 0;
+        talkerId = null;
+        messageType = null;
+        origin = null;
+    }
+    /**
+     * Returns this sample to the pool of NMEASampler that created it. Caller
+     * must not use the sample after this call. Does nothing for samples not 
+     * created by NMEASampler.
+     */
+    public void recycle()
+    {
+        if (pool != null)
+        {
+            clear();
+            pool.offer(this);
+        }
     }
     @Override
     public long getTime()
@@ -126,13 +298,12 @@ public class NMEASample implements Comparable<NMEASample>, WayPoint
         sb.append("[time=");
         ZonedDateTime zdt = ZonedDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneOffset.UTC);
         sb.append(zdt);
-        for (Entry<String,FloatReference> e : map.entrySet())
+        for (int ii=next(0);ii>=0;ii=next(ii+1))
         {
             sb.append(", ");
-            sb.append(e.getKey());
+            sb.append(NMEAPropertyIndex.name(ii));
             sb.append("=");
-            sb.append(e.getValue().getValue());
-            
+            sb.append(values[ii]);
         }
         sb.append("]");
         if (origin != null)
@@ -152,13 +323,13 @@ public class NMEASample implements Comparable<NMEASample>, WayPoint
     @Override
     public double getLatitude()
     {
-        return map.getFloat("latitude");
+        return getProperty(NMEAPropertyIndex.LATITUDE);
     }
 
     @Override
     public double getLongitude()
     {
-        return map.getFloat("longitude");
+        return getProperty(NMEAPropertyIndex.LONGITUDE);
     }
     
 }
@@ -16,33 +16,28 @@
  */
 package org.vesalainen.nmea.util;
 
-import java.time.Clock;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Queue;
 import java.util.Spliterator;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
-import org.vesalainen.code.AbstractPropertySetter;
-import org.vesalainen.parsers.nmea.MessageType;
 import org.vesalainen.parsers.nmea.NMEADispatcher;
-import org.vesalainen.parsers.nmea.TalkerId;
-import org.vesalainen.util.CollectionHelp;
 import org.vesalainen.util.stream.ObserverSpliterator;
 
 /**
  * NMEASampler acts as bridge from observer to stream.
+ * <p>Samples are taken from a pool. Consumer can return sample to pool with
+ * NMEASample.recycle when it doesn't keep reference to it.
  * @author Timo Vesalainen <timo.vesalainen@iki.fi>
  */
-public class NMEASampler extends AbstractPropertySetter implements Runnable
+public class NMEASampler extends AbstractSampleCollector implements Runnable
 {
+    private static final int POOL_SIZE = 64;
     private NMEADispatcher dispatcher;
     private ObserverSpliterator<NMEASample> spliterator;
-    private Set<String> properties = new HashSet<>();
-    private NMEASample sample;
-    private Clock clock;
+    private final Queue<NMEASample> pool = new ArrayBlockingQueue<>(POOL_SIZE);
     private Consumer<NMEASampler> initializer;
     /**
      * Creates new NMEASampler and add's it as observer to dispatcher.
@@ -56,13 +51,9 @@ public class NMEASampler extends AbstractPropertySetter implements Runnable
     }
     public NMEASampler(NMEADispatcher dispatcher, long offerTimeout, long takeTimeout, TimeUnit timeUnit, Consumer<NMEASampler> initializer, String... properties)
     {
+        super(properties);
         this.dispatcher = dispatcher;
         this.initializer = initializer;
-        this.properties.addAll(Arrays.asList(properties));
-        this.properties.add("clock");
-        this.properties.add("messageType");
-        this.properties.add("talkerId");
-        this.properties.add("origin");
         spliterator = new ObserverSpliterator<>(
             Long.MAX_VALUE, 
             Spliterator.CONCURRENT | Spliterator.NONNULL | Spliterator.ORDERED |Spliterator.SORTED,
@@ -88,7 +79,7 @@ public class NMEASampler extends AbstractPropertySetter implements Runnable
      */
     public void addProperties(String... properties)
     {
-        this.properties.addAll(CollectionHelp.create(properties));
+        addObserved(properties);
         dispatcher.addObserver(this, properties);
     }
     /**
@@ -98,7 +89,7 @@ public class NMEASampler extends AbstractPropertySetter implements Runnable
     public void removeProperties(String... properties)
     {
         dispatcher.removeObserver(this, properties);
-        this.properties.removeAll(CollectionHelp.create(properties));
+        removeObserved(properties);
     }
     /**
      * Creates a stream from observer. Behavior of two or more running streams
@@ -112,79 +103,20 @@ public class NMEASampler extends AbstractPropertySetter implements Runnable
     }
     
     @Override
-    public void start(String reason)
+    protected NMEASample createSample()
     {
-        if (clock != null)
+        NMEASample sample = pool.poll();
+        if (sample == null)
         {
-            if (sample == null)
-            {
-                sample = new NMEASample();
-            }
+            sample = new NMEASample(pool);
         }
+        return sample;
     }
 
     @Override
-    public void commit(String reason)
+    protected void accept(NMEASample sample)
     {
-        if (sample != null && sample.hasProperties())
-        {
-            sample.setTime(clock.millis());
-            spliterator.offer(sample);
-            sample = null;
-        }
-    }
-
-    @Override
-    public void rollback(String reason)
-    {
-        if (sample != null && sample.hasProperties())
-        {
-            sample = null;
-        }
-    }
-
-    @Override
-    public void set(String property, Object arg)
-    {
-        switch (property)
-        {
-            case "clock":
-                clock = (Clock) arg;
-                break;
-            case "talkerId":
-                if (sample != null)
-                {
-                    sample.setTalkerId((TalkerId) arg);
-                }
-                break;
-            case "messageType":
-                if (sample != null)
-                {
-                    sample.setMessageType((MessageType) arg);
-                }
-                break;
-            case "origin":
-                if (sample != null)
-                {
-                    sample.setOrigin(arg);
-                }
-                break;
-        }
-    }
-
-    @Override
-    public void set(String property, float arg)
-    {
-        if (sample != null)
-        {
-            sample.setProperty(property, arg);
-        }
-    }
-
-    @Override
-    public final String[] getPrefixes()
-    {
-        return properties.toArray(new String[properties.size()]);
+        spliterator.offer(sample);
     }
 
     @Override
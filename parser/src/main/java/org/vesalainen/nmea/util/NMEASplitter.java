@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * NMEASplitter finds split points for parsing parts of NMEA log file in 
+ * parallel.
+ * 
+ * <p>Split point is a start of sentence which is not a continuation of 
+ * multi-sentence AIS message. Parsers of parts after the first can be primed 
+ * with the last RMC or ZDA sentence before split point to set GPS clock date.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public final class NMEASplitter
+{
+    /**
+     * How many bytes are searched backwards for clock sentence.
+     */
+    public static final int LOOKBACK = 64*1024;
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_PREFIX = 16;
+    
+    private NMEASplitter()
+    {
+    }
+    /**
+     * Returns split points. First is 0 and last is file size. Small files
+     * might have less than requested parts.
+     * @param channel
+     * @param parts Requested number of parts.
+     * @return
+     * @throws IOException 
+     */
+    public static long[] split(FileChannel channel, int parts) throws IOException
+    {
+        if (parts < 1)
+        {
+            throw new IllegalArgumentException("parts "+parts);
+        }
+        long size = channel.size();
+        long[] arr = new long[parts+1];
+        int count = 1;
+        for (int ii=1;ii<parts;ii++)
+        {
+            long boundary = boundary(channel, size*ii/parts, size);
+            if (boundary > arr[count-1] && boundary < size)
+            {
+                arr[count++] = boundary;
+            }
+        }
+        arr[count++] = size;
+        return Arrays.copyOf(arr, count);
+    }
+    /**
+     * Returns start of the first sentence after offset which is not a 
+     * continuation of AIS message. Returns size if not found.
+     * @param channel
+     * @param offset
+     * @param size
+     * @return
+     * @throws IOException 
+     */
+    static long boundary(FileChannel channel, long offset, long size) throws IOException
+    {
+        ByteBuffer bb = ByteBuffer.allocate(BUFFER_SIZE);
+        byte[] prefix = new byte[MAX_PREFIX];
+        long pos = offset;
+        bb.limit(0);
+        boolean lineStart = offset == 0;
+        long start = -1;
+        int len = 0;
+        while (true)
+        {
+            if (!bb.hasRemaining())
+            {
+                bb.clear();
+                int rc = channel.read(bb, pos);
+                if (rc <= 0)
+                {
+                    return size;
+                }
+                pos += rc;
+                bb.flip();
+            }
+            long here = pos - bb.remaining();
+            byte b = bb.get();
+            if (lineStart)
+            {
+                if (b == '$' || b == '!')
+                {
+                    start = here;
+                    len = 0;
+                }
+                lineStart = false;
+            }
+            if (start != -1)
+            {
+                if (len < MAX_PREFIX)
+                {
+                    prefix[len++] = b;
+                }
+                else
+                {
+                    if (isSplitPoint(prefix, len))
+                    {
+                        return start;
+                    }
+                    start = -1;
+                }
+            }
+            if (b == '\n')
+            {
+                if (start != -1 && isSplitPoint(prefix, len))
+                {
+                    return start;
+                }
+                start = -1;
+                lineStart = true;
+            }
+        }
+    }
+    /**
+     * Returns false for AIS sentences !xxVDM,n,k, and !xxVDO,n,k, where k is 
+     * not 1.
+     * @param prefix
+     * @param len
+     * @return 
+     */
+    private static boolean isSplitPoint(byte[] prefix, int len)
+    {
+        if (prefix[0] == '$')
+        {
+            return true;
+        }
+        // !AIVDM,2,2,
+        if (
+                len >= 11 && 
+                prefix[3] == 'V' && 
+                prefix[4] == 'D' && 
+                prefix[6] == ',' &&
+                prefix[8] == ','
+                )
+        {
+            return prefix[9] == '1';
+        }
+        return true;
+    }
+    /**
+     * Returns the last RMC or ZDA sentence ending before offset or null if 
+     * not found within LOOKBACK bytes.
+     * @param channel
+     * @param offset
+     * @return
+     * @throws IOException 
+     */
+    public static byte[] primer(FileChannel channel, long offset) throws IOException
+    {
+        long begin = Math.max(0, offset - LOOKBACK);
+        ByteBuffer bb = ByteBuffer.allocate((int) (offset - begin));
+        while (bb.hasRemaining())
+        {
+            int rc = channel.read(bb, begin + bb.position());
+            if (rc <= 0)
+            {
+                break;
+            }
+        }
+        byte[] buf = bb.array();
+        int end = bb.position();
+        int lineEnd = end;
+        for (int ii=end-1;ii>=0;ii--)
+        {
+            if (buf[ii] == '\n' && ii < end - 1)
+            {
+                int lineStart = ii + 1;
+                if (isClockSentence(buf, lineStart, lineEnd))
+                {
+                    return Arrays.copyOfRange(buf, lineStart, lineEnd);
+                }
+                lineEnd = lineStart;
+            }
+        }
+        return null;
+    }
+    private static boolean isClockSentence(byte[] buf, int start, int end)
+    {
+        if (end - start < 8 || buf[start] != '$' || buf[end-1] != '\n')
+        {
+            return false;
+        }
+        return 
+                (buf[start+3] == 'R' && buf[start+4] == 'M' && buf[start+5] == 'C') ||
+                (buf[start+3] == 'Z' && buf[start+4] == 'D' && buf[start+5] == 'A');
+    }
+}
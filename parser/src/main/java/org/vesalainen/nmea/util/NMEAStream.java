@@ -17,6 +17,7 @@
 package org.vesalainen.nmea.util;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -43,6 +44,22 @@ public class NMEAStream
         NMEASampler sampler = new NMEASampler(nmeaDispatcher, offerTimeout, takeTimeout, timeUnit, (s)->init(input, nmeaDispatcher, origin), properties);
         return sampler.stream();
     }
+    /**
+     * Parses file using all available processors and returns stream of 
+     * samples in file order.
+     * @param file
+     * @param properties
+     * @return
+     * @throws IOException 
+     * @see NMEAIngest#parse(java.nio.file.Path, java.lang.String...) 
+     */
+    public static final Stream<NMEASample> parseParallel(Path file, String... properties) throws IOException
+    {
+        try (NMEAIngest ingest = new NMEAIngest())
+        {
+            return ingest.parse(file, properties).stream();
+        }
+    }
     private static <I> void init(I input, NMEADispatcher nmeaDispatcher, Supplier origin)
     {
         Runner runner = new Runner(input, nmeaDispatcher, origin);
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.util;
+
+import java.util.function.Consumer;
+import org.vesalainen.parsers.nmea.NMEADispatcher;
+
+/**
+ * SampleCollector passes committed NMEASample's to consumer in parser thread.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ * @see NMEASampler
+ */
+class SampleCollector extends AbstractSampleCollector
+{
+    private final Consumer<NMEASample> consumer;
+    /**
+     * Creates new SampleCollector and add's it as observer to dispatcher.
+     * @param dispatcher
+     * @param consumer
+     * @param properties Observed properties. Properties 'clock', 'messageType',
+     * 'talkerId' and 'origin' are always included.
+     */
+    SampleCollector(NMEADispatcher dispatcher, Consumer<NMEASample> consumer, String... properties)
+    {
+        super(properties);
+        this.consumer = consumer;
+        dispatcher.addObserver(this, getPrefixes());
+    }
+
+    @Override
+    protected NMEASample createSample()
+    {
+        return new NMEASample();
+    }
+
+    @Override
+    protected void accept(NMEASample sample)
+    {
+        consumer.accept(sample);
+    }
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.parsers.nmea;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import java.nio.channels.ScatteringByteChannel;
+import java.nio.file.Path;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * MappedFileChannel reads file through memory mapped windows. Reading is a 
+ * memory copy from mapped region without read system calls. Files larger than
+ * 2 GB are read by sliding the window.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public class MappedFileChannel implements ScatteringByteChannel
+{
+    public static final long DEFAULT_WINDOW = 64*1024*1024;
+    private final FileChannel channel;
+    private final boolean closeChannel;
+    private final long window;
+    private final long limit;
+    private long next;
+    private MappedByteBuffer buffer;
+
+    public MappedFileChannel(Path path) throws IOException
+    {
+        this(FileChannel.open(path, READ), true, DEFAULT_WINDOW);
+    }
+    /**
+     * Creates MappedFileChannel reading from channels current position. 
+     * Channel is not closed.
+     * @param channel
+     * @throws IOException 
+     */
+    public MappedFileChannel(FileChannel channel) throws IOException
+    {
+        this(channel, false, DEFAULT_WINDOW);
+    }
+    
+    public MappedFileChannel(FileChannel channel, boolean closeChannel, long window) throws IOException
+    {
+        this(channel, channel.position(), channel.size(), closeChannel, window);
+    }
+    /**
+     * Creates MappedFileChannel reading file range.
+     * @param channel
+     * @param position Start of range
+     * @param limit End of range (exclusive)
+     * @param closeChannel If true channel is closed when this is closed.
+     * @param window Maximum size of mapped region.
+     */
+    public MappedFileChannel(FileChannel channel, long position, long limit, boolean closeChannel, long window)
+    {
+        if (window <= 0 || window > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("window "+window);
+        }
+        if (position < 0 || position > limit)
+        {
+            throw new IllegalArgumentException("range "+position+" - "+limit);
+        }
+        this.channel = channel;
+        this.closeChannel = closeChannel;
+        this.window = window;
+        this.limit = limit;
+        this.next = position;
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException
+    {
+        long count = 0;
+        for (int ii=offset;ii<offset+length;ii++)
+        {
+            int rc = read(dsts[ii]);
+            if (rc == -1)
+            {
+                return count > 0 ? count : -1;
+            }
+            count += rc;
+        }
+        return count;
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts) throws IOException
+    {
+        return read(dsts, 0, dsts.length);
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException
+    {
+        int count = 0;
+        while (dst.hasRemaining())
+        {
+            if (buffer == null || !buffer.hasRemaining())
+            {
+                if (!map())
+                {
+                    return count > 0 ? count : -1;
+                }
+            }
+            int n = Math.min(dst.remaining(), buffer.remaining());
+            int lim = buffer.limit();
+            buffer.limit(buffer.position()+n);
+            dst.put(buffer);
+            buffer.limit(lim);
+            count += n;
+        }
+        return count;
+    }
+    private boolean map() throws IOException
+    {
+        if (next >= limit)
+        {
+            return false;
+        }
+        long len = Math.min(window, limit - next);
+        buffer = channel.map(READ_ONLY, next, len);
+        next += len;
+        return true;
+    }
+
+    @Override
+    public boolean isOpen()
+    {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        buffer = null;
+        if (closeChannel)
+        {
+            channel.close();
+        }
+    }
+    
+}
@@ -25,72 +25,90 @@ import org.vesalainen.parser.util.InputReader;
  */
 public class NMEAChecksum implements Checksum
 {
-    private boolean on;
-    private int value;
+    private static final int ON = 0x10000;
+    private static final int VALUE = 0xffff;
+    private int state;
     private int lastInputEnd;
     @Override
     public void update(int b)
     {
-        doUpdate(b);
+        state = step(state, b);
     }
-    private void doUpdate(int b)
+    /**
+     * Returns next state. State is checksum value with ON bit set between '$'
+     * or '!' and '*'.
+     * @param state
+     * @param b
+     * @return 
+     */
+    private static int step(int state, int b)
     {
         switch (b)
         {
             case '*':
-                on = false;
-                break;
+                return state & VALUE;
             case '$':
             case '!':
-                value = 0;
-                on = true;
-                break;
+                return ON;
             default:
-                if (on)
+                if ((state & ON) != 0)
                 {
-                    value ^= b;
+                    return state ^ (b & VALUE);
                 }
-                break;
+                return state;
         }
     }
 
     public void update(CharSequence seq)
     {
+        int s = state;
         int length = seq.length();
         for (int ii=0;ii<length;ii++)
         {
-            doUpdate(seq.charAt(ii));
+            s = step(s, seq.charAt(ii));
         }
+        state = s;
     }
+    /**
+     * Updates checksum with input consumed after previous call. Characters 
+     * are read again from input buffer after lexer has consumed them, so each
+     * character is scanned twice. Characters before lastInputEnd are not 
+     * scanned again.
+     * @param input 
+     */
     public void updateInput(InputReader input)
     {
         int end = input.getEnd();
         assert end >= lastInputEnd;
+        int s = state;
         for (int ii=lastInputEnd;ii<end;ii++)
         {
-            update(input.get(ii));
+            s = step(s, input.get(ii));
         }
+        state = s;
         lastInputEnd = end;
     }
     @Override
     public void update(byte[] b, int off, int len)
     {
+        int s = state;
         for (int ii=0;ii<len;ii++)
         {
-            doUpdate(b[ii+off]);
+            s = step(s, b[ii+off]);
         }
+        state = s;
     }
 
     @Override
     public long getValue()
     {
-        return value;
+        return state & VALUE;
     }
 
     @Override
     public void reset()
     {
-        value = 0;
+        state = 0;
         lastInputEnd = 0;
     }
     /**
@@ -109,6 +127,7 @@ public class NMEAChecksum implements Checksum
      */
     public void fillSuffix(byte[] arr, int offset)
     {
+        int value = state & VALUE;
         arr[offset] = '*';
         arr[offset+1] = toHex(value>>4);
         arr[offset+2] = toHex(value&0xf);
@@ -121,6 +140,7 @@ public class NMEAChecksum implements Checksum
      */
     public String getSuffix()
     {
+        int value = state & VALUE;
         return "*"+(char)toHex(value>>4)+(char)toHex(value&0xf)+"\r\n";
     }
     private byte toHex(int v)
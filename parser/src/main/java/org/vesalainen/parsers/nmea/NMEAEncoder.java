@@ -0,0 +1,455 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.parsers.nmea;
+
+import java.nio.ByteBuffer;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import java.util.Arrays;
+
+/**
+ * Reusable encoder for generated sentences. Fields are formatted directly to
+ * internal buffer and checksum is updated while writing. After sentence is
+ * built any field can be changed with set methods. Only the changed field is
+ * rewritten and checksum is updated incrementally. writeTo writes the 
+ * sentence with checksum and CR LF to given ByteBuffer.
+ * 
+ * <p>Encoder doesn't allocate after warm-up. It is not thread-safe. Use one
+ * encoder per thread.
+ * 
+ * <p>Field 0 is the prefix e.g. $IIMWV. Data fields start from 1.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ * @see NMEASentence
+ */
+public class NMEAEncoder
+{
+    private static final long[] POW10 = new long[] {1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000, 1000000000};
+    private static final byte[] HEX = new byte[] {'0','1','2','3','4','5','6','7','8','9','A','B','C','D','E','F'};
+    private byte[] buffer = new byte[128];
+    private byte[] scratch = new byte[32];
+    private int[] starts = new int[32];
+    private int fields;
+    private int length;
+    private int xor;
+    /**
+     * Starts new sentence with '$'/'!', talker-id and message-id
+     * @param talkerId
+     * @param messageType
+     * @return 
+     */
+    public NMEAEncoder begin(TalkerId talkerId, MessageType messageType)
+    {
+        switch (messageType)
+        {
+            case VDM:
+            case VDO:
+                begin('!');
+                break;
+            default:
+                begin('$');
+                break;
+        }
+        append(talkerId.name());
+        append(messageType.name());
+        return this;
+    }
+    /**
+     * Starts new sentence with prefix. E.g. $PICOA
+     * @param prefix
+     * @return 
+     */
+    public NMEAEncoder begin(CharSequence prefix)
+    {
+        int len = prefix.length();
+        if (len < 2 || (prefix.charAt(0) != '$' && prefix.charAt(0) != '!'))
+        {
+            throw new IllegalArgumentException(prefix+" not a prefix");
+        }
+        begin(prefix.charAt(0));
+        for (int ii=1;ii<len;ii++)
+        {
+            char cc = prefix.charAt(ii);
+            if (cc == ',' || cc == '*')
+            {
+                throw new IllegalArgumentException(prefix+" not a prefix");
+            }
+            write(cc);
+        }
+        return this;
+    }
+    /**
+     * Adds empty field
+     * @return 
+     */
+    public NMEAEncoder add()
+    {
+        return appendField(0);
+    }
+    /**
+     * Adds char field
+     * @param fld
+     * @return 
+     */
+    public NMEAEncoder add(char fld)
+    {
+        return appendField(format(fld));
+    }
+    /**
+     * Adds int field
+     * @param fld
+     * @return 
+     */
+    public NMEAEncoder add(int fld)
+    {
+        return appendField(format((long)fld));
+    }
+    /**
+     * Adds long field
+     * @param fld
+     * @return 
+     */
+    public NMEAEncoder add(long fld)
+    {
+        return appendField(format(fld));
+    }
+    /**
+     * Adds fixed-point field. NaN and infinite are empty fields.
+     * @param fld
+     * @param decimals Number of decimals 0 - 9. Rounded half up.
+     * @return 
+     */
+    public NMEAEncoder add(double fld, int decimals)
+    {
+        return appendField(format(fld, decimals));
+    }
+    /**
+     * Adds string field. Characters greater than '~' are written as ^HH 
+     * like NMEA charset does.
+     * @param fld
+     * @return 
+     */
+    public NMEAEncoder add(CharSequence fld)
+    {
+        return appendField(format(fld));
+    }
+    /**
+     * Sets field empty.
+     * @param index
+     * @return 
+     */
+    public NMEAEncoder set(int index)
+    {
+        return replaceField(index, 0);
+    }
+    /**
+     * Sets char field.
+     * @param index
+     * @param fld
+     * @return 
+     */
+    public NMEAEncoder set(int index, char fld)
+    {
+        return replaceField(index, format(fld));
+    }
+    /**
+     * Sets int field.
+     * @param index
+     * @param fld
+     * @return 
+     */
+    public NMEAEncoder set(int index, int fld)
+    {
+        return replaceField(index, format((long)fld));
+    }
+    /**
+     * Sets long field.
+     * @param index
+     * @param fld
+     * @return 
+     */
+    public NMEAEncoder set(int index, long fld)
+    {
+        return replaceField(index, format(fld));
+    }
+    /**
+     * Sets fixed-point field.
+     * @param index
+     * @param fld
+     * @param decimals
+     * @return 
+     * @see #add(double, int) 
+     */
+    public NMEAEncoder set(int index, double fld, int decimals)
+    {
+        return replaceField(index, format(fld, decimals));
+    }
+    /**
+     * Sets string field.
+     * @param index
+     * @param fld
+     * @return 
+     * @see #add(java.lang.CharSequence) 
+     */
+    public NMEAEncoder set(int index, CharSequence fld)
+    {
+        return replaceField(index, format(fld));
+    }
+    /**
+     * Returns number of fields including prefix.
+     * @return 
+     */
+    public int getFieldCount()
+    {
+        return fields;
+    }
+    /**
+     * Returns sentence length including checksum and CR LF.
+     * @return 
+     */
+    public int length()
+    {
+        return length+5;
+    }
+    /**
+     * Writes sentence with checksum and CR LF to bb.
+     * @param bb
+     * @return Number of bytes written.
+     * @throws java.nio.BufferOverflowException If bb doesn't have room.
+     */
+    public int writeTo(ByteBuffer bb)
+    {
+        bb.put(buffer, 0, length);
+        bb.put((byte)'*');
+        bb.put(HEX[xor>>4]);
+        bb.put(HEX[xor&0xf]);
+        bb.put((byte)'\r');
+        bb.put((byte)'\n');
+        return length+5;
+    }
+    /**
+     * Returns sentence with checksum and CR LF as string.
+     * @return 
+     */
+    @Override
+    public String toString()
+    {
+        ByteBuffer bb = ByteBuffer.allocate(length());
+        writeTo(bb);
+        return new String(bb.array(), 0, bb.position(), US_ASCII);
+    }
+
+    private void begin(char start)
+    {
+        length = 0;
+        xor = 0;
+        fields = 1;
+        starts[0] = 0;
+        buffer[length++] = (byte) start;
+    }
+    
+    private void append(String str)
+    {
+        int len = str.length();
+        for (int ii=0;ii<len;ii++)
+        {
+            write(str.charAt(ii));
+        }
+    }
+    
+    private void write(int cc)
+    {
+        ensureCapacity(1);
+        buffer[length++] = (byte) cc;
+        xor ^= cc;
+    }
+    
+    private NMEAEncoder appendField(int len)
+    {
+        if (fields == 0)
+        {
+            throw new IllegalStateException("begin not called");
+        }
+        write(',');
+        if (fields == starts.length)
+        {
+            starts = Arrays.copyOf(starts, 2*fields);
+        }
+        starts[fields++] = length;
+        ensureCapacity(len);
+        for (int ii=0;ii<len;ii++)
+        {
+            byte b = scratch[ii];
+            buffer[length++] = b;
+            xor ^= b;
+        }
+        return this;
+    }
+    
+    private NMEAEncoder replaceField(int index, int len)
+    {
+        if (index < 1 || index >= fields)
+        {
+            throw new IndexOutOfBoundsException(index+" fields="+fields);
+        }
+        int start = starts[index];
+        int end = index+1 < fields ? starts[index+1]-1 : length;
+        for (int ii=start;ii<end;ii++)
+        {
+            xor ^= buffer[ii];
+        }
+        int diff = len - (end-start);
+        if (diff != 0)
+        {
+            ensureCapacity(diff);
+            System.arraycopy(buffer, end, buffer, end+diff, length-end);
+            length += diff;
+            for (int ii=index+1;ii<fields;ii++)
+            {
+                starts[ii] += diff;
+            }
+        }
+        for (int ii=0;ii<len;ii++)
+        {
+            byte b = scratch[ii];
+            buffer[start+ii] = b;
+            xor ^= b;
+        }
+        return this;
+    }
+    
+    private void ensureCapacity(int len)
+    {
+        if (length+len > buffer.length)
+        {
+            buffer = Arrays.copyOf(buffer, Math.max(2*buffer.length, length+len));
+        }
+    }
+    
+    private void ensureScratch(int len)
+    {
+        if (len > scratch.length)
+        {
+            scratch = new byte[Math.max(2*scratch.length, len)];
+        }
+    }
+    
+    private int format(char cc)
+    {
+        if (cc > '~')
+        {
+            ensureScratch(3);
+            scratch[0] = '^';
+            scratch[1] = HEX[(cc>>4)&0xf];
+            scratch[2] = HEX[cc&0xf];
+            return 3;
+        }
+        scratch[0] = (byte) cc;
+        return 1;
+    }
+    
+    private int format(CharSequence seq)
+    {
+        int len = seq.length();
+        ensureScratch(3*len);
+        int idx = 0;
+        for (int ii=0;ii<len;ii++)
+        {
+            char cc = seq.charAt(ii);
+            if (cc == ',' || cc == '*')
+            {
+                throw new IllegalArgumentException(seq+" contains (,) or (*)");
+            }
+            if (cc > '~')
+            {
+                scratch[idx++] = '^';
+                scratch[idx++] = HEX[(cc>>4)&0xf];
+                scratch[idx++] = HEX[cc&0xf];
+            }
+            else
+            {
+                scratch[idx++] = (byte) cc;
+            }
+        }
+        return idx;
+    }
+    
+    private int format(long value)
+    {
+        if (value == Long.MIN_VALUE)
+        {
+            return format(Long.toString(value));
+        }
+        int idx = 0;
+        if (value < 0)
+        {
+            scratch[idx++] = '-';
+            value = -value;
+        }
+        return digits(value, idx, 1);
+    }
+    
+    private int format(double value, int decimals)
+    {
+        if (decimals < 0 || decimals >= POW10.length)
+        {
+            throw new IllegalArgumentException("decimals="+decimals);
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value))
+        {
+            return 0;
+        }
+        long pow = POW10[decimals];
+        long scaled = Math.round(Math.abs(value)*pow);
+        int idx = 0;
+        if (value < 0 && scaled != 0)
+        {
+            scratch[idx++] = '-';
+        }
+        idx = digits(scaled/pow, idx, 1);
+        if (decimals > 0)
+        {
+            scratch[idx++] = '.';
+            idx = digits(scaled%pow, idx, decimals);
+        }
+        return idx;
+    }
+    /**
+     * Writes at least minDigits digits of non negative value to scratch at
+     * idx.
+     * @param value
+     * @param idx
+     * @param minDigits
+     * @return Index after digits.
+     */
+    private int digits(long value, int idx, int minDigits)
+    {
+        int count = 1;
+        long v = value/10;
+        while (v != 0)
+        {
+            count++;
+            v /= 10;
+        }
+        count = Math.max(count, minDigits);
+        int end = idx+count;
+        for (int ii=end-1;ii>=idx;ii--)
+        {
+            scratch[ii] = (byte) ('0'+value%10);
+            value /= 10;
+        }
+        return end;
+    }
+}
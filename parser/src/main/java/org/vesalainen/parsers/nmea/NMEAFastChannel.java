@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.parsers.nmea;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ScatteringByteChannel;
+import java.util.function.Supplier;
+
+/**
+ * NMEAFastChannel passes sentences handled by NMEAFastParser directly to 
+ * observer. Other input is passed through to NMEAParser.
+ * 
+ * <p>Sentence is parsed by fast path only when everything read before is
+ * passed to NMEAParser. This keeps observer calls in input order.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+class NMEAFastChannel implements ScatteringByteChannel
+{
+    private static final int SIZE = 8192;
+    private final ReadableByteChannel channel;
+    private final NMEAFastParser parser;
+    private final NMEAClock clock;
+    private final Supplier origin;
+    private final NMEAObserver data;
+    private final ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+    private final byte[] array = buffer.array();
+    private boolean eof;
+
+    NMEAFastChannel(ReadableByteChannel channel, NMEAFastParser parser, NMEAClock clock, Supplier origin, NMEAObserver data)
+    {
+        this.channel = channel;
+        this.parser = parser;
+        this.clock = clock;
+        this.origin = origin;
+        this.data = data;
+        buffer.flip();
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException
+    {
+        int count = 0;
+        while (dst.hasRemaining())
+        {
+            int pos = buffer.position();
+            int end = lineEnd(pos, buffer.limit());
+            if (end == -1)
+            {
+                if (count > 0)
+                {
+                    return count;
+                }
+                if (!eof && (pos > 0 || buffer.limit() < SIZE))
+                {
+                    if (fill() == 0)
+                    {
+                        return 0;
+                    }
+                    continue;
+                }
+                if (pos == buffer.limit())
+                {
+                    return -1;
+                }
+                end = buffer.limit();
+            }
+            if (array[pos] == '$')
+            {
+                if (count > 0)
+                {
+                    return count;
+                }
+                if (parser.parse(array, pos, end-pos, clock, origin, data))
+                {
+                    buffer.position(end);
+                    continue;
+                }
+            }
+            int len = Math.min(end-pos, dst.remaining());
+            dst.put(array, pos, len);
+            buffer.position(pos+len);
+            count += len;
+        }
+        return count;
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException
+    {
+        for (int ii=0;ii<length;ii++)
+        {
+            ByteBuffer dst = dsts[offset+ii];
+            if (dst.hasRemaining())
+            {
+                return read(dst);
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts) throws IOException
+    {
+        return read(dsts, 0, dsts.length);
+    }
+
+    @Override
+    public boolean isOpen()
+    {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+
+    private int fill() throws IOException
+    {
+        buffer.compact();
+        int rc = channel.read(buffer);
+        buffer.flip();
+        if (rc == -1)
+        {
+            eof = true;
+        }
+        return rc;
+    }
+
+    private int lineEnd(int start, int limit)
+    {
+        for (int ii=start;ii<limit;ii++)
+        {
+            if (array[ii] == '\n')
+            {
+                return ii+1;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,943 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.parsers.nmea;
+
+import java.time.Clock;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+import static org.vesalainen.parsers.nmea.Converter.*;
+
+/**
+ * NMEAFastParser parses the most common sentences RMC, GGA, VTG, HDT, MWV and
+ * DPT directly from bytes using integer and fixed point arithmetic. It calls 
+ * the same NMEAObserver and NMEAClock methods in the same order as 
+ * NMEAParser.
+ * 
+ * <p>Sentence is first checked and decoded. Observer methods are called only
+ * if whole sentence is valid. Otherwise parse returns false without any 
+ * observer calls and the sentence is left for NMEAParser. This includes 
+ * checksum failures, unknown units and field formats that are not handled 
+ * here.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ * @see NMEAParser#setFastPath(boolean) 
+ */
+public class NMEAFastParser
+{
+    private static final int MAX_FIELDS = 24;
+    private static final TalkerId[] TALKERS = new TalkerId[128*128];
+    private static final long[] POW10 = new long[19];
+    private static final float[] POW10F = new float[11];
+    private static final GPSQualityIndicator[] QUALITY = GPSQualityIndicator.values();
+    static
+    {
+        for (TalkerId talkerId : TalkerId.values())
+        {
+            String name = talkerId.name();
+            TALKERS[name.charAt(0)*128+name.charAt(1)] = talkerId;
+        }
+        long p = 1;
+        for (int ii=0;ii<POW10.length;ii++)
+        {
+            POW10[ii] = p;
+            if (ii < POW10F.length)
+            {
+                POW10F[ii] = p;
+            }
+            p *= 10;
+        }
+    }
+    private final BiPredicate<TalkerId,MessageType> wanted;
+    private final int[] begin = new int[MAX_FIELDS];
+    private final int[] end = new int[MAX_FIELDS];
+    private byte[] buf;
+    private int fieldCount;
+    private boolean error;
+    private int hour;
+    private int minute;
+    private float second;
+    private int day;
+    private int month;
+    private int year;
+    private float latitude;
+    private float longitude;
+
+    public NMEAFastParser()
+    {
+        this((t,m)->true);
+    }
+    /**
+     * Creates NMEAFastParser which handles only wanted sentences.
+     * @param wanted 
+     */
+    public NMEAFastParser(BiPredicate<TalkerId,MessageType> wanted)
+    {
+        this.wanted = wanted;
+    }
+    /**
+     * Parses one sentence. Sentence starts with '$' and ends with checksum 
+     * and CR LF.
+     * @param buf
+     * @param offset
+     * @param length
+     * @param clock
+     * @param origin Can be null
+     * @param data
+     * @return True if sentence was parsed. If false no observer method was 
+     * called.
+     */
+    public boolean parse(byte[] buf, int offset, int length, NMEAClock clock, Supplier origin, NMEAObserver data)
+    {
+        int last = offset+length;
+        if (
+                length < 12 || 
+                buf[offset] != '$' || 
+                buf[offset+6] != ',' || 
+                buf[last-5] != '*' || 
+                buf[last-2] != '\r' || 
+                buf[last-1] != '\n'
+                )
+        {
+            return false;
+        }
+        int c0 = buf[offset+1];
+        int c1 = buf[offset+2];
+        if (c0 < 0 || c1 < 0)
+        {
+            return false;
+        }
+        TalkerId talkerId = TALKERS[c0*128+c1];
+        MessageType messageType = messageType(buf[offset+3], buf[offset+4], buf[offset+5]);
+        if (talkerId == null || messageType == null || !wanted.test(talkerId, messageType))
+        {
+            return false;
+        }
+        int h = hex(buf[last-4]);
+        int l = hex(buf[last-3]);
+        if (h < 0 || l < 0)
+        {
+            return false;
+        }
+        int xor = c0 ^ c1 ^ buf[offset+3] ^ buf[offset+4] ^ buf[offset+5] ^ ',';
+        this.buf = buf;
+        fieldCount = 0;
+        begin[0] = offset+7;
+        for (int ii=offset+7;ii<last-5;ii++)
+        {
+            int b = buf[ii];
+            switch (b)
+            {
+                case ',':
+                    if (fieldCount == MAX_FIELDS-1)
+                    {
+                        return false;
+                    }
+                    end[fieldCount++] = ii;
+                    begin[fieldCount] = ii+1;
+                    break;
+                case '$':
+                case '!':
+                case '*':
+                case '\r':
+                case '\n':
+                    return false;
+            }
+            xor ^= b;
+        }
+        end[fieldCount++] = last-5;
+        if (xor != ((h<<4)|l))
+        {
+            return false;
+        }
+        error = false;
+        try
+        {
+            switch (messageType)
+            {
+                case RMC:
+                    return rmc(talkerId, clock, origin, data);
+                case GGA:
+                    return gga(talkerId, clock, origin, data);
+                case VTG:
+                    return vtg(talkerId, clock, origin, data);
+                case HDT:
+                    return hdt(talkerId, clock, origin, data);
+                case MWV:
+                    return mwv(talkerId, clock, origin, data);
+                case DPT:
+                    return dpt(talkerId, clock, origin, data);
+                default:
+                    return false;
+            }
+        }
+        catch (IllegalArgumentException ex)
+        {
+            // unknown unit is handled by NMEAParser
+            return false;
+        }
+    }
+    /**
+     * Returns true if message type is parsed by this class.
+     * @param messageType
+     * @return 
+     */
+    public static boolean isFast(MessageType messageType)
+    {
+        switch (messageType)
+        {
+            case RMC:
+            case GGA:
+            case VTG:
+            case HDT:
+            case MWV:
+            case DPT:
+                return true;
+            default:
+                return false;
+        }
+    }
+    private static MessageType messageType(int b0, int b1, int b2)
+    {
+        switch (b0)
+        {
+            case 'R':
+                return b1 == 'M' && b2 == 'C' ? MessageType.RMC : null;
+            case 'G':
+                return b1 == 'G' && b2 == 'A' ? MessageType.GGA : null;
+            case 'V':
+                return b1 == 'T' && b2 == 'G' ? MessageType.VTG : null;
+            case 'H':
+                return b1 == 'D' && b2 == 'T' ? MessageType.HDT : null;
+            case 'M':
+                return b1 == 'W' && b2 == 'V' ? MessageType.MWV : null;
+            case 'D':
+                return b1 == 'P' && b2 == 'T' ? MessageType.DPT : null;
+            default:
+                return null;
+        }
+    }
+    /**
+     * $--RMC,hhmmss.ss,A,llll.ll,a,yyyyy.yy,a,x.x,x.x,xxxx,x.x,a,a*hh
+     */
+    private boolean rmc(TalkerId talkerId, NMEAClock clock, Supplier origin, NMEAObserver data)
+    {
+        if (fieldCount < 11 || !emptyFrom(12))
+        {
+            return false;
+        }
+        boolean hasTime = utc(0);
+        char status = letter(1);
+        boolean hasLocation = location(2);
+        float speedOverGround = decimal(6);
+        float trackMadeGood = decimal(7);
+        boolean hasDate = date(8);
+        float magneticVariation = decimal(9);
+        if (!Float.isNaN(magneticVariation))
+        {
+            magneticVariation *= ew(10);
+        }
+        else
+        {
+            skip(10);
+        }
+        char faaModeIndicator = letter(11);
+        if (error)
+        {
+            return false;
+        }
+        start(talkerId, MessageType.RMC, clock, data);
+        if (hasTime)
+        {
+            setTime(clock);
+        }
+        if (status != 0)
+        {
+            data.setStatus(status);
+        }
+        if (hasLocation)
+        {
+            data.setLatitude(latitude);
+            data.setLongitude(longitude);
+        }
+        if (!Float.isNaN(speedOverGround))
+        {
+            data.setSpeedOverGround(speedOverGround);
+        }
+        if (!Float.isNaN(trackMadeGood))
+        {
+            data.setTrackMadeGood(trackMadeGood);
+        }
+        if (hasDate)
+        {
+            clock.setDate(year, month, day);
+        }
+        if (!Float.isNaN(magneticVariation))
+        {
+            data.setMagneticVariation(magneticVariation);
+        }
+        if (faaModeIndicator != 0)
+        {
+            data.setFaaModeIndicator(faaModeIndicator);
+        }
+        commit(clock, origin, data);
+        return true;
+    }
+    /**
+     * $--GGA,hhmmss.ss,llll.ll,a,yyyyy.yy,a,x,xx,x.x,x.x,M,x.x,M,x.x,xxxx*hh
+     */
+    private boolean gga(TalkerId talkerId, NMEAClock clock, Supplier origin, NMEAObserver data)
+    {
+        if (fieldCount < 14 || !emptyFrom(14))
+        {
+            return false;
+        }
+        boolean hasTime = utc(0);
+        boolean hasLocation = location(1);
+        GPSQualityIndicator gpsQualityIndicator = null;
+        if (!isEmpty(5))
+        {
+            int q = integer(5);
+            if (q < 0 || q >= QUALITY.length)
+            {
+                return false;
+            }
+            gpsQualityIndicator = QUALITY[q];
+        }
+        boolean hasSatellites = !isEmpty(6);
+        int numberOfSatellitesInView = hasSatellites ? integer(6) : 0;
+        float horizontalDilutionOfPrecision = decimal(7);
+        float antennaAltitude = decimal(8);
+        if (!Float.isNaN(antennaAltitude))
+        {
+            antennaAltitude = toMeters(antennaAltitude, letter(9));
+        }
+        else
+        {
+            skip(9);
+        }
+        float geoidalSeparation = decimal(10);
+        if (!Float.isNaN(geoidalSeparation))
+        {
+            geoidalSeparation = toMeters(geoidalSeparation, letter(11));
+        }
+        else
+        {
+            skip(11);
+        }
+        float ageOfDifferentialGPSData = decimal(12);
+        boolean hasStation = !isEmpty(13);
+        int differentialReferenceStationID = hasStation ? integer(13) : 0;
+        if (error)
+        {
+            return false;
+        }
+        start(talkerId, MessageType.GGA, clock, data);
+        if (hasTime)
+        {
+            setTime(clock);
+        }
+        if (hasLocation)
+        {
+            data.setLatitude(latitude);
+            data.setLongitude(longitude);
+        }
+        if (gpsQualityIndicator != null)
+        {
+            data.setGpsQualityIndicator(gpsQualityIndicator);
+        }
+        if (hasSatellites)
+        {
+            data.setNumberOfSatellitesInView(numberOfSatellitesInView);
+        }
+        if (!Float.isNaN(horizontalDilutionOfPrecision))
+        {
+            data.setHorizontalDilutionOfPrecision(horizontalDilutionOfPrecision);
+        }
+        if (!Float.isNaN(antennaAltitude))
+        {
+            data.setAntennaAltitude(antennaAltitude);
+        }
+        if (!Float.isNaN(geoidalSeparation))
+        {
+            data.setGeoidalSeparation(geoidalSeparation);
+        }
+        if (!Float.isNaN(ageOfDifferentialGPSData))
+        {
+            data.setAgeOfDifferentialGPSData(ageOfDifferentialGPSData);
+        }
+        if (hasStation)
+        {
+            data.setDifferentialReferenceStationID(differentialReferenceStationID);
+        }
+        commit(clock, origin, data);
+        return true;
+    }
+    /**
+     * $--VTG,x.x,T,x.x,M,x.x,N,x.x,K,a*hh or old $--VTG,x.x,x.x,x.x,x.x*hh
+     */
+    private boolean vtg(TalkerId talkerId, NMEAClock clock, Supplier origin, NMEAObserver data)
+    {
+        if (fieldCount >= 8 && (isEmpty(1) || isLetter(1)))
+        {
+            if (!emptyFrom(9))
+            {
+                return false;
+            }
+            float track1 = decimal(0);
+            char unit1 = trackUnit(track1, 1);
+            float track2 = decimal(2);
+            char unit2 = trackUnit(track2, 3);
+            float speed1 = decimal(4);
+            if (!Float.isNaN(speed1))
+            {
+                speed1 = toKnots(speed1, letter(5));
+            }
+            else
+            {
+                skip(5);
+            }
+            float speed2 = decimal(6);
+            if (!Float.isNaN(speed2))
+            {
+                speed2 = toKnots(speed2, letter(7));
+            }
+            else
+            {
+                skip(7);
+            }
+            char faaModeIndicator = letter(8);
+            if (error)
+            {
+                return false;
+            }
+            start(talkerId, MessageType.VTG, clock, data);
+            setTrack(track1, unit1, data);
+            setTrack(track2, unit2, data);
+            if (!Float.isNaN(speed1))
+            {
+                data.setSpeedOverGround(speed1);
+            }
+            if (!Float.isNaN(speed2))
+            {
+                data.setSpeedOverGround(speed2);
+            }
+            if (faaModeIndicator != 0)
+            {
+                data.setFaaModeIndicator(faaModeIndicator);
+            }
+        }
+        else
+        {
+            if (fieldCount < 4 || !emptyFrom(4) || isEmpty(0) || isEmpty(1) || isEmpty(2) || isEmpty(3))
+            {
+                return false;
+            }
+            float trueCourseOverGround = decimal(0);
+            float magneticCourseOverGround = decimal(1);
+            float speedOverGroundKnots = decimal(2);
+            float speedOverGroundKilometers = decimal(3);
+            if (error)
+            {
+                return false;
+            }
+            start(talkerId, MessageType.VTG, clock, data);
+            data.setTrueTrackMadeGood(trueCourseOverGround);
+            data.setMagneticTrackMadeGood(magneticCourseOverGround);
+            data.setSpeedOverGround(speedOverGroundKnots);
+            data.setSpeedOverGround(toKnots(speedOverGroundKilometers, KMH));
+        }
+        commit(clock, origin, data);
+        return true;
+    }
+    /**
+     * $--HDT,x.x,T*hh
+     */
+    private boolean hdt(TalkerId talkerId, NMEAClock clock, Supplier origin, NMEAObserver data)
+    {
+        if (fieldCount < 2 || !emptyFrom(2) || isEmpty(0))
+        {
+            return false;
+        }
+        float heading = decimal(0);
+        char unit = letter(1);
+        if (error || (unit != 'T' && unit != 'M'))
+        {
+            return false;
+        }
+        start(talkerId, MessageType.HDT, clock, data);
+        if (unit == 'T')
+        {
+            data.setTrueHeading(heading);
+        }
+        else
+        {
+            data.setMagneticHeading(heading);
+        }
+        commit(clock, origin, data);
+        return true;
+    }
+    /**
+     * $--MWV,x.x,a,x.x,a,A*hh
+     */
+    private boolean mwv(TalkerId talkerId, NMEAClock clock, Supplier origin, NMEAObserver data)
+    {
+        if (fieldCount < 5 || !emptyFrom(5) || isEmpty(0) || isEmpty(2))
+        {
+            return false;
+        }
+        float windAngle = decimal(0);
+        char reference = letter(1);
+        float windSpeed = toMetersPerSecond(decimal(2), letter(3));
+        char status = letter(4);
+        if (error || (reference != 'T' && reference != 'R'))
+        {
+            return false;
+        }
+        start(talkerId, MessageType.MWV, clock, data);
+        if (reference == 'T')
+        {
+            data.setTrueWindAngle(windAngle);
+        }
+        else
+        {
+            data.setRelativeWindAngle(windAngle);
+        }
+        data.setWindSpeed(windSpeed);
+        if (status != 0)
+        {
+            data.setStatus(status);
+        }
+        commit(clock, origin, data);
+        return true;
+    }
+    /**
+     * $--DPT,x.x,x.x*hh
+     */
+    private boolean dpt(TalkerId talkerId, NMEAClock clock, Supplier origin, NMEAObserver data)
+    {
+        if (fieldCount < 2 || !emptyFrom(2))
+        {
+            return false;
+        }
+        float depth = decimal(0);
+        float offset = Float.NaN;
+        if (!Float.isNaN(depth))
+        {
+            if (isEmpty(1))
+            {
+                return false;
+            }
+            offset = decimal(1);
+        }
+        else
+        {
+            skip(1);
+        }
+        if (error)
+        {
+            return false;
+        }
+        start(talkerId, MessageType.DPT, clock, data);
+        if (!Float.isNaN(depth))
+        {
+            data.setDepthOfWater(depth);
+            data.setDepthOffsetOfWater(offset);
+        }
+        commit(clock, origin, data);
+        return true;
+    }
+    private void start(TalkerId talkerId, MessageType messageType, NMEAClock clock, NMEAObserver data)
+    {
+        data.start(null);
+        clock.start(null);
+        data.setTalkerId(talkerId);
+        data.setMessageType(messageType);
+    }
+    private void commit(NMEAClock clock, Supplier origin, NMEAObserver data)
+    {
+        clock.commit("ok");
+        data.setClock((Clock) clock);
+        if (origin != null)
+        {
+            data.setOrigin(origin.get());
+        }
+        data.commit("ok");
+    }
+    private void setTime(NMEAClock clock)
+    {
+        int s = (int) second;
+        clock.setTime(hour, minute, s, (int)((second - (float)s)*1000));
+    }
+    private void setTrack(float degrees, char unit, NMEAObserver data)
+    {
+        if (!Float.isNaN(degrees))
+        {
+            if (unit == 'T')
+            {
+                data.setTrueTrackMadeGood(degrees);
+            }
+            else
+            {
+                data.setMagneticTrackMadeGood(degrees);
+            }
+        }
+    }
+    private char trackUnit(float degrees, int index)
+    {
+        if (Float.isNaN(degrees))
+        {
+            skip(index);
+            return 0;
+        }
+        char unit = letter(index);
+        if (unit != 'T' && unit != 'M')
+        {
+            error = true;
+        }
+        return unit;
+    }
+    /**
+     * hhmmss.ss
+     * @param index
+     * @return True if field was not empty.
+     */
+    private boolean utc(int index)
+    {
+        if (isEmpty(index))
+        {
+            return false;
+        }
+        int p = begin[index];
+        if (end[index] - p < 5)
+        {
+            error = true;
+            return false;
+        }
+        hour = digit2(p);
+        minute = digit2(p+2);
+        second = decimal(p+4, end[index]);
+        return true;
+    }
+    /**
+     * ddmmyy
+     * @param index
+     * @return True if field was not empty.
+     */
+    private boolean date(int index)
+    {
+        if (isEmpty(index))
+        {
+            return false;
+        }
+        int p = begin[index];
+        if (end[index] - p != 6)
+        {
+            error = true;
+            return false;
+        }
+        day = digit2(p);
+        month = digit2(p+2);
+        year = digit2(p+4);
+        return true;
+    }
+    /**
+     * llll.ll,a,yyyyy.yy,a or empty fields.
+     * @param index
+     * @return True if fields were not empty.
+     */
+    private boolean location(int index)
+    {
+        if (isEmpty(index) && isEmpty(index+1) && isEmpty(index+2) && isEmpty(index+3))
+        {
+            return false;
+        }
+        latitude = coordinate(index)*ns(index+1);
+        longitude = coordinate(index+2)*ew(index+3);
+        return true;
+    }
+    private int digit2(int p)
+    {
+        int d0 = buf[p] - '0';
+        int d1 = buf[p+1] - '0';
+        if (d0 < 0 || d0 > 9 || d1 < 0 || d1 > 9)
+        {
+            error = true;
+            return 0;
+        }
+        return d0*10+d1;
+    }
+    /**
+     * [\+\-]?[0-9]+(\.[0-9]+)?
+     * @param index
+     * @return Value or NaN if field is empty.
+     */
+    private float decimal(int index)
+    {
+        if (isEmpty(index))
+        {
+            return Float.NaN;
+        }
+        return decimal(begin[index], end[index]);
+    }
+    private float decimal(int p, int e)
+    {
+        boolean negative = false;
+        if (p < e && (buf[p] == '-' || buf[p] == '+'))
+        {
+            negative = buf[p] == '-';
+            p++;
+        }
+        long m = 0;
+        int digits = 0;
+        int scale = -1;
+        for (;p<e;p++)
+        {
+            int b = buf[p];
+            if (b >= '0' && b <= '9')
+            {
+                m = m*10 + b - '0';
+                digits++;
+                if (scale >= 0)
+                {
+                    scale++;
+                }
+            }
+            else
+            {
+                if (b == '.' && scale < 0 && digits > 0)
+                {
+                    scale = 0;
+                }
+                else
+                {
+                    error = true;
+                    return Float.NaN;
+                }
+            }
+        }
+        if (digits == 0 || scale == 0 || digits >= POW10.length)
+        {
+            error = true;
+            return Float.NaN;
+        }
+        if (scale < 0)
+        {
+            scale = 0;
+        }
+        float f;
+        if (m < (1<<24) && scale < POW10F.length)
+        {
+            f = (float)m / POW10F[scale];
+        }
+        else
+        {
+            f = (float) ((double)m / POW10[scale]);
+        }
+        return negative ? -f : f;
+    }
+    /**
+     * [0-9]+\.[0-9]+ as degrees and minutes
+     * @param index
+     * @return 
+     */
+    private float coordinate(int index)
+    {
+        int p = begin[index];
+        int e = end[index];
+        long m = 0;
+        int digits = 0;
+        int scale = -1;
+        for (;p<e;p++)
+        {
+            int b = buf[p];
+            if (b >= '0' && b <= '9')
+            {
+                m = m*10 + b - '0';
+                digits++;
+                if (scale >= 0)
+                {
+                    scale++;
+                }
+            }
+            else
+            {
+                if (b == '.' && scale < 0 && digits > 0)
+                {
+                    scale = 0;
+                }
+                else
+                {
+                    error = true;
+                    return 0;
+                }
+            }
+        }
+        if (scale <= 0 || digits >= POW10.length)
+        {
+            error = true;
+            return 0;
+        }
+        long pow = POW10[scale];
+        long degrees = m / (100*pow);
+        long minutes = m - degrees*100*pow;
+        return (float) (degrees + minutes / (60.0 * pow));
+    }
+    /**
+     * [\+\-]?[0-9]+
+     * @param index
+     * @return 
+     */
+    private int integer(int index)
+    {
+        int p = begin[index];
+        int e = end[index];
+        boolean negative = false;
+        if (buf[p] == '-' || buf[p] == '+')
+        {
+            negative = buf[p] == '-';
+            p++;
+        }
+        if (p == e || e - p > 9)
+        {
+            error = true;
+            return 0;
+        }
+        int i = 0;
+        for (;p<e;p++)
+        {
+            int d = buf[p] - '0';
+            if (d < 0 || d > 9)
+            {
+                error = true;
+                return 0;
+            }
+            i = i*10 + d;
+        }
+        return negative ? -i : i;
+    }
+    /**
+     * [a-zA-Z]
+     * @param index
+     * @return Letter or 0 if field is empty.
+     */
+    private char letter(int index)
+    {
+        if (isEmpty(index))
+        {
+            return 0;
+        }
+        if (!isLetter(index))
+        {
+            error = true;
+            return 0;
+        }
+        return (char) buf[begin[index]];
+    }
+    private boolean isLetter(int index)
+    {
+        if (end[index] - begin[index] != 1)
+        {
+            return false;
+        }
+        int b = buf[begin[index]];
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z');
+    }
+    private int ns(int index)
+    {
+        switch (letter(index))
+        {
+            case 'N':
+                return 1;
+            case 'S':
+                return -1;
+            default:
+                error = true;
+                return 0;
+        }
+    }
+    private int ew(int index)
+    {
+        switch (letter(index))
+        {
+            case 'E':
+                return 1;
+            case 'W':
+                return -1;
+            default:
+                error = true;
+                return 0;
+        }
+    }
+    /**
+     * Optional [a-zA-Z0-9 \.\-\(\)]+
+     * @param index 
+     */
+    private void skip(int index)
+    {
+        if (index < fieldCount)
+        {
+            for (int p=begin[index];p<end[index];p++)
+            {
+                int b = buf[p];
+                if (!(
+                        (b >= 'a' && b <= 'z') || 
+                        (b >= 'A' && b <= 'Z') || 
+                        (b >= '0' && b <= '9') || 
+                        b == ' ' || b == '.' || b == '-' || b == '(' || b == ')'
+                        ))
+                {
+                    error = true;
+                    return;
+                }
+            }
+        }
+        else
+        {
+            error = true;
+        }
+    }
+    private boolean isEmpty(int index)
+    {
+        return index >= fieldCount || begin[index] == end[index];
+    }
+    private boolean emptyFrom(int index)
+    {
+        for (int ii=index;ii<fieldCount;ii++)
+        {
+            if (begin[ii] != end[ii])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+    private static int hex(int b)
+    {
+        if (b >= '0' && b <= '9')
+        {
+            return b - '0';
+        }
+        if (b >= 'A' && b <= 'F')
+        {
+            return b - 'A' + 10;
+        }
+        if (b >= 'a' && b <= 'f')
+        {
+            return b - 'a' + 10;
+        }
+        return -1;
+    }
+}
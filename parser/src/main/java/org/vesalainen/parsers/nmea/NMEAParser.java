@@ -20,10 +20,14 @@ package org.vesalainen.parsers.nmea;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ScatteringByteChannel;
+import java.nio.file.Path;
 import java.time.Clock;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Supplier;
 import java.util.logging.Level;
 import org.vesalainen.parser.GenClassFactory;
@@ -41,7 +45,11 @@ import org.vesalainen.parser.annotation.Terminal;
 import org.vesalainen.parser.util.InputReader;
 import static org.vesalainen.parsers.nmea.Converter.*;
 import org.vesalainen.parsers.nmea.ais.AISContext;
+import org.vesalainen.parsers.nmea.ais.AISDecoding;
 import org.vesalainen.parsers.nmea.ais.AISObserver;
+import org.vesalainen.parsers.nmea.ais.BitAISContext;
+import org.vesalainen.parsers.nmea.ais.GrammarAISContext;
+import org.vesalainen.parsers.nmea.ais.SyncAISContext;
 import org.vesalainen.parsers.nmea.time.GPSClock;
 
 /**
@@ -194,7 +202,31 @@ import org.vesalainen.parsers.nmea.time.GPSClock;
 })
 public abstract class NMEAParser extends NMEATalkerIds implements ParserInfo//, ChecksumProvider
 {
-    private static final LocalNMEAChecksum localChecksum = new LocalNMEAChecksum();
+    /**
+     * Rollback reason for checksum failures. Details are only logged.
+     */
+    public static final String CHECKSUM = "checksum";
+    /**
+     * Rollback reason for sentences which are not wanted.
+     * @see #setWanted(java.lang.String...) 
+     */
+    public static final String SKIPPED = "skipped";
+    /**
+     * Rollback reason for syntax errors. Details are only logged at FINE.
+     */
+    public static final String SYNTAX = "syntax";
+    /**
+     * Rollback reason for illegal field values. Details are only logged at 
+     * FINE.
+     */
+    public static final String ILLEGAL = "illegal";
+    private final NMEAChecksum checksum = new NMEAChecksum();
+    private long skipCount;
+    private long checksumErrorCount;
+    private long syntaxErrorCount;
+    private long illegalValueCount;
+    private long resyncCount;
+    private NMEAFastParser fastParser;
 
     public NMEAParser()
     {
@@ -1419,18 +1451,20 @@ public abstract class NMEAParser extends NMEATalkerIds implements ParserInfo//,
             @ParserContext("aisContext") AISContext aisContext
             )
     {
-        NMEAChecksum checksum = getChecksum();
         checksum.updateInput(input);
         if (sum != checksum.getValue())
         {
-            clock.rollback("checksum");
-            Object org = origin != null ? origin.get() : null;
-            String reason = org+" "+input.getLineNumber()+": checksum " + Integer.toHexString(sum) + " != " + Integer.toHexString((int) checksum.getValue());
-            data.rollback(reason);
-            warning(reason);
+            checksumErrorCount++;
+            clock.rollback(CHECKSUM);
+            data.rollback(CHECKSUM);
+            if (isLoggable(Level.WARNING))
+            {
+                Object org = origin != null ? origin.get() : null;
+                warning("%s %d: checksum %x != %x", org, input.getLineNumber(), sum, checksum.getValue());
+            }
             if (aisContext != null && aisContext.isAisMessage())
             {
-                aisContext.afterChecksum(false, reason);
+                aisContext.afterChecksum(false, CHECKSUM);
             }
         }
         else
@@ -1532,36 +1566,135 @@ public abstract class NMEAParser extends NMEATalkerIds implements ParserInfo//,
     @Terminal(expression = "[a-zA-Z0-9 \\.\\-\\(\\)]+")
     protected abstract void skip();
 
+    /**
+     * Rolls back broken sentence and skips input to the next line feed or to 
+     * the start of next sentence if it starts before line feed. Input is not 
+     * materialized unless FINE is loggable.
+     * @param data
+     * @param clock
+     * @param origin
+     * @param aisContext
+     * @param reader
+     * @param thr
+     * @throws IOException 
+     */
     @RecoverMethod
     public void recover(
             @ParserContext("data") NMEAObserver data,
+            @ParserContext("clock") NMEAClock clock,
+            @ParserContext("origin") Supplier origin,
             @ParserContext("aisContext") AISContext aisContext,
-            @ParserContext(ParserConstants.ExpectedDescription) String expected,
             @ParserContext(ParserConstants.INPUTREADER) InputReader reader,
             @ParserContext(ParserConstants.THROWABLE) Throwable thr
             ) throws IOException
     {
-        if (thr != null)
+        if (thr == SKIP)
         {
-            log(Level.SEVERE, thr, "recover exp=%s", expected);
+            skip(data, clock, origin, reader);
+            return;
         }
-        StringBuilder sb = new StringBuilder();
-        sb.append(reader.getInput());
-        sb.append('^');
+        String reason;
+        if (thr == null)
+        {
+            syntaxErrorCount++;
+            reason = SYNTAX;
+        }
+        else
+        {
+            if (thr instanceof IllegalArgumentException)
+            {
+                illegalValueCount++;
+                reason = ILLEGAL;
+            }
+            else
+            {
+                log(Level.SEVERE, thr, "recover %d: %s", reader.getLineNumber(), thr);
+                reason = thr.toString();
+            }
+        }
+        StringBuilder sb = null;
+        if (isLoggable(Level.FINE))
+        {
+            sb = new StringBuilder();
+            sb.append(reader.getInput());
+            sb.append('^');
+        }
+        boolean started = reader.getLength() > 0;
         int cc = reader.read();
         while (cc != '\n' && cc != -1)
         {
-            sb.append((char) cc);
+            if (started && (cc == '$' || cc == '!'))
+            {
+                reader.unread();
+                resyncCount++;
+                break;
+            }
+            if (sb != null)
+            {
+                sb.append((char) cc);
+            }
+            started = true;
             cc = reader.read();
         }
-        String reason = "skipping " + sb+"\nexpected:"+expected;
+        checksum.updateInput(reader);
         data.rollback(reason);
+        if (sb != null)
+        {
+            Object org = origin != null ? origin.get() : null;
+            fine("%s %d: %s skipping %s", org, reader.getLineNumber(), reason, sb);
+        }
         reader.clear();
         if (aisContext != null && aisContext.isAisMessage())
         {
             aisContext.afterChecksum(false, reason);
         }
     }
+    /**
+     * Skips unwanted sentence to the next line feed. Only checksum is checked.
+     * @param data
+     * @param clock
+     * @param origin
+     * @param reader
+     * @throws IOException 
+     */
+    private void skip(NMEAObserver data, NMEAClock clock, Supplier origin, InputReader reader) throws IOException
+    {
+        int sum = 0;
+        int digits = -1;
+        int cc = reader.read();
+        while (cc != '\n' && cc != -1)
+        {
+            if (digits >= 0 && digits < 2)
+            {
+                sum = (sum<<4) + Character.digit(cc, 16);
+                digits++;
+            }
+            if (cc == '*')
+            {
+                digits = 0;
+            }
+            cc = reader.read();
+        }
+        checksum.updateInput(reader);
+        if (digits == 2 && sum == checksum.getValue())
+        {
+            skipCount++;
+            clock.rollback(SKIPPED);
+            data.rollback(SKIPPED);
+        }
+        else
+        {
+            checksumErrorCount++;
+            clock.rollback(CHECKSUM);
+            data.rollback(CHECKSUM);
+            if (isLoggable(Level.WARNING))
+            {
+                Object org = origin != null ? origin.get() : null;
+                warning("%s %d: checksum %x != %x", org, reader.getLineNumber(), sum, checksum.getValue());
+            }
+        }
+        reader.clear();
+    }
     /**
      * Parse NMEA
      * @param <I>
@@ -1578,14 +1711,48 @@ public abstract class NMEAParser extends NMEATalkerIds implements ParserInfo//,
     {
         parse(input, new GPSClock(liveClock), origin, data, aisData);
     }
+    public <I> void parse(I input, boolean liveClock, Supplier origin, NMEAObserver data, AISObserver aisData, AISDecoding aisDecoding) throws IOException
+    {
+        parse(input, new GPSClock(liveClock), origin, data, aisData, aisDecoding);
+    }
     public <I> void parse(I input, GPSClock gpsClock, Supplier origin, NMEAObserver data, AISObserver aisData) throws IOException
     {
-        NMEAChecksum checksum = getChecksum();
-        checksum.reset();
+        parse(input, gpsClock, origin, data, aisData, AISDecoding.Grammar);
+    }
+    /**
+     * Parse NMEA. Supported inputs are Path, ScatteringByteChannel, URL, 
+     * String and InputStream. Path and FileChannel are read through memory 
+     * mapping.
+     * @param <I>
+     * @param input
+     * @param gpsClock
+     * @param origin Supplier of origin. Can be null
+     * @param data NMEAObserver can be null
+     * @param aisData AISObserver can be null
+     * @param aisDecoding How AIS messages are decoded.
+     * @throws IOException 
+     * @see AISDecoding
+     */
+    public <I> void parse(I input, GPSClock gpsClock, Supplier origin, NMEAObserver data, AISObserver aisData, AISDecoding aisDecoding) throws IOException
+    {
         if (data == null)
         {
             data = new AbstractNMEAObserver();
         }
+        AISContext aisContext = startSession(gpsClock, data, aisData, aisDecoding);
+        parseInput(input, gpsClock, origin, data, aisContext);
+    }
+    /**
+     * Sets clock to observers and creates AISContext if aisData is not null.
+     * @param gpsClock
+     * @param data
+     * @param aisData Can be null
+     * @param aisDecoding
+     * @return AISContext or null
+     * @throws IOException 
+     */
+    AISContext startSession(GPSClock gpsClock, NMEAObserver data, AISObserver aisData, AISDecoding aisDecoding) throws IOException
+    {
         data.start(null);
         data.setClock(gpsClock);
         gpsClock.start(null);
@@ -1596,39 +1763,95 @@ public abstract class NMEAParser extends NMEATalkerIds implements ParserInfo//,
             aisData.start(null);
             aisData.setClock(gpsClock);
             aisData.commit("Set clock");
-            aisContext = new AISContext(aisData);
+            switch (aisDecoding)
+            {
+                case Grammar:
+                    aisContext = new GrammarAISContext(aisData);
+                    break;
+                case Synchronous:
+                    aisContext = new SyncAISContext(aisData);
+                    break;
+                case BitPacked:
+                    aisContext = new BitAISContext(aisData);
+                    break;
+                default:
+                    throw new UnsupportedOperationException(aisDecoding+" not supported");
+            }
         }
+        return aisContext;
+    }
+    /**
+     * Parses one input. AIS threads are stopped after input ends.
+     * @param <I>
+     * @param input
+     * @param gpsClock
+     * @param origin
+     * @param data
+     * @param aisContext
+     * @throws IOException 
+     */
+    <I> void parseInput(I input, GPSClock gpsClock, Supplier origin, NMEAObserver data, AISContext aisContext) throws IOException
+    {
+        checksum.reset();
         try
         {
-            if (input instanceof ScatteringByteChannel)
+            if (input instanceof Path)
             {
-                ScatteringByteChannel sbc = (ScatteringByteChannel) input;
-                parse(sbc, gpsClock, origin, data, aisContext);
+                try (MappedFileChannel mfc = new MappedFileChannel((Path) input))
+                {
+                    parse(fastPath(mfc, gpsClock, origin, data), gpsClock, origin, data, aisContext);
+                }
             }
             else
             {
-                if (input instanceof URL)
+                if (input instanceof FileChannel)
                 {
-                    URL url = (URL) input;
-                    parse(url, gpsClock, origin, data, aisContext);
+                    try (MappedFileChannel mfc = new MappedFileChannel((FileChannel) input))
+                    {
+                        parse(fastPath(mfc, gpsClock, origin, data), gpsClock, origin, data, aisContext);
+                    }
                 }
                 else
                 {
-                    if (input instanceof String)
+                    if (input instanceof ScatteringByteChannel)
                     {
-                        String str = (String) input;
-                        parse(str, gpsClock, origin, data, aisContext);
+                        ScatteringByteChannel sbc = (ScatteringByteChannel) input;
+                        parse(fastPath(sbc, gpsClock, origin, data), gpsClock, origin, data, aisContext);
                     }
                     else
                     {
-                        if (input instanceof InputStream)
+                        if (input instanceof URL)
                         {
-                            InputStream is = (InputStream) input;
-                            parse(is, gpsClock, origin, data, aisContext);
+                            URL url = (URL) input;
+                            parse(url, gpsClock, origin, data, aisContext);
                         }
                         else
                         {
-                            throw new UnsupportedOperationException(input+" not supported as input");
+                            if (input instanceof String)
+                            {
+                                String str = (String) input;
+                                parse(str, gpsClock, origin, data, aisContext);
+                            }
+                            else
+                            {
+                                if (input instanceof InputStream)
+                                {
+                                    InputStream is = (InputStream) input;
+                                    if (fastParser != null)
+                                    {
+                                        NMEAFastChannel fc = new NMEAFastChannel(Channels.newChannel(is), fastParser, gpsClock, origin, data);
+                                        parse(fc, gpsClock, origin, data, aisContext);
+                                    }
+                                    else
+                                    {
+                                        parse(is, gpsClock, origin, data, aisContext);
+                                    }
+                                }
+                                else
+                                {
+                                    throw new UnsupportedOperationException(input+" not supported as input");
+                                }
+                            }
                         }
                     }
                 }
@@ -1691,9 +1914,108 @@ public abstract class NMEAParser extends NMEATalkerIds implements ParserInfo//,
         return (NMEAParser) GenClassFactory.loadGenInstance(NMEAParser.class);
     }
 
+    /**
+     * Returns checksum of this parser instance. Parser instance is not thread
+     * safe.
+     * @return 
+     */
     public NMEAChecksum getChecksum()
     {
-        return localChecksum.get();
+        return checksum;
+    }
+    /**
+     * Sets wanted sentences to those which set properties starting with given
+     * prefixes. Other sentences are skipped after checksum check without 
+     * calling NMEAObserver setters. Use with NMEADispatcher observer prefixes.
+     * If some prefix doesn't match any known sentence property, all sentences
+     * are wanted.
+     * @param prefixes
+     * @return True if sentences are filtered.
+     * @see NMEAProperties#getMessageTypes(java.lang.String...) 
+     */
+    public boolean setWanted(String... prefixes)
+    {
+        Set<MessageType> messageTypes = NMEAProperties.getInstance().getMessageTypes(prefixes);
+        setWanted(messageTypes);
+        return messageTypes != null;
+    }
+    /**
+     * If true, RMC, GGA, VTG, HDT, MWV and DPT sentences of channel, file and
+     * input stream inputs are parsed by NMEAFastParser. Other sentences and
+     * sentences NMEAFastParser cannot handle are parsed as before. String and
+     * URL inputs are not affected. Line numbers in log messages don't count
+     * fast path sentences.
+     * @param fastPath 
+     * @see NMEAFastParser
+     */
+    public void setFastPath(boolean fastPath)
+    {
+        if (fastPath)
+        {
+            if (fastParser == null)
+            {
+                fastParser = new NMEAFastParser(this::isWanted);
+            }
+        }
+        else
+        {
+            fastParser = null;
+        }
+    }
+
+    public boolean isFastPath()
+    {
+        return fastParser != null;
+    }
+    
+    private ScatteringByteChannel fastPath(ScatteringByteChannel channel, NMEAClock clock, Supplier origin, NMEAObserver data)
+    {
+        if (fastParser != null)
+        {
+            return new NMEAFastChannel(channel, fastParser, clock, origin, data);
+        }
+        return channel;
+    }
+    /**
+     * Returns number of skipped unwanted sentences.
+     * @return 
+     */
+    public long getSkipCount()
+    {
+        return skipCount;
+    }
+    /**
+     * Returns number of sentences with wrong checksum.
+     * @return 
+     */
+    public long getChecksumErrorCount()
+    {
+        return checksumErrorCount;
+    }
+    /**
+     * Returns number of sentences rolled back because of syntax error.
+     * @return 
+     */
+    public long getSyntaxErrorCount()
+    {
+        return syntaxErrorCount;
+    }
+    /**
+     * Returns number of sentences rolled back because of illegal field value.
+     * @return 
+     */
+    public long getIllegalValueCount()
+    {
+        return illegalValueCount;
+    }
+    /**
+     * Returns number of broken sentences which were followed by a new sentence
+     * on the same line.
+     * @return 
+     */
+    public long getResyncCount()
+    {
+        return resyncCount;
     }
 
 }
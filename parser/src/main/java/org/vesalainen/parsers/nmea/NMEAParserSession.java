@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.parsers.nmea;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+import org.vesalainen.parsers.nmea.ais.AISContext;
+import org.vesalainen.parsers.nmea.ais.AISDecoding;
+import org.vesalainen.parsers.nmea.ais.AISObserver;
+import org.vesalainen.parsers.nmea.ais.GrammarAISContext;
+import org.vesalainen.parsers.nmea.time.GPSClock;
+
+/**
+ * NMEAParserSession parses several inputs one after another with same 
+ * parser, clock and observers. Clock is set to observers once. This is for
+ * reconnect loops and batch processing of files.
+ * 
+ * <p>Synchronous and BitPacked AIS contexts are created once. Grammar AIS 
+ * threads are stopped after each input, so Grammar AIS context is created 
+ * for each input. Default is Synchronous.
+ * 
+ * <p>Each parse starts with reset. Incomplete AIS messages of previous input
+ * are rolled back.
+ * 
+ * <p>Not thread safe.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public class NMEAParserSession
+{
+    private final NMEAParser parser;
+    private final GPSClock clock;
+    private final NMEAObserver data;
+    private final AISObserver aisData;
+    private final AISDecoding aisDecoding;
+    private AISContext aisContext;
+    private boolean parsed;
+
+    public NMEAParserSession(boolean liveClock, NMEAObserver data, AISObserver aisData) throws IOException
+    {
+        this(NMEAParser.newInstance(), new GPSClock(liveClock), data, aisData, AISDecoding.Synchronous);
+    }
+    /**
+     * Creates NMEAParserSession
+     * @param parser
+     * @param clock
+     * @param data NMEAObserver can be null
+     * @param aisData AISObserver can be null
+     * @param aisDecoding How AIS messages are decoded.
+     * @throws IOException 
+     */
+    public NMEAParserSession(NMEAParser parser, GPSClock clock, NMEAObserver data, AISObserver aisData, AISDecoding aisDecoding) throws IOException
+    {
+        this.parser = parser;
+        this.clock = clock;
+        this.data = data != null ? data : new AbstractNMEAObserver();
+        this.aisData = aisData;
+        this.aisDecoding = aisDecoding;
+        this.aisContext = parser.startSession(clock, this.data, aisData, aisDecoding);
+    }
+    /**
+     * Parses input. 
+     * @param <I>
+     * @param input
+     * @throws IOException 
+     * @see NMEAParser#parse(java.lang.Object, org.vesalainen.parsers.nmea.time.GPSClock, java.util.function.Supplier, org.vesalainen.parsers.nmea.NMEAObserver, org.vesalainen.parsers.nmea.ais.AISObserver, org.vesalainen.parsers.nmea.ais.AISDecoding) 
+     */
+    public <I> void parse(I input) throws IOException
+    {
+        parse(input, null);
+    }
+    /**
+     * Parses input. 
+     * @param <I>
+     * @param input
+     * @param origin Supplier of origin. Can be null
+     * @throws IOException 
+     */
+    public <I> void parse(I input, Supplier origin) throws IOException
+    {
+        reset();
+        if (parsed && aisContext != null && aisDecoding == AISDecoding.Grammar)
+        {
+            aisContext = new GrammarAISContext(aisData);
+        }
+        parsed = true;
+        parser.parseInput(input, clock, origin, data, aisContext);
+    }
+    /**
+     * Rolls back incomplete AIS messages.
+     */
+    public void reset()
+    {
+        if (aisContext != null)
+        {
+            aisContext.reset();
+        }
+    }
+
+    public NMEAParser getParser()
+    {
+        return parser;
+    }
+
+    public GPSClock getClock()
+    {
+        return clock;
+    }
+    
+}
@@ -16,6 +16,11 @@
  */
 package org.vesalainen.parsers.nmea;
 
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import static org.vesalainen.parsers.nmea.MessageType.*;
+
 /**
  *
  * @author Timo Vesalainen <timo.vesalainen@iki.fi>
@@ -23,6 +28,90 @@ package org.vesalainen.parsers.nmea;
 public class NMEAProperties extends AbstractProperties
 {
     private static final NMEAProperties instance = new NMEAProperties();
+    private static final Map<String,EnumSet<MessageType>> messageTypes = new HashMap<>();
+    /**
+     * Properties set by sentences of NMEAParser grammar. Clock fields, talker
+     * id and message type are set by every sentence and are not listed.
+     */
+    static
+    {
+        types(AAM, "arrivalCircleRadius", "arrivalStatus", "waypoint",
+                "waypointStatus");
+        types(ALM, "almanacReferenceTime", "argumentOfPerigee", "eccentricity",
+                "f0ClockParameter", "f1ClockParameter", "gpsWeekNumber",
+                "inclinationAngle", "longitudeOfAscensionNode", "meanAnomaly",
+                "messageNumber", "rateOfRightAscension", "rootOfSemiMajorAxis",
+                "satellitePRNNumber", "svHealth", "totalNumberOfMessages");
+        types(APA, "arrivalStatus", "crossTrackError",
+                "magneticBearingOriginToDestination", "status", "status2",
+                "trueBearingOriginToDestination", "waypoint", "waypointStatus");
+        types(APB, "arrivalStatus", "crossTrackError",
+                "magneticBearingOriginToDestination",
+                "magneticBearingPresentPositionToDestination",
+                "magneticHeadingToSteerToDestination", "status", "status2",
+                "trueBearingOriginToDestination",
+                "trueBearingPresentPositionToDestination",
+                "trueHeadingToSteerToDestination", "waypoint", "waypointStatus");
+        types(BEC, "distanceToWaypoint", "latitude", "longitude", "magneticBearing",
+                "trueBearing", "waypoint");
+        types(BOD, "fromWaypoint", "magneticBearing", "toWaypoint", "trueBearing");
+        types(BWC, "distanceToWaypoint", "faaModeIndicator", "latitude", "longitude",
+                "magneticBearing", "trueBearing", "waypoint");
+        types(BWR, "distanceToWaypoint", "latitude", "longitude", "magneticBearing",
+                "trueBearing", "waypoint");
+        types(BWW, "fromWaypoint", "magneticBearing", "toWaypoint", "trueBearing");
+        types(DBK, "depthBelowKeel");
+        types(DBS, "depthBelowSurface");
+        types(DBT, "depthBelowTransducer");
+        types(DPT, "depthOfWater", "depthOffsetOfWater");
+        types(GGA, "ageOfDifferentialGPSData", "antennaAltitude",
+                "differentialReferenceStationID", "geoidalSeparation",
+                "gpsQualityIndicator", "horizontalDilutionOfPrecision", "latitude",
+                "longitude", "numberOfSatellitesInView");
+        types(GLL, "faaModeIndicator", "latitude", "longitude", "status");
+        types(GSA, "hdop", "mode", "pdop", "satelliteId1", "satelliteId10",
+                "satelliteId11", "satelliteId12", "satelliteId2", "satelliteId3",
+                "satelliteId4", "satelliteId5", "satelliteId6", "satelliteId7",
+                "satelliteId8", "satelliteId9", "selectionMode", "vdop");
+        types(GSV, "azimuth", "elevation", "messageNumber", "prn", "snr",
+                "totalNumberOfMessages", "totalNumberOfSatellitesInView");
+        types(HDG, "magneticDeviation", "magneticSensorHeading", "magneticVariation");
+        types(HDM, "magneticHeading", "trueHeading");
+        types(HDT, "magneticHeading", "trueHeading");
+        types(MTW, "waterTemperature");
+        types(MWV, "relativeWindAngle", "status", "trueWindAngle", "windSpeed");
+        types(R00, "waypoints");
+        types(RMA, "latitude", "longitude", "magneticVariation", "speedOverGround",
+                "status", "timeDifferenceA", "timeDifferenceB", "trackMadeGood");
+        types(RMB, "arrivalStatus", "bearingToDestination", "crossTrackError",
+                "destinationClosingVelocity", "destinationWaypointLatitude",
+                "destinationWaypointLongitude", "faaModeIndicator", "fromWaypoint",
+                "rangeToDestination", "status", "toWaypoint");
+        types(RMC, "faaModeIndicator", "latitude", "longitude", "magneticVariation",
+                "speedOverGround", "status", "trackMadeGood");
+        types(ROT, "rateOfTurn", "status");
+        types(RPM, "propellerPitch", "rpm", "rpmSource", "rpmSourceNumber", "status");
+        types(RSA, "portRudderSensor", "starboardRudderSensor", "status", "status2");
+        types(RTE, "messageMode", "messageNumber", "route", "totalNumberOfMessages",
+                "waypoints");
+        types(THS, "status", "trueHeading");
+        types(TLL, "destinationWaypointLatitude", "destinationWaypointLongitude",
+                "referenceTarget", "targetHour", "targetMinute", "targetName",
+                "targetNumber", "targetSecond", "targetStatus");
+        types(TXT, "message", "messageNumber", "targetName", "totalNumberOfMessages");
+        types(VHW, "magneticWaterHeading", "trueWaterHeading", "waterSpeed");
+        types(VTG, "faaModeIndicator", "magneticTrackMadeGood", "speedOverGround",
+                "trueTrackMadeGood");
+        types(VWR, "relativeWindAngle", "windSpeed");
+        types(WCV, "velocityToWaypoint", "waypoint");
+        types(WNC, "distanceToWaypoint", "fromWaypoint", "toWaypoint");
+        types(WPL, "destinationWaypointLatitude", "destinationWaypointLongitude",
+                "waypoint");
+        types(XDR, "pRat", "pRtr", "pitch", "rRat", "rRtr", "roll", "xAcceleration",
+                "yAcceleration", "yRat", "yRtr", "zAcceleration");
+        types(XTE, "crossTrackError", "faaModeIndicator", "status", "status2");
+        types(XTR, "crossTrackError");
+    }
     
     private NMEAProperties()
     {
@@ -33,5 +122,40 @@ public class NMEAProperties extends AbstractProperties
     {
         return instance;
     }
+    /**
+     * Returns message types which set properties starting with any of given
+     * prefixes. Returns null if some prefix doesn't match any property set by
+     * known sentence. In that case all sentences are needed.
+     * @param prefixes
+     * @return 
+     */
+    public EnumSet<MessageType> getMessageTypes(String... prefixes)
+    {
+        EnumSet<MessageType> set = EnumSet.noneOf(MessageType.class);
+        for (String prefix : prefixes)
+        {
+            boolean found = false;
+            for (Map.Entry<String,EnumSet<MessageType>> entry : messageTypes.entrySet())
+            {
+                if (entry.getKey().startsWith(prefix))
+                {
+                    set.addAll(entry.getValue());
+                    found = true;
+                }
+            }
+            if (!found)
+            {
+                return null;
+            }
+        }
+        return set;
+    }
+    private static void types(MessageType messageType, String... properties)
+    {
+        for (String property : properties)
+        {
+            messageTypes.computeIfAbsent(property, (p)->EnumSet.noneOf(MessageType.class)).add(messageType);
+        }
+    }
     
 }
@@ -17,6 +17,7 @@
 
 package org.vesalainen.parsers.nmea;
 
+import java.util.Set;
 import org.vesalainen.parser.annotation.ParserContext;
 import org.vesalainen.parser.annotation.Rule;
 import org.vesalainen.util.logging.JavaLogging;
@@ -27,546 +28,640 @@ import org.vesalainen.util.logging.JavaLogging;
  */
 public class NMEASentences extends JavaLogging
 {
+    /**
+     * Thrown when sentence is not wanted. Recover skips the rest of sentence.
+     */
+    static final RuntimeException SKIP = new SkipException();
+    private static final int TYPES = MessageType.values().length;
+    /**
+     * Wanted talker id and message type pairs indexed by 
+     * talkerId.ordinal()*TYPES+messageType.ordinal(). Null means all.
+     */
+    private volatile boolean[] wanted;
+    private TalkerId talkerId;
+
+    protected void setTalkerId(NMEAObserver data, TalkerId talkerId)
+    {
+        this.talkerId = talkerId;
+        data.setTalkerId(talkerId);
+    }
+    
+    protected void setMessageType(NMEAObserver data, MessageType messageType)
+    {
+        boolean[] w = wanted;
+        if (w != null && !w[index(talkerId, messageType)])
+        {
+            throw SKIP;
+        }
+        data.setMessageType(messageType);
+    }
+
+    public boolean isWanted(TalkerId talkerId, MessageType messageType)
+    {
+        boolean[] w = wanted;
+        return w == null || w[index(talkerId, messageType)];
+    }
+    /**
+     * Adds wanted pair. If talkerId is null messageType is wanted from all 
+     * talkers.
+     * @param talkerId
+     * @param messageType 
+     */
+    public synchronized void addWanted(TalkerId talkerId, MessageType messageType)
+    {
+        boolean[] w = wanted;
+        if (w == null)
+        {
+            w = new boolean[TalkerId.values().length*TYPES];
+        }
+        else
+        {
+            w = w.clone();
+        }
+        if (talkerId != null)
+        {
+            w[index(talkerId, messageType)] = true;
+        }
+        else
+        {
+            for (TalkerId tid : TalkerId.values())
+            {
+                w[index(tid, messageType)] = true;
+            }
+        }
+        wanted = w;
+    }
+
+    public synchronized void clearWanted()
+    {
+        wanted = null;
+    }
+    
+    public synchronized void setWanted(Set<MessageType> messageTypes)
+    {
+        if (messageTypes == null)
+        {
+            wanted = null;
+        }
+        else
+        {
+            boolean[] w = new boolean[TalkerId.values().length*TYPES];
+            for (MessageType messageType : messageTypes)
+            {
+                for (TalkerId tid : TalkerId.values())
+                {
+                    w[index(tid, messageType)] = true;
+                }
+            }
+            wanted = w;
+        }
+    }
+    
+    private static int index(TalkerId talkerId, MessageType messageType)
+    {
+        return talkerId.ordinal()*TYPES+messageType.ordinal();
+    }
+    
 
     @Rule("'AAM'")
     protected void aam(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.AAM);
+        setMessageType(data, MessageType.AAM);
     }
     @Rule("'ABK'")
     protected void abk(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.ABK);
+        setMessageType(data, MessageType.ABK);
     }
     @Rule("'ACA'")
     protected void aca(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.ACA);
+        setMessageType(data, MessageType.ACA);
     }
     @Rule("'ACS'")
     protected void acs(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.ACS);
+        setMessageType(data, MessageType.ACS);
     }
     @Rule("'AIR'")
     protected void air(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.AIR);
+        setMessageType(data, MessageType.AIR);
     }
     @Rule("'ALM'")
     protected void alm(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.ALM);
+        setMessageType(data, MessageType.ALM);
     }
     @Rule("'ALR'")
     protected void alr(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.ALR);
+        setMessageType(data, MessageType.ALR);
     }
     @Rule("'APA'")
     protected void apa(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.APA);
+        setMessageType(data, MessageType.APA);
     }
     @Rule("'APB'")
     protected void apb(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.APB);
+        setMessageType(data, MessageType.APB);
     }
     @Rule("'BEC'")
     protected void bec(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.BEC);
+        setMessageType(data, MessageType.BEC);
     }
     @Rule("'BOD'")
     protected void bod(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.BOD);
+        setMessageType(data, MessageType.BOD);
     }
     @Rule("'BWC'")
     protected void bwc(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.BWC);
+        setMessageType(data, MessageType.BWC);
     }
     @Rule("'BWR'")
     protected void bwr(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.BWR);
+        setMessageType(data, MessageType.BWR);
     }
     @Rule("'BWW'")
     protected void bww(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.BWW);
+        setMessageType(data, MessageType.BWW);
     }
     @Rule("'CUR'")
     protected void cur(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.CUR);
+        setMessageType(data, MessageType.CUR);
     }
     @Rule("'DBK'")
     protected void dbk(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.DBK);
+        setMessageType(data, MessageType.DBK);
     }
     @Rule("'DBS'")
     protected void dbs(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.DBS);
+        setMessageType(data, MessageType.DBS);
     }
     @Rule("'DBT'")
     protected void dbt(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.DBT);
+        setMessageType(data, MessageType.DBT);
     }
     @Rule("'DCN'")
     protected void dcn(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.DCN);
+        setMessageType(data, MessageType.DCN);
     }
     @Rule("'DPT'")
     protected void dpt(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.DPT);
+        setMessageType(data, MessageType.DPT);
     }
     @Rule("'DSC'")
     protected void dsc(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.DSC);
+        setMessageType(data, MessageType.DSC);
     }
     @Rule("'DSE'")
     protected void dse(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.DSE);
+        setMessageType(data, MessageType.DSE);
     }
     @Rule("'DSI'")
     protected void dsi(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.DSI);
+        setMessageType(data, MessageType.DSI);
     }
     @Rule("'DSR'")
     protected void dsr(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.DSR);
+        setMessageType(data, MessageType.DSR);
     }
     @Rule("'DTM'")
     protected void dtm(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.DTM);
+        setMessageType(data, MessageType.DTM);
     }
     @Rule("'FSI'")
     protected void fsi(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.FSI);
+        setMessageType(data, MessageType.FSI);
     }
     @Rule("'GBS'")
     protected void gbs(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.GBS);
+        setMessageType(data, MessageType.GBS);
     }
     @Rule("'GGA'")
     protected void gga(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.GGA);
+        setMessageType(data, MessageType.GGA);
     }
     @Rule("'GLC'")
     protected void glc(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.GLC);
+        setMessageType(data, MessageType.GLC);
     }
     @Rule("'GLL'")
     protected void gll(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.GLL);
+        setMessageType(data, MessageType.GLL);
     }
     @Rule("'GMP'")
     protected void gmp(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.GMP);
+        setMessageType(data, MessageType.GMP);
     }
     @Rule("'GNS'")
     protected void gns(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.GNS);
+        setMessageType(data, MessageType.GNS);
     }
     @Rule("'GRS'")
     protected void grs(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.GRS);
+        setMessageType(data, MessageType.GRS);
     }
     @Rule("'GSA'")
     protected void gsa(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.GSA);
+        setMessageType(data, MessageType.GSA);
     }
     @Rule("'GST'")
     protected void gst(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.GST);
+        setMessageType(data, MessageType.GST);
     }
     @Rule("'GSV'")
     protected void gsv(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.GSV);
+        setMessageType(data, MessageType.GSV);
     }
     @Rule("'GTD'")
     protected void gtd(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.GTD);
+        setMessageType(data, MessageType.GTD);
     }
     @Rule("'GXA'")
     protected void gxa(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.GXA);
+        setMessageType(data, MessageType.GXA);
     }
     @Rule("'HDG'")
     protected void hdg(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.HDG);
+        setMessageType(data, MessageType.HDG);
     }
     @Rule("'HDM'")
     protected void hdm(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.HDM);
+        setMessageType(data, MessageType.HDM);
     }
     @Rule("'HDT'")
     protected void hdt(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.HDT);
+        setMessageType(data, MessageType.HDT);
     }
     @Rule("'HFB'")
     protected void hfb(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.HFB);
+        setMessageType(data, MessageType.HFB);
     }
     @Rule("'HMR'")
     protected void hmr(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.HMR);
+        setMessageType(data, MessageType.HMR);
     }
     @Rule("'HMS'")
     protected void hms(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.HMS);
+        setMessageType(data, MessageType.HMS);
     }
     @Rule("'HSC'")
     protected void hsc(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.HSC);
+        setMessageType(data, MessageType.HSC);
     }
     @Rule("'HTC'")
     protected void htc(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.HTC);
+        setMessageType(data, MessageType.HTC);
     }
     @Rule("'HTD'")
     protected void htd(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.HTD);
+        setMessageType(data, MessageType.HTD);
     }
     @Rule("'ITS'")
     protected void its(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.ITS);
+        setMessageType(data, MessageType.ITS);
     }
     @Rule("'LCD'")
     protected void lcd(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.LCD);
+        setMessageType(data, MessageType.LCD);
     }
     @Rule("'LRF'")
     protected void lrf(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.LRF);
+        setMessageType(data, MessageType.LRF);
     }
     @Rule("'LTI'")
     protected void lti(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.LTI);
+        setMessageType(data, MessageType.LTI);
     }
     @Rule("'LR1'")
     protected void lr1(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.LR1);
+        setMessageType(data, MessageType.LR1);
     }
     @Rule("'LR2'")
     protected void lr2(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.LR2);
+        setMessageType(data, MessageType.LR2);
     }
     @Rule("'LR3'")
     protected void lr3(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.LR3);
+        setMessageType(data, MessageType.LR3);
     }
     @Rule("'MLA'")
     protected void mla(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.MLA);
+        setMessageType(data, MessageType.MLA);
     }
     @Rule("'MSK'")
     protected void msk(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.MSK);
+        setMessageType(data, MessageType.MSK);
     }
     @Rule("'MSS'")
     protected void mss(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.MSS);
+        setMessageType(data, MessageType.MSS);
     }
     @Rule("'MTW'")
     protected void mtw(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.MTW);
+        setMessageType(data, MessageType.MTW);
     }
     @Rule("'MWD'")
     protected void mwd(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.MWD);
+        setMessageType(data, MessageType.MWD);
     }
     @Rule("'MWV'")
     protected void mwv(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.MWV);
+        setMessageType(data, MessageType.MWV);
     }
     @Rule("'OLN'")
     protected void oln(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.OLN);
+        setMessageType(data, MessageType.OLN);
     }
     @Rule("'OSD'")
     protected void osd(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.OSD);
+        setMessageType(data, MessageType.OSD);
     }
     @Rule("'R00'")
     protected void r00(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.R00);
+        setMessageType(data, MessageType.R00);
     }
     @Rule("'RMA'")
     protected void rma(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.RMA);
+        setMessageType(data, MessageType.RMA);
     }
     @Rule("'RMB'")
     protected void rmb(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.RMB);
+        setMessageType(data, MessageType.RMB);
     }
     @Rule("'RMC'")
     protected void rmc(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.RMC);
+        setMessageType(data, MessageType.RMC);
     }
     @Rule("'ROT'")
     protected void rot(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.ROT);
+        setMessageType(data, MessageType.ROT);
     }
     @Rule("'RPM'")
     protected void rpm(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.RPM);
+        setMessageType(data, MessageType.RPM);
     }
     @Rule("'RSA'")
     protected void rsa(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.RSA);
+        setMessageType(data, MessageType.RSA);
     }
     @Rule("'RSD'")
     protected void rsd(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.RSD);
+        setMessageType(data, MessageType.RSD);
     }
     @Rule("'RTE'")
     protected void rte(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.RTE);
+        setMessageType(data, MessageType.RTE);
     }
     @Rule("'SFI'")
     protected void sfi(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.SFI);
+        setMessageType(data, MessageType.SFI);
     }
     @Rule("'SSD'")
     protected void ssd(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.SSD);
+        setMessageType(data, MessageType.SSD);
     }
     @Rule("'STN'")
     protected void stn(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.STN);
+        setMessageType(data, MessageType.STN);
     }
     @Rule("'TDS'")
     protected void tds(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.TDS);
+        setMessageType(data, MessageType.TDS);
     }
     @Rule("'TFI'")
     protected void tfi(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.TFI);
+        setMessageType(data, MessageType.TFI);
     }
     @Rule("'THS'")
     protected void ths(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.THS);
+        setMessageType(data, MessageType.THS);
     }
     @Rule("'TLB'")
     protected void tlb(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.TLB);
+        setMessageType(data, MessageType.TLB);
     }
     @Rule("'TPC'")
     protected void tpc(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.TPC);
+        setMessageType(data, MessageType.TPC);
     }
     @Rule("'TPR'")
     protected void tpr(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.TPR);
+        setMessageType(data, MessageType.TPR);
     }
     @Rule("'TPT'")
     protected void tpt(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.TPT);
+        setMessageType(data, MessageType.TPT);
     }
     @Rule("'TLL'")
     protected void tll(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.TLL);
+        setMessageType(data, MessageType.TLL);
     }
     @Rule("'TRF'")
     protected void trf(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.TRF);
+        setMessageType(data, MessageType.TRF);
     }
     @Rule("'TTM'")
     protected void ttm(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.TTM);
+        setMessageType(data, MessageType.TTM);
     }
     @Rule("'TUT'")
     protected void tut(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.TUT);
+        setMessageType(data, MessageType.TUT);
     }
     @Rule("'TXT'")
     protected void txt(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.TXT);
+        setMessageType(data, MessageType.TXT);
     }
     @Rule("'VBW'")
     protected void vbw(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.VBW);
+        setMessageType(data, MessageType.VBW);
     }
     @Rule("'VDR'")
     protected void vdr(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.VDR);
+        setMessageType(data, MessageType.VDR);
     }
     @Rule("'VHW'")
     protected void vhw(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.VHW);
+        setMessageType(data, MessageType.VHW);
     }
     @Rule("'VLW'")
     protected void vlw(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.VLW);
+        setMessageType(data, MessageType.VLW);
     }
     @Rule("'VPW'")
     protected void vpw(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.VPW);
+        setMessageType(data, MessageType.VPW);
     }
     @Rule("'VSD'")
     protected void vsd(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.VSD);
+        setMessageType(data, MessageType.VSD);
     }
     @Rule("'VTG'")
     protected void vtg(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.VTG);
+        setMessageType(data, MessageType.VTG);
     }
     @Rule("'VWR'")
     protected void vwr(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.VWR);
+        setMessageType(data, MessageType.VWR);
     }
     @Rule("'WCV'")
     protected void wcv(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.WCV);
+        setMessageType(data, MessageType.WCV);
     }
     @Rule("'WNC'")
     protected void wnc(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.WNC);
+        setMessageType(data, MessageType.WNC);
     }
     @Rule("'WPL'")
     protected void wpl(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.WPL);
+        setMessageType(data, MessageType.WPL);
     }
     @Rule("'XDR'")
     protected void xdr(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.XDR);
+        setMessageType(data, MessageType.XDR);
     }
     @Rule("'XTE'")
     protected void xte(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.XTE);
+        setMessageType(data, MessageType.XTE);
     }
     @Rule("'XTR'")
     protected void xtr(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.XTR);
+        setMessageType(data, MessageType.XTR);
     }
     @Rule("'ZDA'")
     protected void zda(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.ZDA);
+        setMessageType(data, MessageType.ZDA);
     }
     @Rule("'ZDL'")
     protected void zdl(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.ZDL);
+        setMessageType(data, MessageType.ZDL);
     }
     @Rule("'ZFO'")
     protected void zfo(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.ZFO);
+        setMessageType(data, MessageType.ZFO);
     }
     @Rule("'ZTG'")
     protected void ztg(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.ZTG);
+        setMessageType(data, MessageType.ZTG);
     }
     @Rule("'ABM'")
     protected void abm(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.ABM);
+        setMessageType(data, MessageType.ABM);
     }
     @Rule("'BBM'")
     protected void bbm(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.BBM);
+        setMessageType(data, MessageType.BBM);
     }
     @Rule("'VDM'")
     protected void vdm(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.VDM);
+        setMessageType(data, MessageType.VDM);
     }
     @Rule("'VDO'")
     protected void vdo(@ParserContext("data") NMEAObserver data)
     {
-        data.setMessageType(MessageType.VDO);
+        setMessageType(data, MessageType.VDO);
     }
 
     /**
@@ -581,7 +676,7 @@ public class NMEASentences extends JavaLogging
                 System.err.println("    @Rule(\"'"+mt.name()+"'\")");
                 System.err.println("    protected void "+mt.name().toLowerCase()+"(@ParserContext(\"data\") NMEAObserver data)");
                 System.err.println("    {");
-                System.err.println("        data.setMessageType(MessageType."+mt.name()+");");
+                System.err.println("        setMessageType(data, MessageType."+mt.name()+");");
                 System.err.println("    }");
             }
         }
@@ -591,4 +686,12 @@ public class NMEASentences extends JavaLogging
         }
     }
     
+    private static class SkipException extends RuntimeException
+    {
+        public SkipException()
+        {
+            super("skip", null, false, false);
+        }
+        
+    }
 }
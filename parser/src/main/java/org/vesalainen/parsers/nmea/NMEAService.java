@@ -22,7 +22,9 @@ import java.nio.channels.DatagramChannel;
 import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.ScatteringByteChannel;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -36,6 +38,7 @@ import org.vesalainen.code.SimplePropertySetterDispatcher;
 import org.vesalainen.nio.channels.UnconnectedDatagramChannel;
 import org.vesalainen.nmea.util.NMEASample;
 import org.vesalainen.nmea.util.NMEASampler;
+import org.vesalainen.parsers.nmea.ais.AISDecoding;
 import org.vesalainen.parsers.nmea.ais.AISDispatcher;
 import org.vesalainen.parsers.nmea.time.GPSClock;
 import org.vesalainen.util.WeakMapSet;
@@ -59,6 +62,12 @@ public class NMEAService extends JavaLogging implements Runnable, AutoCloseable
     private boolean liveClock = true;
     private Future<?> future;
     private GPSClock clock;
+    private boolean sentenceFiltering;
+    private final Map<String,Integer> prefixCount = new HashMap<>();
+    private volatile NMEAParser parser;
+    private NMEAParserSession session;
+    private AISDispatcher sessionAisDispatcher;
+    private boolean sessionLiveClock;
 
     public NMEAService(String address, int port) throws IOException
     {
@@ -130,6 +139,23 @@ public class NMEAService extends JavaLogging implements Runnable, AutoCloseable
     {
         this.liveClock = liveClock;
     }
+
+    public boolean isSentenceFiltering()
+    {
+        return sentenceFiltering;
+    }
+    /**
+     * If true, parser skips sentences which don't set any property observed
+     * by observers added with addNMEAObserver. Observers added directly to 
+     * dispatcher or sampler are not taken into account. Filtering is only
+     * used with live clock because GPS clock needs time from all sentences.
+     * @param sentenceFiltering 
+     */
+    public void setSentenceFiltering(boolean sentenceFiltering)
+    {
+        this.sentenceFiltering = sentenceFiltering;
+        updateWanted();
+    }
     
     public PropertySetterDispatcher getDispatcher()
     {
@@ -143,6 +169,14 @@ public class NMEAService extends JavaLogging implements Runnable, AutoCloseable
     public void addNMEAObserver(PropertySetter propertySetter, String... prefixes)
     {
         nmeaDispatcher.addObserver(propertySetter, prefixes);
+        synchronized (prefixCount)
+        {
+            for (String prefix : prefixes)
+            {
+                prefixCount.merge(prefix, 1, Integer::sum);
+            }
+        }
+        updateWanted();
         if (propertySetter instanceof AutoCloseable)
         {
             AutoCloseable ac = (AutoCloseable) propertySetter;
@@ -175,6 +209,14 @@ public class NMEAService extends JavaLogging implements Runnable, AutoCloseable
     public void removeNMEAObserver(PropertySetter propertySetter, String... prefixes)
     {
         nmeaDispatcher.removeObserver(propertySetter, prefixes);
+        synchronized (prefixCount)
+        {
+            for (String prefix : prefixes)
+            {
+                prefixCount.computeIfPresent(prefix, (p,c)->c > 1 ? c-1 : null);
+            }
+        }
+        updateWanted();
         if (propertySetter instanceof AutoCloseable)
         {
             AutoCloseable ac = (AutoCloseable) propertySetter;
@@ -202,21 +244,48 @@ public class NMEAService extends JavaLogging implements Runnable, AutoCloseable
                 (aisDispatcher != null && aisDispatcher.hasObservers());
     }
     
+    private void updateWanted()
+    {
+        NMEAParser p = parser;
+        if (p != null)
+        {
+            if (sentenceFiltering && liveClock)
+            {
+                synchronized (prefixCount)
+                {
+                    boolean filtered = p.setWanted(prefixCount.keySet().toArray(new String[prefixCount.size()]));
+                    fine("sentence filtering %s for %s", filtered, prefixCount.keySet());
+                }
+            }
+            else
+            {
+                p.clearWanted();
+            }
+        }
+    }
+    
     @Override
     public void run()
     {
         try
         {
-            NMEAParser parser = NMEAParser.newInstance();
+            if (session == null || sessionAisDispatcher != aisDispatcher || sessionLiveClock != liveClock)
+            {
+                clock = new GPSClock(liveClock);
+                session = new NMEAParserSession(NMEAParser.newInstance(), clock, nmeaDispatcher, aisDispatcher, AISDecoding.Synchronous);
+                sessionAisDispatcher = aisDispatcher;
+                sessionLiveClock = liveClock;
+                setClockSupplier(()->clock);
+            }
+            parser = session.getParser();
+            updateWanted();
             Supplier<InetSocketAddress> origin = ()->null;
             if (in instanceof UnconnectedDatagramChannel)
             {
                 UnconnectedDatagramChannel udc = (UnconnectedDatagramChannel) in;
                 origin = ()->{return udc.getFromAddress();};
             }
-            clock = new GPSClock(liveClock);
-            setClockSupplier(()->clock);
-            parser.parse(in, clock, origin, nmeaDispatcher, aisDispatcher);
+            session.parse(in, origin);
         }
         catch (Exception ex)
         {
@@ -31,7 +31,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.AB);
+        setTalkerId(data, TalkerId.AB);
     }
 
     @Rule(left = "talkerId", value = "'AD'")
@@ -39,7 +39,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.AD);
+        setTalkerId(data, TalkerId.AD);
     }
 
     @Rule(left = "talkerId", value = "'AG'")
@@ -47,7 +47,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.AG);
+        setTalkerId(data, TalkerId.AG);
     }
 
     @Rule(left = "talkerId", value = "'AI'")
@@ -55,7 +55,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.AI);
+        setTalkerId(data, TalkerId.AI);
     }
 
     @Rule(left = "talkerId", value = "'AP'")
@@ -63,7 +63,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.AP);
+        setTalkerId(data, TalkerId.AP);
     }
 
     @Rule(left = "talkerId", value = "'BN'")
@@ -71,7 +71,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.BN);
+        setTalkerId(data, TalkerId.BN);
     }
 
     @Rule(left = "talkerId", value = "'CC'")
@@ -79,7 +79,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.CC);
+        setTalkerId(data, TalkerId.CC);
     }
 
     @Rule(left = "talkerId", value = "'CD'")
@@ -87,7 +87,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.CD);
+        setTalkerId(data, TalkerId.CD);
     }
 
     @Rule(left = "talkerId", value = "'CM'")
@@ -95,7 +95,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.CM);
+        setTalkerId(data, TalkerId.CM);
     }
 
     @Rule(left = "talkerId", value = "'CS'")
@@ -103,7 +103,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.CS);
+        setTalkerId(data, TalkerId.CS);
     }
 
     @Rule(left = "talkerId", value = "'CT'")
@@ -111,7 +111,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.CT);
+        setTalkerId(data, TalkerId.CT);
     }
 
     @Rule(left = "talkerId", value = "'CV'")
@@ -119,7 +119,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.CV);
+        setTalkerId(data, TalkerId.CV);
     }
 
     @Rule(left = "talkerId", value = "'CX'")
@@ -127,7 +127,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.CX);
+        setTalkerId(data, TalkerId.CX);
     }
 
     @Rule(left = "talkerId", value = "'DE'")
@@ -135,7 +135,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.DE);
+        setTalkerId(data, TalkerId.DE);
     }
 
     @Rule(left = "talkerId", value = "'DF'")
@@ -143,7 +143,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.DF);
+        setTalkerId(data, TalkerId.DF);
     }
 
     @Rule(left = "talkerId", value = "'DU'")
@@ -151,7 +151,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.DU);
+        setTalkerId(data, TalkerId.DU);
     }
 
     @Rule(left = "talkerId", value = "'EC'")
@@ -159,7 +159,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.EC);
+        setTalkerId(data, TalkerId.EC);
     }
 
     @Rule(left = "talkerId", value = "'EP'")
@@ -167,7 +167,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.EP);
+        setTalkerId(data, TalkerId.EP);
     }
 
     @Rule(left = "talkerId", value = "'ER'")
@@ -175,7 +175,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.ER);
+        setTalkerId(data, TalkerId.ER);
     }
 
     @Rule(left = "talkerId", value = "'GP'")
@@ -183,7 +183,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.GP);
+        setTalkerId(data, TalkerId.GP);
     }
 
     @Rule(left = "talkerId", value = "'HC'")
@@ -191,7 +191,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.HC);
+        setTalkerId(data, TalkerId.HC);
     }
 
     @Rule(left = "talkerId", value = "'HE'")
@@ -199,7 +199,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.HE);
+        setTalkerId(data, TalkerId.HE);
     }
 
     @Rule(left = "talkerId", value = "'HN'")
@@ -207,7 +207,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.HN);
+        setTalkerId(data, TalkerId.HN);
     }
 
     @Rule(left = "talkerId", value = "'II'")
@@ -215,7 +215,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.II);
+        setTalkerId(data, TalkerId.II);
     }
 
     @Rule(left = "talkerId", value = "'IN'")
@@ -223,7 +223,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.IN);
+        setTalkerId(data, TalkerId.IN);
     }
 
     @Rule(left = "talkerId", value = "'LA'")
@@ -231,7 +231,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.LA);
+        setTalkerId(data, TalkerId.LA);
     }
 
     @Rule(left = "talkerId", value = "'LC'")
@@ -239,7 +239,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.LC);
+        setTalkerId(data, TalkerId.LC);
     }
 
     @Rule(left = "talkerId", value = "'MP'")
@@ -247,7 +247,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.MP);
+        setTalkerId(data, TalkerId.MP);
     }
 
     @Rule(left = "talkerId", value = "'NL'")
@@ -255,7 +255,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.NL);
+        setTalkerId(data, TalkerId.NL);
     }
 
     @Rule(left = "talkerId", value = "'OM'")
@@ -263,7 +263,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.OM);
+        setTalkerId(data, TalkerId.OM);
     }
 
     @Rule(left = "talkerId", value = "'OS'")
@@ -271,7 +271,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.OS);
+        setTalkerId(data, TalkerId.OS);
     }
 
     @Rule(left = "talkerId", value = "'RA'")
@@ -279,7 +279,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.RA);
+        setTalkerId(data, TalkerId.RA);
     }
 
     @Rule(left = "talkerId", value = "'SD'")
@@ -287,7 +287,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.SD);
+        setTalkerId(data, TalkerId.SD);
     }
 
     @Rule(left = "talkerId", value = "'SN'")
@@ -295,7 +295,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.SN);
+        setTalkerId(data, TalkerId.SN);
     }
 
     @Rule(left = "talkerId", value = "'SS'")
@@ -303,7 +303,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.SS);
+        setTalkerId(data, TalkerId.SS);
     }
 
     @Rule(left = "talkerId", value = "'TI'")
@@ -311,7 +311,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.TI);
+        setTalkerId(data, TalkerId.TI);
     }
 
     @Rule(left = "talkerId", value = "'TR'")
@@ -319,7 +319,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.TR);
+        setTalkerId(data, TalkerId.TR);
     }
 
     @Rule(left = "talkerId", value = "'U0'")
@@ -327,7 +327,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.U0);
+        setTalkerId(data, TalkerId.U0);
     }
 
     @Rule(left = "talkerId", value = "'U1'")
@@ -335,7 +335,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.U1);
+        setTalkerId(data, TalkerId.U1);
     }
 
     @Rule(left = "talkerId", value = "'U2'")
@@ -343,7 +343,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.U2);
+        setTalkerId(data, TalkerId.U2);
     }
 
     @Rule(left = "talkerId", value = "'U3'")
@@ -351,7 +351,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.U3);
+        setTalkerId(data, TalkerId.U3);
     }
 
     @Rule(left = "talkerId", value = "'U4'")
@@ -359,7 +359,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.U4);
+        setTalkerId(data, TalkerId.U4);
     }
 
     @Rule(left = "talkerId", value = "'U5'")
@@ -367,7 +367,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.U5);
+        setTalkerId(data, TalkerId.U5);
     }
 
     @Rule(left = "talkerId", value = "'U6'")
@@ -375,7 +375,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.U6);
+        setTalkerId(data, TalkerId.U6);
     }
 
     @Rule(left = "talkerId", value = "'U7'")
@@ -383,7 +383,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.U7);
+        setTalkerId(data, TalkerId.U7);
     }
 
     @Rule(left = "talkerId", value = "'U8'")
@@ -391,7 +391,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.U8);
+        setTalkerId(data, TalkerId.U8);
     }
 
     @Rule(left = "talkerId", value = "'U9'")
@@ -399,7 +399,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.U9);
+        setTalkerId(data, TalkerId.U9);
     }
 
     @Rule(left = "talkerId", value = "'UP'")
@@ -407,7 +407,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.UP);
+        setTalkerId(data, TalkerId.UP);
     }
 
     @Rule(left = "talkerId", value = "'VD'")
@@ -415,7 +415,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.VD);
+        setTalkerId(data, TalkerId.VD);
     }
 
     @Rule(left = "talkerId", value = "'DM'")
@@ -423,7 +423,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.DM);
+        setTalkerId(data, TalkerId.DM);
     }
 
     @Rule(left = "talkerId", value = "'VW'")
@@ -431,7 +431,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.VW);
+        setTalkerId(data, TalkerId.VW);
     }
 
     @Rule(left = "talkerId", value = "'WI'")
@@ -439,7 +439,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.WI);
+        setTalkerId(data, TalkerId.WI);
     }
 
     @Rule(left = "talkerId", value = "'YC'")
@@ -447,7 +447,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.YC);
+        setTalkerId(data, TalkerId.YC);
     }
 
     @Rule(left = "talkerId", value = "'YD'")
@@ -455,7 +455,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.YD);
+        setTalkerId(data, TalkerId.YD);
     }
 
     @Rule(left = "talkerId", value = "'YF'")
@@ -463,7 +463,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.YF);
+        setTalkerId(data, TalkerId.YF);
     }
 
     @Rule(left = "talkerId", value = "'YL'")
@@ -471,7 +471,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.YL);
+        setTalkerId(data, TalkerId.YL);
     }
 
     @Rule(left = "talkerId", value = "'YP'")
@@ -479,7 +479,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.YP);
+        setTalkerId(data, TalkerId.YP);
     }
 
     @Rule(left = "talkerId", value = "'YR'")
@@ -487,7 +487,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.YR);
+        setTalkerId(data, TalkerId.YR);
     }
 
     @Rule(left = "talkerId", value = "'YT'")
@@ -495,7 +495,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.YT);
+        setTalkerId(data, TalkerId.YT);
     }
 
     @Rule(left = "talkerId", value = "'YV'")
@@ -503,7 +503,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.YV);
+        setTalkerId(data, TalkerId.YV);
     }
 
     @Rule(left = "talkerId", value = "'YX'")
@@ -511,7 +511,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.YX);
+        setTalkerId(data, TalkerId.YX);
     }
 
     @Rule(left = "talkerId", value = "'ZA'")
@@ -519,7 +519,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.ZA);
+        setTalkerId(data, TalkerId.ZA);
     }
 
     @Rule(left = "talkerId", value = "'ZC'")
@@ -527,7 +527,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.ZC);
+        setTalkerId(data, TalkerId.ZC);
     }
 
     @Rule(left = "talkerId", value = "'ZQ'")
@@ -535,7 +535,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.ZQ);
+        setTalkerId(data, TalkerId.ZQ);
     }
 
     @Rule(left = "talkerId", value = "'ZV'")
@@ -543,7 +543,7 @@ public class NMEATalkerIds extends NMEASentences
     {
         data.start(null);
         clock.start(null);
-        data.setTalkerId(TalkerId.ZV);
+        setTalkerId(data, TalkerId.ZV);
     }
 
 }
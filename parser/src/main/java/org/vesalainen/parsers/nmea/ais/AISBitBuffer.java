@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.parsers.nmea.ais;
+
+import java.util.Arrays;
+
+/**
+ * AISBitBuffer stores de-armored AIS payload as packed bits. Bits are stored
+ * most significant bit first, so that bit 0 is the first bit of message type.
+ * 
+ * <p>Fields are read with shift and mask operations. Offsets and lengths are
+ * in bits.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public class AISBitBuffer
+{
+    private long[] bits = new long[8];
+    private int length;
+    private final StringBuilder sb = new StringBuilder();
+    /**
+     * Returns true if cc is a valid payload character.
+     * @param cc
+     * @return 
+     */
+    public static boolean isArmored(int cc)
+    {
+        return (cc >= '0' && cc <= 'W') || (cc >= '`' && cc <= 'w');
+    }
+    /**
+     * Appends 6 bits of armored payload character.
+     * @param cc
+     * @return false if cc is not a payload character.
+     */
+    public boolean append(int cc)
+    {
+        if (!isArmored(cc))
+        {
+            return false;
+        }
+        long v = cc - '0';
+        if (v > 40)
+        {
+            v -= 8;
+        }
+        ensureCapacity(length + 6);
+        int index = length >>> 6;
+        int shift = 58 - (length & 63);
+        if (shift >= 0)
+        {
+            bits[index] |= v << shift;
+        }
+        else
+        {
+            bits[index] |= v >>> -shift;
+            bits[index+1] |= v << (64 + shift);
+        }
+        length += 6;
+        return true;
+    }
+    /**
+     * Removes padding bits from the end.
+     * @param padding 
+     */
+    public void removePadding(int padding)
+    {
+        if (padding < 0 || padding > length)
+        {
+            throw new IllegalArgumentException("padding "+padding);
+        }
+        for (int ii=length-padding;ii<length;ii++)
+        {
+            bits[ii >>> 6] &= ~(1L << (63 - (ii & 63)));
+        }
+        length -= padding;
+    }
+    /**
+     * Returns length in bits.
+     * @return 
+     */
+    public int length()
+    {
+        return length;
+    }
+    
+    public void clear()
+    {
+        Arrays.fill(bits, 0, (length + 63) >>> 6, 0L);
+        length = 0;
+    }
+    /**
+     * Returns unsigned value of field. Length must be between 1 - 64.
+     * @param offset
+     * @param len
+     * @return 
+     */
+    public long get(int offset, int len)
+    {
+        if (offset < 0 || len < 1 || len > 64 || offset + len > length)
+        {
+            throw new IndexOutOfBoundsException(offset+"+"+len+" > "+length);
+        }
+        int index = offset >>> 6;
+        int bit = offset & 63;
+        long v = bits[index] << bit;
+        if (bit + len > 64)
+        {
+            v |= bits[index+1] >>> (64 - bit);
+        }
+        return v >>> (64 - len);
+    }
+    public int getUnsigned(int offset, int len)
+    {
+        return (int) get(offset, len);
+    }
+    /**
+     * Returns two's complement value of field.
+     * @param offset
+     * @param len
+     * @return 
+     */
+    public int getSigned(int offset, int len)
+    {
+        return (int) (get(offset, len) << (64 - len) >> (64 - len));
+    }
+    public boolean getBoolean(int offset)
+    {
+        return get(offset, 1) != 0;
+    }
+    /**
+     * Returns 6-bit ASCII string. Decoding stops at '@'. Length is truncated
+     * to multiple of 6. Result is trimmed.
+     * @param offset
+     * @param len
+     * @return 
+     * @see org.vesalainen.parsers.nmea.ais.AISUtil#makeString(java.lang.CharSequence) 
+     */
+    public String getString(int offset, int len)
+    {
+        sb.setLength(0);
+        int end = offset + 6*(len / 6);
+        for (int ii=offset;ii<end;ii+=6)
+        {
+            int cc = (int) get(ii, 6);
+            if (cc == 0)    // terminating '@'
+            {
+                break;
+            }
+            if (cc < 32)
+            {
+                sb.append((char) (cc + '@'));
+            }
+            else
+            {
+                sb.append((char) cc);
+            }
+        }
+        return sb.toString().trim();
+    }
+    
+    private void ensureCapacity(int size)
+    {
+        int words = (size + 63) >>> 6;
+        if (words > bits.length)
+        {
+            bits = Arrays.copyOf(bits, Math.max(words, 2*bits.length));
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder s = new StringBuilder();
+        for (int ii=0;ii<length;ii++)
+        {
+            s.append(get(ii, 1));
+        }
+        return s.toString();
+    }
+    
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.parsers.nmea.ais;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ScatteringByteChannel;
+
+/**
+ * AISBitChannel converts content of AISBitBuffer to binary input for 
+ * AISParser. Content is followed by commit marker and end of input.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ * @see AISChannel
+ */
+public class AISBitChannel implements ScatteringByteChannel
+{
+    private static final byte CommitC = (byte)'C';
+    
+    private AISBitBuffer bits;
+    private int position;
+    private boolean ended;
+    /**
+     * Starts reading bits from given bit offset.
+     * @param bits
+     * @param offset 
+     */
+    public void rewind(AISBitBuffer bits, int offset)
+    {
+        this.bits = bits;
+        this.position = offset;
+        this.ended = false;
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException
+    {
+        int count = 0;
+        int size = bits.length();
+        for (int ii=offset;ii<offset+length;ii++)
+        {
+            ByteBuffer bb = dsts[ii];
+            while (bb.hasRemaining())
+            {
+                if (position < size)
+                {
+                    bb.put(bits.getBoolean(position++) ? (byte)'1' : (byte)'0');
+                }
+                else
+                {
+                    if (ended)
+                    {
+                        return count > 0 ? count : -1;
+                    }
+                    bb.put(CommitC);
+                    ended = true;
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts) throws IOException
+    {
+        return read(dsts, 0, dsts.length);
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException
+    {
+        return (int) read(new ByteBuffer[] {dst});
+    }
+
+    @Override
+    public boolean isOpen()
+    {
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+    }
+    
+}
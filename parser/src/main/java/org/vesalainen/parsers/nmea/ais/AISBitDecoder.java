@@ -0,0 +1,542 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.parsers.nmea.ais;
+
+import org.vesalainen.parsers.mmsi.MMSIType;
+import static org.vesalainen.parsers.mmsi.MMSIType.*;
+
+/**
+ * AISBitDecoder decodes AIS messages from AISBitBuffer by reading fields with
+ * shift and mask operations. AISObserver setters are called with the same
+ * values as AISParser reducers do.
+ * 
+ * <p>Supported message types are 1, 2, 3, 4, 5, 9, 11, 18, 19, 21, 24 and 27.
+ * Message length is checked before any setter is called.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ * @see org.vesalainen.parsers.nmea.ais.AISParser
+ */
+public class AISBitDecoder
+{
+    public static final String UNSUPPORTED = "message type not supported";
+    public static final String WRONG_LENGTH = "wrong message length";
+    private static final MessageTypes[] MESSAGE_TYPES = MessageTypes.values();
+    private static final NavigationStatus[] NAVIGATION_STATUS = NavigationStatus.values();
+    private static final ManeuverIndicator[] MANEUVER_INDICATOR = ManeuverIndicator.values();
+    private static final EPFDFixTypes[] EPFD_FIX_TYPES = EPFDFixTypes.values();
+    private static final CodesForShipType[] CODES_FOR_SHIP_TYPE = CodesForShipType.values();
+    private static final NavaidTypes[] NAVAID_TYPES = NavaidTypes.values();
+    /**
+     * Returns true if message type is supported.
+     * @param messageType
+     * @return 
+     */
+    public static boolean isSupported(int messageType)
+    {
+        switch (messageType)
+        {
+            case 1:
+            case 2:
+            case 3:
+            case 4:
+            case 5:
+            case 9:
+            case 11:
+            case 18:
+            case 19:
+            case 21:
+            case 24:
+            case 27:
+                return true;
+            default:
+                return false;
+        }
+    }
+    /**
+     * Decodes message and sets message type. Doesn't call start, commit or
+     * rollback.
+     * @param bits
+     * @param aisData
+     * @return null if decoded or rollback reason.
+     */
+    public String decode(AISBitBuffer bits, AISObserver aisData)
+    {
+        int length = bits.length();
+        if (length < 38)
+        {
+            return WRONG_LENGTH;
+        }
+        int messageType = bits.getUnsigned(0, 6);
+        switch (messageType)
+        {
+            case 1:
+            case 2:
+            case 3:
+                if (length != 168)
+                {
+                    return WRONG_LENGTH;
+                }
+                commonNavigationBlock(bits, aisData);
+                break;
+            case 4:
+            case 11:
+                if (length != 168)
+                {
+                    return WRONG_LENGTH;
+                }
+                baseStationReport(bits, aisData);
+                break;
+            case 5:
+                if (length != 423 && length != 424)
+                {
+                    return WRONG_LENGTH;
+                }
+                staticAndVoyageRelatedData(bits, aisData);
+                break;
+            case 9:
+                if (length != 168)
+                {
+                    return WRONG_LENGTH;
+                }
+                standardSARAircraftPositionReport(bits, aisData);
+                break;
+            case 18:
+                if (length != 168)
+                {
+                    return WRONG_LENGTH;
+                }
+                standardClassBCSPositionReport(bits, aisData);
+                break;
+            case 19:
+                if (length != 308 && length != 312)
+                {
+                    return WRONG_LENGTH;
+                }
+                extendedClassBCSPositionReport(bits, aisData);
+                break;
+            case 21:
+                if (length < 271 || length > 360)
+                {
+                    return WRONG_LENGTH;
+                }
+                aidToNavigationReport(bits, aisData);
+                break;
+            case 24:
+                switch (bits.getUnsigned(38, 2))
+                {
+                    case 0:
+                        if (length < 160 || length > 168)
+                        {
+                            return WRONG_LENGTH;
+                        }
+                        staticDataReportA(bits, aisData);
+                        break;
+                    case 1:
+                        if (length < 133 || length > 168)
+                        {
+                            return WRONG_LENGTH;
+                        }
+                        staticDataReportB(bits, aisData);
+                        break;
+                    default:
+                        return UNSUPPORTED;
+                }
+                break;
+            case 27:
+                if (length != 95 && length != 96)
+                {
+                    return WRONG_LENGTH;
+                }
+                longRangeAISBroadcastMessage(bits, aisData);
+                break;
+            default:
+                return UNSUPPORTED;
+        }
+        aisData.setMessageType(MESSAGE_TYPES[messageType]);
+        return null;
+    }
+
+    private void commonNavigationBlock(AISBitBuffer bits, AISObserver aisData)
+    {
+        aisData.setRepeatIndicator(bits.getUnsigned(6, 2));
+        aisData.setMmsi(bits.getUnsigned(8, 30));
+        aisData.setNavigationStatus(NAVIGATION_STATUS[bits.getUnsigned(38, 4)]);
+        turn(bits.getSigned(42, 8), aisData);
+        speed(bits.getUnsigned(50, 10), aisData);
+        aisData.setPositionAccuracy(bits.getBoolean(60));
+        longitude(bits.getSigned(61, 28), aisData);
+        latitude(bits.getSigned(89, 27), aisData);
+        course(bits.getUnsigned(116, 12), aisData);
+        heading(bits.getUnsigned(128, 9), aisData);
+        second(bits.getUnsigned(137, 6), aisData);
+        int maneuver = bits.getUnsigned(143, 2);
+        if (maneuver < 3)
+        {
+            aisData.setManeuver(MANEUVER_INDICATOR[maneuver]);
+        }
+        aisData.setRaim(bits.getBoolean(148));
+        aisData.setRadioStatus(bits.getUnsigned(149, 19));
+    }
+
+    private void baseStationReport(AISBitBuffer bits, AISObserver aisData)
+    {
+        aisData.setRepeatIndicator(bits.getUnsigned(6, 2));
+        aisData.setMmsi(bits.getUnsigned(8, 30));
+        int year = bits.getUnsigned(38, 14);
+        if (year != 0)
+        {
+            aisData.setYear(year);
+        }
+        month(bits.getUnsigned(52, 4), aisData);
+        day(bits.getUnsigned(56, 5), aisData);
+        hour(bits.getUnsigned(61, 5), aisData);
+        minute(bits.getUnsigned(66, 6), aisData);
+        second(bits.getUnsigned(72, 6), aisData);
+        aisData.setPositionAccuracy(bits.getBoolean(78));
+        longitude(bits.getSigned(79, 28), aisData);
+        latitude(bits.getSigned(107, 27), aisData);
+        aisData.setEpfd(EPFD_FIX_TYPES[bits.getUnsigned(134, 4)]);
+        aisData.setRaim(bits.getBoolean(148));
+        aisData.setRadioStatus(bits.getUnsigned(149, 19));
+    }
+
+    private void staticAndVoyageRelatedData(AISBitBuffer bits, AISObserver aisData)
+    {
+        aisData.setRepeatIndicator(bits.getUnsigned(6, 2));
+        aisData.setMmsi(bits.getUnsigned(8, 30));
+        aisData.setAisVersion(bits.getUnsigned(38, 2));
+        aisData.setImoNumber(bits.getUnsigned(40, 30));
+        aisData.setCallSign(bits.getString(70, 42));
+        aisData.setVesselName(bits.getString(112, 120));
+        shipType(bits.getUnsigned(232, 8), aisData);
+        dimensions(bits, 240, aisData);
+        aisData.setEpfd(EPFD_FIX_TYPES[bits.getUnsigned(270, 4)]);
+        month(bits.getUnsigned(274, 4), aisData);
+        day(bits.getUnsigned(278, 5), aisData);
+        hour(bits.getUnsigned(283, 5), aisData);
+        minute(bits.getUnsigned(288, 6), aisData);
+        float draught = bits.getUnsigned(294, 8);
+        aisData.setDraught(draught / 10F);
+        aisData.setDestination(bits.getString(302, 120));
+        aisData.setDte(!bits.getBoolean(422));
+    }
+
+    private void standardSARAircraftPositionReport(AISBitBuffer bits, AISObserver aisData)
+    {
+        aisData.setRepeatIndicator(bits.getUnsigned(6, 2));
+        aisData.setMmsi(bits.getUnsigned(8, 30));
+        int alt = bits.getUnsigned(38, 12);
+        if (alt < 4095)
+        {
+            aisData.setAltitude(alt);
+        }
+        int speed = bits.getUnsigned(50, 10);
+        if (speed < 1023)
+        {
+            aisData.setSpeed(speed);
+        }
+        aisData.setPositionAccuracy(bits.getBoolean(60));
+        longitude(bits.getSigned(61, 28), aisData);
+        latitude(bits.getSigned(89, 27), aisData);
+        course(bits.getUnsigned(116, 12), aisData);
+        second(bits.getUnsigned(128, 6), aisData);
+        aisData.setDte(!bits.getBoolean(142));
+        aisData.setAssignedMode(bits.getBoolean(146));
+        aisData.setRaim(bits.getBoolean(147));
+        aisData.setRadioStatus(bits.getUnsigned(148, 20) & 0b1111111111111111111);
+    }
+
+    private void standardClassBCSPositionReport(AISBitBuffer bits, AISObserver aisData)
+    {
+        classBPosition(bits, aisData);
+        aisData.setCsUnit(bits.getBoolean(141));
+        aisData.setDisplay(bits.getBoolean(142));
+        aisData.setDsc(bits.getBoolean(143));
+        aisData.setBand(bits.getBoolean(144));
+        aisData.setMsg22(bits.getBoolean(145));
+        aisData.setAssignedMode(bits.getBoolean(146));
+        aisData.setRaim(bits.getBoolean(147));
+        aisData.setRadioStatus(bits.getUnsigned(148, 20) & 0b1111111111111111111);
+    }
+
+    private void extendedClassBCSPositionReport(AISBitBuffer bits, AISObserver aisData)
+    {
+        classBPosition(bits, aisData);
+        aisData.setVesselName(bits.getString(143, 120));
+        shipType(bits.getUnsigned(263, 8), aisData);
+        dimensions(bits, 271, aisData);
+        aisData.setEpfd(EPFD_FIX_TYPES[bits.getUnsigned(301, 4)]);
+        aisData.setRaim(bits.getBoolean(305));
+        aisData.setDte(!bits.getBoolean(306));
+        aisData.setAssignedMode(bits.getBoolean(307));
+    }
+    /**
+     * Common part of types 18 and 19
+     */
+    private void classBPosition(AISBitBuffer bits, AISObserver aisData)
+    {
+        aisData.setRepeatIndicator(bits.getUnsigned(6, 2));
+        aisData.setMmsi(bits.getUnsigned(8, 30));
+        speed(bits.getUnsigned(46, 10), aisData);
+        aisData.setPositionAccuracy(bits.getBoolean(56));
+        longitude(bits.getSigned(57, 28), aisData);
+        latitude(bits.getSigned(85, 27), aisData);
+        course(bits.getUnsigned(112, 12), aisData);
+        heading(bits.getUnsigned(124, 9), aisData);
+        second(bits.getUnsigned(133, 6), aisData);
+    }
+
+    private void aidToNavigationReport(AISBitBuffer bits, AISObserver aisData)
+    {
+        aisData.setRepeatIndicator(bits.getUnsigned(6, 2));
+        aisData.setMmsi(bits.getUnsigned(8, 30));
+        aisData.setNavaidType(NAVAID_TYPES[bits.getUnsigned(38, 5)]);
+        aisData.setName(bits.getString(43, 120));
+        aisData.setPositionAccuracy(bits.getBoolean(163));
+        longitude(bits.getSigned(164, 28), aisData);
+        latitude(bits.getSigned(192, 27), aisData);
+        dimensions(bits, 219, aisData);
+        aisData.setEpfd(EPFD_FIX_TYPES[bits.getUnsigned(249, 4)]);
+        second(bits.getUnsigned(253, 6), aisData);
+        aisData.setOffPosition(bits.getBoolean(259));
+        aisData.setRaim(bits.getBoolean(268));
+        aisData.setVirtualAid(bits.getBoolean(269));
+        aisData.setAssignedMode(bits.getBoolean(270));
+        int length = bits.length();
+        if (length > 272)
+        {
+            aisData.setNameExtension(bits.getString(272, length - 272));
+        }
+    }
+
+    private void staticDataReportA(AISBitBuffer bits, AISObserver aisData)
+    {
+        aisData.setRepeatIndicator(bits.getUnsigned(6, 2));
+        aisData.setMmsi(bits.getUnsigned(8, 30));
+        aisData.setPartNumber(0);
+        aisData.setVesselName(bits.getString(40, 120));
+    }
+
+    private void staticDataReportB(AISBitBuffer bits, AISObserver aisData)
+    {
+        aisData.setRepeatIndicator(bits.getUnsigned(6, 2));
+        int mmsi = bits.getUnsigned(8, 30);
+        aisData.setMmsi(mmsi);
+        aisData.setPartNumber(1);
+        shipType(bits.getUnsigned(40, 8), aisData);
+        aisData.setVendorId(bits.getString(48, 18));
+        aisData.setUnitModelCode(bits.getUnsigned(66, 4));
+        aisData.setSerialNumber(bits.getUnsigned(70, 20));
+        aisData.setCallSign(bits.getString(90, 42));
+        int len = Math.min(bits.length() - 132, 36);
+        if (MMSIType.getType(mmsi) == CraftAssociatedWithParentShip)
+        {
+            aisData.setMotherShipMMSI((int) bits.get(132, len));
+        }
+        else
+        {
+            if (len >= 30)
+            {
+                dimensions(bits, 132, aisData);
+            }
+        }
+    }
+
+    private void longRangeAISBroadcastMessage(AISBitBuffer bits, AISObserver aisData)
+    {
+        aisData.setRepeatIndicator(bits.getUnsigned(6, 2));
+        aisData.setMmsi(bits.getUnsigned(8, 30));
+        aisData.setPositionAccuracy(bits.getBoolean(38));
+        aisData.setRaim(bits.getBoolean(39));
+        aisData.setNavigationStatus(NAVIGATION_STATUS[bits.getUnsigned(40, 4)]);
+        int lon = bits.getSigned(44, 18);
+        if (lon != 181000)
+        {
+            if (lon <= 180 * 60 * 10 && lon >= -180 * 60 * 10)
+            {
+                float f = lon;
+                aisData.setLongitude(f / 600F);
+            }
+            else
+            {
+                aisData.setError("longitude I4 = " + lon);
+            }
+        }
+        int lat = bits.getSigned(62, 17);
+        if (lat != 91000)
+        {
+            if (lat <= 90 * 60 * 10 && lat >= -90 * 60 * 10)
+            {
+                float f = lat;
+                aisData.setLatitude(f / 600F);
+            }
+            else
+            {
+                aisData.setError("latitude I4 = " + lat);
+            }
+        }
+        int speed = bits.getUnsigned(79, 6);
+        if (speed < 63)
+        {
+            aisData.setSpeed(speed);
+        }
+        int course = bits.getUnsigned(85, 9);
+        if (course < 359)
+        {
+            aisData.setCourse(course);
+        }
+    }
+    /**
+     * Dimensions to bow, stern, port and starboard. 30 bits.
+     */
+    private void dimensions(AISBitBuffer bits, int offset, AISObserver aisData)
+    {
+        aisData.setDimensionToBow(bits.getUnsigned(offset, 9));
+        aisData.setDimensionToStern(bits.getUnsigned(offset + 9, 9));
+        aisData.setDimensionToPort(bits.getUnsigned(offset + 18, 6));
+        aisData.setDimensionToStarboard(bits.getUnsigned(offset + 24, 6));
+    }
+    /**
+     * @see org.vesalainen.parsers.nmea.ais.AISParser#turn_I3(int, org.vesalainen.parsers.nmea.ais.AISObserver) 
+     */
+    private void turn(int turn, AISObserver aisData)
+    {
+        switch (turn)
+        {
+            case 0:
+                aisData.setRateOfTurn(0);
+                break;
+            case 127:
+                aisData.setRateOfTurn(10);
+                break;
+            case -127:
+                aisData.setRateOfTurn(-10);
+                break;
+            case -128:  // 0x80
+                break;
+            default:
+                float f = turn;
+                f = f / 4.733F;
+                aisData.setRateOfTurn(Math.signum(f) * f * f);
+                break;
+        }
+    }
+
+    private void speed(int speed, AISObserver aisData)
+    {
+        if (speed < 1023)
+        {
+            aisData.setSpeed((float)speed/10F);
+        }
+    }
+
+    private void longitude(int lon, AISObserver aisData)
+    {
+        if (lon != 108600000)
+        {
+            if (lon <= 108000000 && lon >= -108000000)
+            {
+                float f = lon;
+                aisData.setLongitude(f / 600000F);
+            }
+            else
+            {
+                aisData.setError("longitude I4 = " + lon);
+            }
+        }
+    }
+
+    private void latitude(int lat, AISObserver aisData)
+    {
+        if (lat != 54600000)
+        {
+            if (lat <= 90 * 60 * 10000 && lat >= -90 * 60 * 10000)
+            {
+                float f = lat;
+                aisData.setLatitude(f / 600000F);
+            }
+            else
+            {
+                aisData.setError("latitude I4 = " + lat);
+            }
+        }
+    }
+
+    private void course(int course, AISObserver aisData)
+    {
+        if (course < 3600)
+        {
+            float f = course;
+            aisData.setCourse(f / 10F);
+        }
+    }
+
+    private void heading(int heading, AISObserver aisData)
+    {
+        if (heading < 360)
+        {
+            aisData.setHeading(heading);
+        }
+    }
+
+    private void second(int second, AISObserver aisData)
+    {
+        if (second < 60)
+        {
+            aisData.setSecond(second);
+        }
+    }
+
+    private void month(int month, AISObserver aisData)
+    {
+        if (month != 0)
+        {
+            aisData.setMonth(month);
+        }
+    }
+
+    private void day(int day, AISObserver aisData)
+    {
+        if (day != 0)
+        {
+            aisData.setDay(day);
+        }
+    }
+
+    private void hour(int hour, AISObserver aisData)
+    {
+        if (hour != 24)
+        {
+            aisData.setHour(hour);
+        }
+    }
+
+    private void minute(int minute, AISObserver aisData)
+    {
+        if (minute != 60)
+        {
+            aisData.setMinute(minute);
+        }
+    }
+
+    private void shipType(int shipType, AISObserver aisData)
+    {
+        if (shipType < CODES_FOR_SHIP_TYPE.length)
+        {
+            aisData.setShipType(CODES_FOR_SHIP_TYPE[shipType]);
+        }
+    }
+}
@@ -36,10 +36,10 @@ public class AISChannel implements ScatteringByteChannel
     private final InputReader in;
     private int cc;
     private int bit;
-    private final AISContext context;
+    private final GrammarAISContext context;
     private boolean underflow;
 
-    AISChannel(InputReader in, AISContext context)
+    AISChannel(InputReader in, GrammarAISContext context)
     {
         this.in = in;
         this.context = context;
@@ -18,106 +18,88 @@
 package org.vesalainen.parsers.nmea.ais;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.concurrent.TimeUnit;
+import java.nio.channels.ScatteringByteChannel;
 import org.vesalainen.parser.util.InputReader;
-import static org.vesalainen.parsers.nmea.ais.ThreadMessage.*;
-import org.vesalainen.util.concurrent.SimpleWorkflow;
 
 /**
+ * AISContext is called from NMEAParser for AIS sentences and from AISParser
+ * for parsed messages. Subclasses decide how and in which thread AIS payload
+ * is decoded.
  * @author Timo Vesalainen
+ * @see GrammarAISContext
+ * @see SyncAISContext
+ * @see BitAISContext
  */
-public class AISContext extends SimpleWorkflow<Integer,ThreadMessage,Void>
+public abstract class AISContext
 {
     
-    private final AISObserver aisData;
+    protected final AISObserver aisData;
     private final AISParser aisParser;
-    private int current;
-    private int numberOfSentences;
-    private int sentenceNumber;
-    private InputReader input;
     private boolean aisMessage;
 
-    public AISContext(AISObserver aisData) throws IOException
+    protected AISContext(AISObserver aisData) throws IOException
     {
-        super(-1, null, 1, 100, TimeUnit.MINUTES);  // one nmea and one ais thread in parallel!
         this.aisData = aisData;
         aisParser = AISParser.newInstance();
     }
-
-    public void startOfSentence(
+    /**
+     * Called after AIS sentence prefix. Payload is at input.
+     * @param input
+     * @param numberOfSentences
+     * @param sentenceNumber
+     * @param sequentialMessageID
+     * @param channel
+     * @throws IOException 
+     */
+    public abstract void startOfSentence(
             InputReader input, 
             int numberOfSentences, 
             int sentenceNumber,
             int sequentialMessageID,
             char channel
-            ) throws IOException
-    {
-        this.input = input;
-        this.aisMessage = true;
-
-        if (sentenceNumber == 1)
-        {
-            if (this.numberOfSentences != 0)
-            {
-                // new message without ending the last
-                switchTo(current, Rollback);    // kill it
-            }
-            this.numberOfSentences = numberOfSentences;
-            this.sentenceNumber = 1;
-            aisData.start(null);
-            switchTo(0, Go);
-        }
-        else
-        {
-            this.sentenceNumber++;
-            if (this.sentenceNumber != sentenceNumber)
-            {
-                if (this.numberOfSentences != 0)
-                {
-                    switchTo(current, Rollback);    // this will kill ais thread
-                }
-                this.numberOfSentences = 0;
-                this.sentenceNumber = 0;
-            }
-            else
-            {
-                switchTo(current, Go);
-            }
-        }
-    }
-    public void setMessageType(int messageType)
-    {
-        this.current = messageType;
-        switchTo(messageType, Go);
-    }
+            ) throws IOException;
+    /**
+     * Called after checksum of AIS sentence.
+     * @param committed
+     * @param reason 
+     */
+    public abstract void afterChecksum(boolean committed, String reason);
+    /**
+     * Called from AISParser when message type is parsed.
+     * @param messageType 
+     */
+    public abstract void setMessageType(int messageType);
+    /**
+     * Returns message type of message being parsed.
+     * @return 
+     */
+    public abstract int getMessageType();
+    /**
+     * Called from AISParser when message is parsed successfully.
+     * @param aisData
+     * @param reason 
+     */
+    public abstract void commitMessage(AISObserver aisData, String reason);
+    /**
+     * Called from AISParser when message is rejected.
+     * @param aisData
+     * @param reason 
+     */
+    public abstract void rollbackMessage(AISObserver aisData, String reason);
 
-    public void afterChecksum(boolean committed, String reason)
+    public abstract void setOwnMessage(boolean b);
+    /**
+     * Forgets incomplete messages before parsing new input.
+     */
+    public void reset()
     {
-        if (this.numberOfSentences != 0)
-        {
-            if (committed)
-            {
-                if (this.numberOfSentences == this.sentenceNumber) // commit to ais
-                {
-                    this.numberOfSentences = 0;
-                    this.sentenceNumber = 0;
-                    switchTo(current, Commit);
-                } // else more sentencies to come
-            }
-            else
-            {
-                this.numberOfSentences = 0;
-                this.sentenceNumber = 0;
-                switchTo(current, Rollback);
-            }
-        }
+        aisMessage = false;
     }
-
-    public void setOwnMessage(boolean b)
+    /**
+     * Called after input has ended. Default does nothing.
+     */
+    public void waitAndStopThreads()
     {
-        aisData.setOwnMessage(b);
     }
 
     public boolean isAisMessage()
@@ -129,58 +111,16 @@ public class AISContext extends SimpleWorkflow<Integer,ThreadMessage,Void>
     {
         this.aisMessage = aisMessage;
     }
-
-    @Override
-    protected Runnable create(Integer key)
+    /**
+     * Parses message content from channel. Message type bits must have been
+     * consumed from the channel. Returns after channel is exhausted.
+     * @param message Message type. 0 parses also message type.
+     * @param channel
+     * @param aisData 
+     */
+    protected void parse(int message, ScatteringByteChannel channel, AISObserver aisData)
     {
-        return new AISThread(key, this);
+        aisParser.parseMessages(message, channel, aisData, this);
     }
 
-    class AISThread implements Runnable
-    {
-        private final int message;
-        private final AISContext context;
-        private final AISChannel channel;
-
-        public AISThread(int message, AISContext context)
-        {
-            this.message = message;
-            this.context = context;
-            this.channel = new AISChannel(input, context);
-        }
-        
-        @Override
-        public void run()
-        {
-            TransactionalAISObserver tao = TransactionalAISObserver.getInstance(aisData);
-            switch (message)
-            {
-                case 0:
-                    aisParser.parse(channel, tao, context);
-                    break;
-                case 1:
-                case 2:
-                case 3:
-                    aisParser.parse123Messages(channel, tao, context);
-                    break;
-                default:
-                    String methodName = "parse"+message+"Messages";
-                    try
-                    {
-                        Method parser = aisParser.getClass().getMethod(methodName, AISChannel.class, AISObserver.class, AISContext.class);
-                        parser.invoke(aisParser, channel, tao, context);
-                    }
-                    catch (NoSuchMethodException  ex)
-                    {
-                        throw new IllegalArgumentException(methodName+" not implemented", ex);
-                    }
-                    catch (SecurityException | IllegalAccessException | IllegalArgumentException | InvocationTargetException ex)
-                    {
-                        throw new IllegalArgumentException(ex);
-                    }
-                    break;
-            }
-        }
-
-    }
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.parsers.nmea.ais;
+
+/**
+ * Selects how AIS payload is decoded.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public enum AISDecoding
+{
+    /**
+     * AIS payload is expanded to bits and parsed with AISParser grammar in
+     * a separate thread. Multi-sentence messages are reassembled and parsed
+     * as in Synchronous. All message types are supported.
+     * @see GrammarAISContext
+     */
+    Grammar,
+    /**
+     * AIS payload of all sentences is collected to AISBitBuffer in NMEA 
+     * parser thread and parsed with AISParser grammar in the same thread
+     * after checksum of the last sentence. All message types are supported.
+     * @see SyncAISContext
+     */
+    Synchronous,
+    /**
+     * As Synchronous but the most common message types are decoded with 
+     * AISBitDecoder.
+     * @see AISBitDecoder#isSupported(int) 
+     */
+    BitPacked
+}
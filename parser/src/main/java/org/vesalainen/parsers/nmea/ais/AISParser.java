@@ -17,6 +17,7 @@
 package org.vesalainen.parsers.nmea.ais;
 
 import java.io.IOException;
+import java.nio.channels.ScatteringByteChannel;
 import java.util.logging.Level;
 import org.vesalainen.parser.GenClassFactory;
 import org.vesalainen.parser.ParserConstants;
@@ -35,7 +36,6 @@ import org.vesalainen.parser.util.InputReader;
 import org.vesalainen.parsers.mmsi.MMSIType;
 import static org.vesalainen.parsers.mmsi.MMSIType.*;
 import org.vesalainen.regex.SyntaxErrorException;
-import org.vesalainen.util.concurrent.SimpleWorkflow.ContextAccess;
 import org.vesalainen.util.concurrent.ThreadStoppedException;
 import org.vesalainen.util.logging.JavaLogging;
 
@@ -691,120 +691,224 @@ protected void duration_8(int arg, @ParserContext("aisData") AISObserver aisData
     {
         return (AISParser) GenClassFactory.getGenInstance(AISParser.class);
     }
+    /**
+     * Returns true if parseMessages has grammar for message type.
+     * @param message
+     * @return 
+     */
+    public static boolean isParsed(int message)
+    {
+        switch (message)
+        {
+            case 13:
+            case 25:
+            case 26:
+                return false;
+            default:
+                return message >= 1 && message <= 27;
+        }
+    }
+    /**
+     * Parses messages of given type. Dispatch is a switch on message type 
+     * instead of reflective method lookup.
+     * @param message Message type. 0 parses also message type.
+     * @param channel
+     * @param aisData
+     * @param aisContext 
+     */
+    public void parseMessages(int message, ScatteringByteChannel channel, AISObserver aisData, AISContext aisContext)
+    {
+        switch (message)
+        {
+            case 0:
+                parse(channel, aisData, aisContext);
+                break;
+            case 1:
+            case 2:
+            case 3:
+                parse123Messages(channel, aisData, aisContext);
+                break;
+            case 4:
+                parse4Messages(channel, aisData, aisContext);
+                break;
+            case 5:
+                parse5Messages(channel, aisData, aisContext);
+                break;
+            case 6:
+                parse6Messages(channel, aisData, aisContext);
+                break;
+            case 7:
+                parse7Messages(channel, aisData, aisContext);
+                break;
+            case 8:
+                parse8Messages(channel, aisData, aisContext);
+                break;
+            case 9:
+                parse9Messages(channel, aisData, aisContext);
+                break;
+            case 10:
+                parse10Messages(channel, aisData, aisContext);
+                break;
+            case 11:
+                parse11Messages(channel, aisData, aisContext);
+                break;
+            case 12:
+                parse12Messages(channel, aisData, aisContext);
+                break;
+            case 14:
+                parse14Messages(channel, aisData, aisContext);
+                break;
+            case 15:
+                parse15Messages(channel, aisData, aisContext);
+                break;
+            case 16:
+                parse16Messages(channel, aisData, aisContext);
+                break;
+            case 17:
+                parse17Messages(channel, aisData, aisContext);
+                break;
+            case 18:
+                parse18Messages(channel, aisData, aisContext);
+                break;
+            case 19:
+                parse19Messages(channel, aisData, aisContext);
+                break;
+            case 20:
+                parse20Messages(channel, aisData, aisContext);
+                break;
+            case 21:
+                parse21Messages(channel, aisData, aisContext);
+                break;
+            case 22:
+                parse22Messages(channel, aisData, aisContext);
+                break;
+            case 23:
+                parse23Messages(channel, aisData, aisContext);
+                break;
+            case 24:
+                parse24Messages(channel, aisData, aisContext);
+                break;
+            case 27:
+                parse27Messages(channel, aisData, aisContext);
+                break;
+            default:
+                throw new IllegalArgumentException("parse"+message+"Messages not implemented");
+        }
+    }
     @ParseMethod(start = "messages", size=6, charSet = "US-ASCII", features={WideIndex})
     protected abstract void parse(
-            AISChannel channel,
+            ScatteringByteChannel channel,
             @ParserContext("aisData") AISObserver aisData,
             @ParserContext("aisContext") AISContext aisContext) throws ThreadStoppedException;
 
     @ParseMethod(start = "1-3Messages", size=168, charSet = "US-ASCII", features={WideIndex})
     protected abstract void parse123Messages(
-            AISChannel channel,
+            ScatteringByteChannel channel,
             @ParserContext("aisData") AISObserver aisData,
             @ParserContext("aisContext") AISContext aisContext) throws ThreadStoppedException;
     @ParseMethod(start = "4Messages", size=168, charSet = "US-ASCII", features={WideIndex})
     protected abstract void parse4Messages(
-            AISChannel channel,
+            ScatteringByteChannel channel,
             @ParserContext("aisData") AISObserver aisData,
             @ParserContext("aisContext") AISContext aisContext) throws ThreadStoppedException;
     @ParseMethod(start = "5Messages", size=422, charSet = "US-ASCII", features={WideIndex})
     protected abstract void parse5Messages(
-            AISChannel channel,
+            ScatteringByteChannel channel,
             @ParserContext("aisData") AISObserver aisData,
             @ParserContext("aisContext") AISContext aisContext) throws ThreadStoppedException;
     @ParseMethod(start = "6Messages", size=1008, charSet = "US-ASCII", features={WideIndex})
     protected abstract void parse6Messages(
-            AISChannel channel,
+            ScatteringByteChannel channel,
             @ParserContext("aisData") AISObserver aisData,
             @ParserContext("aisContext") AISContext aisContext) throws ThreadStoppedException;
     @ParseMethod(start = "7Messages", size=168, charSet = "US-ASCII", features={WideIndex})
     protected abstract void parse7Messages(
-            AISChannel channel,
+            ScatteringByteChannel channel,
             @ParserContext("aisData") AISObserver aisData,
             @ParserContext("aisContext") AISContext aisContext) throws ThreadStoppedException;
     @ParseMethod(start = "8Messages", size=1008, charSet = "US-ASCII", features={WideIndex})
     protected abstract void parse8Messages(
-            AISChannel channel,
+            ScatteringByteChannel channel,
             @ParserContext("aisData") AISObserver aisData,
             @ParserContext("aisContext") AISContext aisContext) throws ThreadStoppedException;
     @ParseMethod(start = "9Messages", size=168, charSet = "US-ASCII", features={WideIndex})
     protected abstract void parse9Messages(
-            AISChannel channel,
+            ScatteringByteChannel channel,
             @ParserContext("aisData") AISObserver aisData,
             @ParserContext("aisContext") AISContext aisContext) throws ThreadStoppedException;
     @ParseMethod(start = "10Messages", size=72, charSet = "US-ASCII", features={WideIndex})
     protected abstract void parse10Messages(
-            AISChannel channel,
+            ScatteringByteChannel channel,
             @ParserContext("aisData") AISObserver aisData,
             @ParserContext("aisContext") AISContext aisContext) throws ThreadStoppedException;
     @ParseMethod(start = "11Messages", size=168, charSet = "US-ASCII", features={WideIndex})
     protected abstract void parse11Messages(
-            AISChannel channel,
+            ScatteringByteChannel channel,
             @ParserContext("aisData") AISObserver aisData,
             @ParserContext("aisContext") AISContext aisContext) throws ThreadStoppedException;
     @ParseMethod(start = "12Messages", size=1008, charSet = "US-ASCII", features={WideIndex})
     protected abstract void parse12Messages(
-            AISChannel channel,
+            ScatteringByteChannel channel,
             @ParserContext("aisData") AISObserver aisData,
             @ParserContext("aisContext") AISContext aisContext) throws ThreadStoppedException;
     @ParseMethod(start = "14Messages", size=1008, charSet = "US-ASCII", features={WideIndex})
     protected abstract void parse14Messages(
-            AISChannel channel,
+            ScatteringByteChannel channel,
             @ParserContext("aisData") AISObserver aisData,
             @ParserContext("aisContext") AISContext aisContext) throws ThreadStoppedException;
     @ParseMethod(start = "15Messages", size=160, charSet = "US-ASCII", features={WideIndex})
     protected abstract void parse15Messages(
-            AISChannel channel,
+            ScatteringByteChannel channel,
             @ParserContext("aisData") AISObserver aisData,
             @ParserContext("aisContext") AISContext aisContext) throws ThreadStoppedException;
     @ParseMethod(start = "16Messages", size=144, charSet = "US-ASCII", features={WideIndex})
     protected abstract void parse16Messages(
-            AISChannel channel,
+            ScatteringByteChannel channel,
             @ParserContext("aisData") AISObserver aisData,
             @ParserContext("aisContext") AISContext aisContext) throws ThreadStoppedException;
     @ParseMethod(start = "17Messages", size=816, charSet = "US-ASCII", features={WideIndex})
     protected abstract void parse17Messages(
-            AISChannel channel,
+            ScatteringByteChannel channel,
             @ParserContext("aisData") AISObserver aisData,
             @ParserContext("aisContext") AISContext aisContext) throws ThreadStoppedException;
     @ParseMethod(start = "18Messages", size=168, charSet = "US-ASCII", features={WideIndex})
     protected abstract void parse18Messages(
-            AISChannel channel,
+            ScatteringByteChannel channel,
             @ParserContext("aisData") AISObserver aisData,
             @ParserContext("aisContext") AISContext aisContext) throws ThreadStoppedException;
     @ParseMethod(start = "19Messages", size=312, charSet = "US-ASCII", features={WideIndex})
     protected abstract void parse19Messages(
-            AISChannel channel,
+            ScatteringByteChannel channel,
             @ParserContext("aisData") AISObserver aisData,
             @ParserContext("aisContext") AISContext aisContext) throws ThreadStoppedException;
     @ParseMethod(start = "20Messages", size=160, charSet = "US-ASCII", features={WideIndex})
     protected abstract void parse20Messages(
-            AISChannel channel,
+            ScatteringByteChannel channel,
             @ParserContext("aisData") AISObserver aisData,
             @ParserContext("aisContext") AISContext aisContext) throws ThreadStoppedException;
     @ParseMethod(start = "21Messages", size=360, charSet = "US-ASCII", features={WideIndex})
     protected abstract void parse21Messages(
-            AISChannel channel,
+            ScatteringByteChannel channel,
             @ParserContext("aisData") AISObserver aisData,
             @ParserContext("aisContext") AISContext aisContext) throws ThreadStoppedException;
     @ParseMethod(start = "22Messages", size=168, charSet = "US-ASCII", features={WideIndex})
     protected abstract void parse22Messages(
-            AISChannel channel,
+            ScatteringByteChannel channel,
             @ParserContext("aisData") AISObserver aisData,
             @ParserContext("aisContext") AISContext aisContext) throws ThreadStoppedException;
     @ParseMethod(start = "23Messages", size=160, charSet = "US-ASCII", features={WideIndex})
     protected abstract void parse23Messages(
-            AISChannel channel,
+            ScatteringByteChannel channel,
             @ParserContext("aisData") AISObserver aisData,
             @ParserContext("aisContext") AISContext aisContext) throws ThreadStoppedException;
     @ParseMethod(start = "24Messages", size=168, charSet = "US-ASCII", features={WideIndex})
     protected abstract void parse24Messages(
-            AISChannel channel,
+            ScatteringByteChannel channel,
             @ParserContext("aisData") AISObserver aisData,
             @ParserContext("aisContext") AISContext aisContext) throws ThreadStoppedException;
     @ParseMethod(start = "27Messages", size=168, charSet = "US-ASCII", features={WideIndex})
     protected abstract void parse27Messages(
-            AISChannel channel,
+            ScatteringByteChannel channel,
             @ParserContext("aisData") AISObserver aisData,
             @ParserContext("aisContext") AISContext aisContext) throws ThreadStoppedException;
 
@@ -828,7 +932,7 @@ protected void duration_8(int arg, @ParserContext("aisData") AISObserver aisData
         String input = reader.getInput();
         sb.append(input);
         sb.append('^');
-        int myKey = aisContext.getCurrentKey();
+        int myKey = aisContext.getMessageType();
         if (myKey == 0)
         {
             for (int ii=input.length();ii<6;ii++)
@@ -863,33 +967,13 @@ protected void duration_8(int arg, @ParserContext("aisData") AISObserver aisData
         return cc == '0' || cc == '1';
     }
 
-    private void commit(final AISContext aisContext, final AISObserver aisData, final String comment)
+    private void commit(AISContext aisContext, AISObserver aisData, String comment)
     {
-        ContextAccess<Void,Void> ca = new ContextAccess<Void,Void>() 
-        {
-            @Override
-            public Void access(Void context)
-            {
-                Integer currentKey = aisContext.getCurrentKey();
-                aisData.setMessageType(MessageTypes.values()[currentKey]);
-                aisData.commit(comment);
-                return null;
-            }
-        };
-        aisContext.accessContext(ca);
+        aisContext.commitMessage(aisData, comment);
     }
-    private void rollback(AISContext aisContext, final AISObserver aisData, final String comment)
+    private void rollback(AISContext aisContext, AISObserver aisData, String comment)
     {
-        ContextAccess<Void,Void> ca = new ContextAccess<Void,Void>() 
-        {
-            @Override
-            public Void access(Void context)
-            {
-                aisData.rollback(comment);
-                return null;
-            }
-        };
-        aisContext.accessContext(ca);
+        aisContext.rollbackMessage(aisData, comment);
     }
     protected void type(
             int messageType, 
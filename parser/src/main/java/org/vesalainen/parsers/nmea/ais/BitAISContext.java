@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.parsers.nmea.ais;
+
+import java.io.IOException;
+
+/**
+ * BitAISContext decodes the most common AIS message types with 
+ * AISBitDecoder. Other message types are parsed with AISParser as in
+ * SyncAISContext.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ * @see AISDecoding#BitPacked
+ * @see AISBitDecoder#isSupported(int) 
+ */
+public class BitAISContext extends SyncAISContext
+{
+    private final AISBitDecoder decoder = new AISBitDecoder();
+
+    public BitAISContext(AISObserver aisData) throws IOException
+    {
+        super(aisData);
+    }
+
+    /**
+     * Decodes complete message and commits or rollbacks aisData. Runtime 
+     * exception while decoding rollbacks aisData.
+     * @param bits 
+     */
+    @Override
+    protected void decode(AISBitBuffer bits)
+    {
+        if (bits.length() >= 6 && AISBitDecoder.isSupported(bits.getUnsigned(0, 6)))
+        {
+            String reason;
+            try
+            {
+                reason = decoder.decode(bits, aisData);
+            }
+            catch (RuntimeException ex)
+            {
+                reason = ex.toString();
+            }
+            if (reason == null)
+            {
+                aisData.commit("Commit");
+            }
+            else
+            {
+                aisData.rollback(reason);
+            }
+        }
+        else
+        {
+            super.decode(bits);
+        }
+    }
+
+}
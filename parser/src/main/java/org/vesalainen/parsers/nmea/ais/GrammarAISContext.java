@@ -0,0 +1,271 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.parsers.nmea.ais;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.vesalainen.parser.util.InputReader;
+import static org.vesalainen.parsers.nmea.ais.ThreadMessage.*;
+import org.vesalainen.util.concurrent.SimpleWorkflow;
+import org.vesalainen.util.concurrent.SimpleWorkflow.ContextAccess;
+
+/**
+ * GrammarAISContext parses single sentence messages in AIS threads directly 
+ * from NMEA input. Multi-sentence messages are reassembled by SyncAISContext
+ * so that interleaved messages from different channels or with different 
+ * sequential message id are completed.
+ * @author Timo Vesalainen
+ * @see AISDecoding#Grammar
+ */
+public class GrammarAISContext extends AISContext
+{
+    private final Workflow workflow = new Workflow();
+    private int current;
+    private int numberOfSentences;
+    private int sentenceNumber;
+    private InputReader input;
+    private boolean ownMessage;
+    private SyncAISContext fragments;
+    private boolean buffered;
+
+    public GrammarAISContext(AISObserver aisData) throws IOException
+    {
+        super(aisData);
+    }
+
+    @Override
+    public void startOfSentence(
+            InputReader input, 
+            int numberOfSentences, 
+            int sentenceNumber,
+            int sequentialMessageID,
+            char channel
+            ) throws IOException
+    {
+        this.input = input;
+        setAisMessage(true);
+        if (numberOfSentences > 1)
+        {
+            if (fragments == null)
+            {
+                fragments = new SyncAISContext(aisData);
+            }
+            buffered = true;
+            fragments.setOwnMessage(ownMessage);
+            fragments.startOfSentence(input, numberOfSentences, sentenceNumber, sequentialMessageID, channel);
+            return;
+        }
+        buffered = false;
+
+        if (sentenceNumber == 1)
+        {
+            if (this.numberOfSentences != 0)
+            {
+                // new message without ending the last
+                workflow.switchTo(current, Rollback);    // kill it
+            }
+            this.numberOfSentences = numberOfSentences;
+            this.sentenceNumber = 1;
+            aisData.start(null);
+            workflow.switchTo(0, Go);
+        }
+        else
+        {
+            this.sentenceNumber++;
+            if (this.sentenceNumber != sentenceNumber)
+            {
+                if (this.numberOfSentences != 0)
+                {
+                    workflow.switchTo(current, Rollback);    // this will kill ais thread
+                }
+                this.numberOfSentences = 0;
+                this.sentenceNumber = 0;
+            }
+            else
+            {
+                workflow.switchTo(current, Go);
+            }
+        }
+    }
+    /**
+     * Forgets incomplete multi-sentence message before parsing new input. 
+     * Threads must be stopped.
+     */
+    @Override
+    public void reset()
+    {
+        super.reset();
+        numberOfSentences = 0;
+        sentenceNumber = 0;
+        buffered = false;
+        if (fragments != null)
+        {
+            fragments.reset();
+        }
+    }
+    @Override
+    public void setMessageType(int messageType)
+    {
+        this.current = messageType;
+        workflow.switchTo(messageType, Go);
+    }
+
+    @Override
+    public void afterChecksum(boolean committed, String reason)
+    {
+        if (buffered)
+        {
+            buffered = false;
+            fragments.afterChecksum(committed, reason);
+            return;
+        }
+        if (this.numberOfSentences != 0)
+        {
+            if (committed)
+            {
+                if (this.numberOfSentences == this.sentenceNumber) // commit to ais
+                {
+                    this.numberOfSentences = 0;
+                    this.sentenceNumber = 0;
+                    workflow.switchTo(current, Commit);
+                } // else more sentencies to come
+            }
+            else
+            {
+                this.numberOfSentences = 0;
+                this.sentenceNumber = 0;
+                workflow.switchTo(current, Rollback);
+            }
+        }
+    }
+
+    @Override
+    public void setOwnMessage(boolean b)
+    {
+        ownMessage = b;
+        aisData.setOwnMessage(b);
+    }
+
+    /**
+     * Returns message type of current AIS thread. 0 is for the thread which
+     * parses the message type.
+     * @return 
+     */
+    @Override
+    public int getMessageType()
+    {
+        return workflow.getCurrentKey();
+    }
+    /**
+     * Called from AISParser when message is parsed successfully.
+     * @param aisData
+     * @param reason 
+     */
+    @Override
+    public void commitMessage(AISObserver aisData, String reason)
+    {
+        ContextAccess<Void,Void> ca = new ContextAccess<Void,Void>() 
+        {
+            @Override
+            public Void access(Void context)
+            {
+                Integer currentKey = workflow.getCurrentKey();
+                aisData.setMessageType(MessageTypes.values()[currentKey]);
+                aisData.commit(reason);
+                return null;
+            }
+        };
+        workflow.accessContext(ca);
+    }
+    /**
+     * Called from AISParser when message is rejected.
+     * @param aisData
+     * @param reason 
+     */
+    @Override
+    public void rollbackMessage(AISObserver aisData, String reason)
+    {
+        ContextAccess<Void,Void> ca = new ContextAccess<Void,Void>() 
+        {
+            @Override
+            public Void access(Void context)
+            {
+                aisData.rollback(reason);
+                return null;
+            }
+        };
+        workflow.accessContext(ca);
+    }
+
+    @Override
+    public void waitAndStopThreads()
+    {
+        workflow.waitAndStopThreads();
+    }
+    /**
+     * Waits for nmea thread. Called from AIS thread.
+     * @return 
+     */
+    ThreadMessage join()
+    {
+        return workflow.join();
+    }
+    /**
+     * Lets other thread run. Called from AIS thread.
+     * @param key
+     * @param msg 
+     */
+    void fork(int key, ThreadMessage msg)
+    {
+        workflow.fork(key, msg);
+    }
+
+    private class Workflow extends SimpleWorkflow<Integer,ThreadMessage,Void>
+    {
+        public Workflow()
+        {
+            super(-1, null, 1, 100, TimeUnit.MINUTES);  // one nmea and one ais thread in parallel!
+        }
+
+        @Override
+        protected Runnable create(Integer key)
+        {
+            return new AISThread(key);
+        }
+        
+    }
+
+    private class AISThread implements Runnable
+    {
+        private final int message;
+        private final AISChannel channel;
+
+        public AISThread(int message)
+        {
+            this.message = message;
+            this.channel = new AISChannel(input, GrammarAISContext.this);
+        }
+        
+        @Override
+        public void run()
+        {
+            TransactionalAISObserver tao = TransactionalAISObserver.getInstance(aisData);
+            parse(message, channel, tao);
+        }
+
+    }
+}
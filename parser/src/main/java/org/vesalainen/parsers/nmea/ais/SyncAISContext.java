@@ -0,0 +1,422 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.parsers.nmea.ais;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.vesalainen.parser.util.InputReader;
+
+/**
+ * SyncAISContext collects AIS payload of all sentences of a message into 
+ * AISBitBuffer in NMEA parser thread. When the last sentence has passed 
+ * checksum the message is parsed with AISParser in the same thread. No AIS 
+ * threads are started.
+ * 
+ * <p>Multi-sentence messages are reassembled in a bounded table of slots 
+ * keyed by channel and sequential message id. Messages from different 
+ * channels or with different sequential message id can interleave. Sentences
+ * of one message must arrive in order. Incomplete message is rolled back when
+ * it expires, when its slot is needed for a newer message or when a sentence
+ * arrives out of order.
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ * @see AISDecoding#Synchronous
+ */
+public class SyncAISContext extends AISContext
+{
+    public static final int DEFAULT_SLOTS = 8;
+    public static final long DEFAULT_EXPIRE_MILLIS = 5000;
+    private static final MessageTypes[] MESSAGE_TYPES = MessageTypes.values();
+    private static final RollbackException ROLLBACK = new RollbackException();
+    private final Fragments single = new Fragments();
+    private final Fragments[] slots;
+    private final long expireNanos;
+    private final LongSupplier nanoTime;
+    private final AISBitChannel bitChannel = new AISBitChannel();
+    private final TransactionalAISObserver tao;
+    private Fragments current;
+    private boolean ownMessage;
+    private int messageType;
+
+    public SyncAISContext(AISObserver aisData) throws IOException
+    {
+        this(aisData, DEFAULT_SLOTS, DEFAULT_EXPIRE_MILLIS);
+    }
+    /**
+     * Creates SyncAISContext
+     * @param aisData
+     * @param slots Maximum number of incomplete multi-sentence messages.
+     * @param expireMillis Time after first sentence when incomplete message
+     * is rolled back.
+     * @throws IOException 
+     */
+    public SyncAISContext(AISObserver aisData, int slots, long expireMillis) throws IOException
+    {
+        this(aisData, slots, expireMillis, System::nanoTime);
+    }
+    /**
+     * Creates SyncAISContext
+     * @param aisData
+     * @param slots Maximum number of incomplete multi-sentence messages.
+     * @param expireMillis Time after first sentence when incomplete message
+     * is rolled back.
+     * @param nanoTime Monotonic time source in nanoseconds.
+     * @throws IOException 
+     */
+    public SyncAISContext(AISObserver aisData, int slots, long expireMillis, LongSupplier nanoTime) throws IOException
+    {
+        super(aisData);
+        if (slots < 1)
+        {
+            throw new IllegalArgumentException("slots "+slots);
+        }
+        this.tao = TransactionalAISObserver.getInstance(aisData);
+        this.slots = new Fragments[slots];
+        for (int ii=0;ii<slots;ii++)
+        {
+            this.slots[ii] = new Fragments();
+        }
+        this.expireNanos = TimeUnit.MILLISECONDS.toNanos(expireMillis);
+        this.nanoTime = nanoTime;
+    }
+
+    @Override
+    public void startOfSentence(
+            InputReader input, 
+            int numberOfSentences, 
+            int sentenceNumber, 
+            int sequentialMessageID, 
+            char channel
+            ) throws IOException
+    {
+        setAisMessage(true);
+        current = null;
+        if (numberOfSentences == 1)
+        {
+            if (sentenceNumber == 1)
+            {
+                single.start(1, sequentialMessageID, channel, 0);
+                current = single;
+                readPayload(input, single);
+            }
+        }
+        else
+        {
+            long now = nanoTime.getAsLong();
+            expire(now);
+            Fragments fragments = find(sequentialMessageID, channel);
+            if (sentenceNumber == 1)
+            {
+                if (fragments != null)
+                {
+                    // new message without ending the last
+                    discard(fragments, "Rollback");
+                }
+                else
+                {
+                    fragments = freeSlot();
+                }
+                fragments.start(numberOfSentences, sequentialMessageID, channel, now);
+                current = fragments;
+                readPayload(input, fragments);
+            }
+            else
+            {
+                if (fragments != null)
+                {
+                    if (
+                            fragments.numberOfSentences == numberOfSentences &&
+                            fragments.sentenceNumber + 1 == sentenceNumber
+                            )
+                    {
+                        fragments.sentenceNumber = sentenceNumber;
+                        current = fragments;
+                        readPayload(input, fragments);
+                    }
+                    else
+                    {
+                        discard(fragments, "Rollback");
+                    }
+                }
+            }
+        }
+    }
+    /**
+     * Rolls back incomplete multi-sentence messages.
+     */
+    @Override
+    public void reset()
+    {
+        super.reset();
+        current = null;
+        for (Fragments fragments : slots)
+        {
+            if (fragments.numberOfSentences != 0)
+            {
+                discard(fragments, "reset");
+            }
+        }
+    }
+    private Fragments find(int sequentialMessageID, char channel)
+    {
+        for (Fragments fragments : slots)
+        {
+            if (
+                    fragments.numberOfSentences != 0 && 
+                    fragments.sequentialMessageID == sequentialMessageID &&
+                    fragments.channel == channel
+                    )
+            {
+                return fragments;
+            }
+        }
+        return null;
+    }
+    /**
+     * Returns free slot. If all slots are used the oldest is rolled back.
+     * @return 
+     */
+    private Fragments freeSlot()
+    {
+        Fragments oldest = slots[0];
+        for (Fragments fragments : slots)
+        {
+            if (fragments.numberOfSentences == 0)
+            {
+                return fragments;
+            }
+            if (fragments.time - oldest.time < 0)
+            {
+                oldest = fragments;
+            }
+        }
+        discard(oldest, "no free slot");
+        return oldest;
+    }
+    private void expire(long now)
+    {
+        for (Fragments fragments : slots)
+        {
+            if (fragments.numberOfSentences != 0 && now - fragments.time > expireNanos)
+            {
+                discard(fragments, "expired");
+            }
+        }
+    }
+    private void discard(Fragments fragments, String reason)
+    {
+        fragments.release();
+        aisData.start(null);
+        aisData.rollback(reason);
+    }
+    /**
+     * Reads payload and padding. Payload is not left for NMEA grammar. If 
+     * padding is missing reading stops before it so that NMEA grammar sees
+     * the rest of the sentence.
+     * @param input
+     * @throws IOException 
+     */
+    private void readPayload(InputReader input, Fragments fragments) throws IOException
+    {
+        AISBitBuffer bits = fragments.bits;
+        int cc = input.read();
+        while (bits.append(cc))
+        {
+            cc = input.read();
+        }
+        if (cc == ',')
+        {
+            int p = input.read();
+            if (p >= '0' && p <= '5' && p - '0' <= bits.length())
+            {
+                bits.removePadding(p - '0');
+            }
+            else
+            {
+                if (p != -1)
+                {
+                    input.unread();
+                }
+                fragments.error = "expected padding, got "+(char)p;
+            }
+        }
+        else
+        {
+            if (cc != -1)
+            {
+                input.unread();
+            }
+            fragments.error = "expected ',' got '"+(char)cc+"'";
+        }
+    }
+
+    @Override
+    public void afterChecksum(boolean committed, String reason)
+    {
+        Fragments fragments = current;
+        current = null;
+        if (fragments != null && fragments.numberOfSentences != 0)
+        {
+            if (committed)
+            {
+                if (fragments.numberOfSentences == fragments.sentenceNumber)
+                {
+                    fragments.release();
+                    aisData.start(null);
+                    aisData.setOwnMessage(ownMessage);
+                    if (fragments.error == null)
+                    {
+                        decode(fragments.bits);
+                    }
+                    else
+                    {
+                        aisData.rollback(fragments.error);
+                    }
+                } // else more sentencies to come
+            }
+            else
+            {
+                discard(fragments, reason);
+            }
+        }
+    }
+
+    @Override
+    public void setOwnMessage(boolean b)
+    {
+        this.ownMessage = b;
+    }
+    /**
+     * Decodes complete message and commits or rollbacks aisData. aisData is
+     * started.
+     * @param bits 
+     */
+    protected void decode(AISBitBuffer bits)
+    {
+        if (bits.length() < 6)
+        {
+            aisData.rollback("message too short");
+            return;
+        }
+        messageType = bits.getUnsigned(0, 6);
+        if (!AISParser.isParsed(messageType))
+        {
+            aisData.rollback("message type "+messageType+" not supported");
+            return;
+        }
+        bitChannel.rewind(bits, 6);
+        try
+        {
+            parse(messageType, bitChannel, tao);
+        }
+        catch (RuntimeException ex)
+        {
+            if (!isRollback(ex))
+            {
+                tao.rollback(ex.toString());
+            }
+        }
+    }
+    private static boolean isRollback(Throwable thr)
+    {
+        while (thr != null)
+        {
+            if (thr == ROLLBACK)
+            {
+                return true;
+            }
+            thr = thr.getCause();
+        }
+        return false;
+    }
+
+    @Override
+    public int getMessageType()
+    {
+        return messageType;
+    }
+
+    @Override
+    public void commitMessage(AISObserver aisData, String reason)
+    {
+        aisData.setMessageType(MESSAGE_TYPES[messageType]);
+        aisData.commit(reason);
+    }
+    /**
+     * Rollbacks aisData and stops parsing of current message.
+     * @param aisData
+     * @param reason 
+     */
+    @Override
+    public void rollbackMessage(AISObserver aisData, String reason)
+    {
+        aisData.rollback(reason);
+        throw ROLLBACK;
+    }
+
+    /**
+     * Message type is known before parsing. This is called only if message 
+     * type 0 grammar is used.
+     * @param messageType 
+     */
+    @Override
+    public void setMessageType(int messageType)
+    {
+        this.messageType = messageType;
+    }
+    /**
+     * Sentences of one message
+     */
+    private static class Fragments
+    {
+        private final AISBitBuffer bits = new AISBitBuffer();
+        private int numberOfSentences;
+        private int sentenceNumber;
+        private int sequentialMessageID;
+        private char channel;
+        private long time;
+        private String error;
+
+        private void start(int numberOfSentences, int sequentialMessageID, char channel, long time)
+        {
+            this.numberOfSentences = numberOfSentences;
+            this.sentenceNumber = 1;
+            this.sequentialMessageID = sequentialMessageID;
+            this.channel = channel;
+            this.time = time;
+            this.error = null;
+            bits.clear();
+        }
+        private void release()
+        {
+            numberOfSentences = 0;
+            sentenceNumber = 0;
+        }
+    }
+    /**
+     * Thrown to get out of AISParser after rollback.
+     */
+    private static class RollbackException extends RuntimeException
+    {
+
+        public RollbackException()
+        {
+            super("rollback", null, false, false);
+        }
+        
+    }
+}
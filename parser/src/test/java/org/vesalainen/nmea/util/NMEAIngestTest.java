@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public class NMEAIngestTest
+{
+    
+    public NMEAIngestTest()
+    {
+    }
+
+    @Test
+    public void testIngest() throws IOException
+    {
+        Path dir = Files.createTempDirectory("ingest");
+        List<Path> files = new ArrayList<>();
+        try
+        {
+            for (int ii=0;ii<3;ii++)
+            {
+                Path file = dir.resolve("sample"+ii+".nmea");
+                try (InputStream is = NMEAIngestTest.class.getResourceAsStream("/sample.nmea"))
+                {
+                    Files.copy(is, file);
+                }
+                files.add(file);
+            }
+            try (NMEAIngest ingest = new NMEAIngest(2))
+            {
+                Map<Path,AtomicInteger> counts = new ConcurrentHashMap<>();
+                ingest.forEach(files, (p,s)->
+                {
+                    assertEquals(p, s.getOrigin());
+                    counts.computeIfAbsent(p, (k)->new AtomicInteger()).incrementAndGet();
+                }, "latitude", "longitude");
+                assertEquals(3, counts.size());
+                int count = counts.get(files.get(0)).get();
+                assertTrue(count > 0);
+                for (AtomicInteger ai : counts.values())
+                {
+                    assertEquals(count, ai.get());
+                }
+                List<NMEASample> sorted = ingest.sorted(files, "latitude", "longitude");
+                assertEquals(3*count, sorted.size());
+                for (int ii=1;ii<sorted.size();ii++)
+                {
+                    assertTrue(sorted.get(ii-1).getTime() <= sorted.get(ii).getTime());
+                }
+            }
+        }
+        finally
+        {
+            for (Path file : files)
+            {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+    
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.util;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public class NMEASampleTest
+{
+    
+    public NMEASampleTest()
+    {
+    }
+
+    @Test
+    public void testIndex()
+    {
+        int index = NMEAPropertyIndex.indexOf("testIndex");
+        assertEquals(index, NMEAPropertyIndex.indexOf("testIndex"));
+        assertEquals(index, NMEAPropertyIndex.find("testIndex"));
+        assertEquals("testIndex", NMEAPropertyIndex.name(index));
+        assertEquals(-1, NMEAPropertyIndex.find("testIndexNotCreated"));
+    }
+    
+    @Test
+    public void testProperties()
+    {
+        NMEASample sample = new NMEASample();
+        assertFalse(sample.hasProperties());
+        assertFalse(sample.hasProperty("testNotCreated"));
+        sample.setProperty("latitude", 60);
+        sample.setProperty(NMEAPropertyIndex.LONGITUDE, 25);
+        for (int ii=0;ii<200;ii++)
+        {
+            sample.setProperty("testProperty"+ii, ii);
+        }
+        assertTrue(sample.hasProperties());
+        assertEquals(60, sample.getLatitude(), 1e-6);
+        assertEquals(25, sample.getProperty("longitude"), 1e-6);
+        assertEquals(199, sample.getProperty("testProperty199"), 1e-6);
+        assertEquals(202, sample.getProperties().size());
+        assertEquals(202, sample.getMap().size());
+    }
+    
+    @Test
+    public void testMissingProperty()
+    {
+        NMEASample sample = new NMEASample();
+        assertTrue(Float.isNaN(sample.getProperty("latitude")));
+        assertTrue(Float.isNaN(sample.getProperty("testNotCreated")));
+        assertTrue(Float.isNaN(sample.getProperty(NMEAPropertyIndex.LONGITUDE)));
+        assertEquals(0, sample.getProperty(NMEAPropertyIndex.LONGITUDE, 0), 0);
+    }
+    
+    @Test
+    public void testRecycle()
+    {
+        Queue<NMEASample> pool = new ArrayDeque<>();
+        NMEASample sample = new NMEASample(pool);
+        sample.setProperty("latitude", 60);
+        sample.recycle();
+        assertSame(sample, pool.poll());
+        assertFalse(sample.hasProperties());
+        assertFalse(sample.hasProperty(NMEAPropertyIndex.LATITUDE));
+    }
+    
+}
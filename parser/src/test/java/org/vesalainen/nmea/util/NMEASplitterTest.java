@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.nmea.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public class NMEASplitterTest
+{
+    
+    public NMEASplitterTest()
+    {
+    }
+
+    @Test
+    public void testSplit() throws IOException
+    {
+        Path file = Files.createTempFile("split", ".nmea");
+        try
+        {
+            try (InputStream is = NMEASplitterTest.class.getResourceAsStream("/sample.nmea"))
+            {
+                Files.copy(is, file, REPLACE_EXISTING);
+            }
+            try (FileChannel channel = FileChannel.open(file, READ))
+            {
+                long[] bounds = NMEASplitter.split(channel, 4);
+                assertEquals(5, bounds.length);
+                assertEquals(0, bounds[0]);
+                assertEquals(channel.size(), bounds[4]);
+                for (int ii=1;ii<4;ii++)
+                {
+                    assertTrue(bounds[ii-1] < bounds[ii]);
+                    ByteBuffer bb = ByteBuffer.allocate(2);
+                    channel.read(bb, bounds[ii]-1);
+                    assertEquals('\n', bb.get(0));
+                    assertEquals('$', bb.get(1));
+                    byte[] primer = NMEASplitter.primer(channel, bounds[ii]);
+                    assertNotNull(primer);
+                    String sentence = new String(primer, US_ASCII);
+                    assertTrue(sentence, sentence.startsWith("$") && (sentence.contains("RMC") || sentence.contains("ZDA")));
+                }
+            }
+            try (NMEAIngest ingest = new NMEAIngest(4))
+            {
+                AtomicInteger count = new AtomicInteger();
+                ingest.forEach(Collections.singleton(file), (p,s)->count.incrementAndGet(), "latitude", "longitude");
+                List<NMEASample> list = ingest.parse(file, "latitude", "longitude");
+                assertEquals(count.get(), list.size());
+                for (NMEASample sample : list)
+                {
+                    assertEquals(file, sample.getOrigin());
+                }
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+    @Test
+    public void testAISFragments() throws IOException
+    {
+        Path file = Files.createTempFile("split", ".nmea");
+        try
+        {
+            StringBuilder sb = new StringBuilder();
+            for (int ii=0;ii<200;ii++)
+            {
+                sb.append("!AIVDM,2,1,3,B,55P5TL01VIaAL@7WKO@mBplU@<PDhh000000001S;AJ::4A80?4i@E53,0*3E\r\n");
+                sb.append("!AIVDM,2,2,3,B,1@0000000000000,2*55\r\n");
+            }
+            Files.write(file, sb.toString().getBytes(US_ASCII));
+            try (FileChannel channel = FileChannel.open(file, READ))
+            {
+                long[] bounds = NMEASplitter.split(channel, 7);
+                for (int ii=1;ii<bounds.length-1;ii++)
+                {
+                    byte[] buf = new byte[11];
+                    channel.read(ByteBuffer.wrap(buf), bounds[ii]);
+                    assertEquals("!AIVDM,2,1,", new String(buf, US_ASCII));
+                }
+                assertNull(NMEASplitter.primer(channel, bounds[1]));
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+}
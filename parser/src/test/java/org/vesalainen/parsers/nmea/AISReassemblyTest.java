@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.parsers.nmea;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.vesalainen.parsers.nmea.ais.AbstractAISObserver;
+import org.vesalainen.parsers.nmea.ais.SyncAISContext;
+import org.vesalainen.parsers.nmea.time.GPSClock;
+
+/**
+ *
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public class AISReassemblyTest
+{
+    private static final String B1 = "!AIVDM,2,1,9,B,53nFBv01SJ<thHp6220H4heHTf2222222222221?50:454o<`9QSlUDp,0*09\r\n";
+    private static final String B2 = "!AIVDM,2,2,9,B,888888888888880,2*2E\r\n";
+    private static final String A1 = "!AIVDM,2,1,8,A,53Q6SR02=21U`@H?800l4E9<f1HTLt000000001?BhL<@4q30Glm841E,0*7C\r\n";
+    private static final String A2 = "!AIVDM,2,2,8,A,1DThUDQh0000000,2*4D\r\n";
+    private final NMEAParser parser = NMEAParser.newInstance();
+    private final GPSClock clock = new GPSClock(false);
+    private final NMEAObserver data = new AbstractNMEAObserver();
+    private long nanos;
+
+    public AISReassemblyTest()
+    {
+    }
+
+    @Test
+    public void testExpiry() throws IOException
+    {
+        Collector collector = new Collector();
+        SyncAISContext context = new SyncAISContext(collector, 8, 1000, ()->nanos);
+        parser.parseInput(B1, clock, null, data, context);
+        nanos += TimeUnit.MILLISECONDS.toNanos(999);
+        parser.parseInput(A1, clock, null, data, context);
+        assertTrue(collector.rollbacks.isEmpty());
+        nanos += TimeUnit.MILLISECONDS.toNanos(2);
+        parser.parseInput(A2, clock, null, data, context);
+        assertEquals(1, collector.commits);
+        assertEquals(1, collector.rollbacks.size());
+        assertEquals("expired", collector.rollbacks.get(0));
+        parser.parseInput(B2, clock, null, data, context);
+        assertEquals(1, collector.commits);
+        assertEquals(1, collector.rollbacks.size());
+    }
+
+    @Test
+    public void testEviction() throws IOException
+    {
+        Collector collector = new Collector();
+        SyncAISContext context = new SyncAISContext(collector, 1, 1000, ()->nanos);
+        parser.parseInput(B1, clock, null, data, context);
+        nanos++;
+        parser.parseInput(A1+A2, clock, null, data, context);
+        assertEquals(1, collector.commits);
+        assertEquals(1, collector.rollbacks.size());
+        assertEquals("no free slot", collector.rollbacks.get(0));
+        parser.parseInput(B2, clock, null, data, context);
+        assertEquals(1, collector.commits);
+    }
+
+    @Test
+    public void testMissingPadding() throws IOException
+    {
+        Collector collector = new Collector();
+        SyncAISContext context = new SyncAISContext(collector);
+        parser.parseInput(
+                "!AIVDM,1,1,,A,13HOI:0P0000VOHLCnHQKwvL05Ip,*13\r\n"+
+                "!AIVDM,1,1,,A,13HOI:0P0000VOHLCnHQKwvL05Ip,0*23\r\n", 
+                clock, null, data, context);
+        assertEquals(1, collector.commits);
+        assertEquals(1, collector.rollbacks.size());
+        assertEquals("expected padding, got *", collector.rollbacks.get(0));
+    }
+
+    private static class Collector extends AbstractAISObserver
+    {
+        private int commits;
+        private final List<String> rollbacks = new ArrayList<>();
+
+        @Override
+        public void commit(String reason)
+        {
+            if ("Commit".equals(reason))
+            {
+                commits++;
+            }
+        }
+
+        @Override
+        public void rollback(String reason)
+        {
+            rollbacks.add(reason);
+        }
+        
+    }
+}
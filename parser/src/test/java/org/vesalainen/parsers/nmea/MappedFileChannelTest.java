@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.parsers.nmea;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public class MappedFileChannelTest
+{
+    
+    public MappedFileChannelTest()
+    {
+    }
+
+    @Test
+    public void testSlidingWindow() throws IOException, URISyntaxException
+    {
+        Path path = Paths.get(MappedFileChannelTest.class.getResource("/sample.nmea").toURI());
+        byte[] exp = Files.readAllBytes(path);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (FileChannel fc = FileChannel.open(path);
+                MappedFileChannel mfc = new MappedFileChannel(fc, false, 1000))
+        {
+            ByteBuffer bb = ByteBuffer.allocateDirect(777);
+            while (mfc.read(bb) != -1)
+            {
+                bb.flip();
+                while (bb.hasRemaining())
+                {
+                    out.write(bb.get());
+                }
+                bb.clear();
+            }
+            assertTrue(fc.isOpen());
+        }
+        assertArrayEquals(exp, out.toByteArray());
+    }
+    
+    @Test
+    public void testParsePath() throws IOException, URISyntaxException
+    {
+        Path path = Paths.get(MappedFileChannelTest.class.getResource("/sample.nmea").toURI());
+        NMEAParser parser = NMEAParser.newInstance();
+        Counter exp = new Counter();
+        parser.parse(new String(Files.readAllBytes(path), "US-ASCII"), false, null, exp, null);
+        Counter got = new Counter();
+        parser.parse(path, false, null, got, null);
+        assertTrue(exp.commits > 0);
+        assertEquals(exp.commits, got.commits);
+    }
+    private static class Counter extends AbstractNMEAObserver
+    {
+        private int commits;
+        
+        @Override
+        public void commit(String reason)
+        {
+            commits++;
+        }
+        
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.parsers.nmea;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.vesalainen.math.UnitType;
+import static org.vesalainen.parsers.nmea.MessageType.*;
+import static org.vesalainen.parsers.nmea.TalkerId.*;
+
+/**
+ *
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public class NMEAEncoderTest
+{
+    
+    public NMEAEncoderTest()
+    {
+    }
+
+    @Test
+    public void testMWV() throws IOException
+    {
+        NMEAEncoder encoder = new NMEAEncoder();
+        encoder.begin(UP, MWV)
+                .add(15)
+                .add('T')
+                .add(UnitType.MS.convertTo(15, UnitType.Knot), 1)
+                .add(Converter.KTS)
+                .add('A');
+        assertEquals(NMEASentence.mwv(15, 15, UnitType.MS, true).toString(), encoder.toString());
+        encoder.set(1, 270).set(3, 7.25, 1);
+        assertEquals(NMEASentence.mwv(270, 7.25, UnitType.Knot, true).toString(), encoder.toString());
+        encoder.set(1, 5).set(3, 10.0, 1);
+        assertEquals(NMEASentence.mwv(5, 10, UnitType.Knot, true).toString(), encoder.toString());
+        assertTrue(NMEA.isNMEAOrAIS(encoder.toString()));
+    }
+    
+    @Test
+    public void testFormat()
+    {
+        NMEAEncoder encoder = new NMEAEncoder();
+        encoder.begin("$PTEST")
+                .add()
+                .add(-0.04, 1)
+                .add(-0.05, 1)
+                .add(12.3456, 2)
+                .add(1.005, 0)
+                .add(Double.NaN, 1)
+                .add(-123L)
+                .add(Integer.MIN_VALUE)
+                .add(0.5, 3);
+        assertEquals("$PTEST,,0.0,-0.1,12.35,1,,-123,-2147483648,0.500", body(encoder));
+        encoder.set(2, "ab").set(1).set(9, 'x');
+        assertEquals("$PTEST,,ab,-0.1,12.35,1,,-123,-2147483648,x", body(encoder));
+        assertTrue(NMEA.isNMEAOrAIS(encoder.toString()));
+    }
+    
+    @Test
+    public void testWriteTo()
+    {
+        NMEAEncoder encoder = new NMEAEncoder();
+        encoder.begin(II, HDG).add(171).add().add().add(6).add('E');
+        ByteBuffer bb = ByteBuffer.allocate(64);
+        assertEquals(encoder.length(), encoder.writeTo(bb));
+        bb.flip();
+        assertEquals("$IIHDG,171,,,6,E*23\r\n", US_ASCII.decode(bb).toString());
+    }
+    
+    @Test
+    public void testEscape()
+    {
+        NMEAEncoder encoder = new NMEAEncoder();
+        encoder.begin(U0, TXT).add(1).add(1).add().add("ä");
+        assertEquals("$U0TXT,1,1,,^E4", body(encoder));
+    }
+    
+    private static String body(NMEAEncoder encoder)
+    {
+        String str = encoder.toString();
+        return str.substring(0, str.length()-5);
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.parsers.nmea;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Proxy;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.vesalainen.parsers.nmea.time.GPSClock;
+
+/**
+ *
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public class NMEAFastParserTest
+{
+    private static final String[] SENTENCES = new String[] {
+        "$GPGGA,010003,1248.7047,S,03827.5797,W,1,11,0.8,1.0,M,-10.5,M,,*66\r\n",
+        "$GPGGA,123519,4807.038,N,01131.000,E,1,08,0.9,545.4,M,46.9,M,,*47\r\n",
+        "$GPGGA,172814.0,3723.46587704,N,12202.26957864,W,2,6,1.2,18.893,M,-25.669,M,2.0,0031*4F\r\n",
+        "$GPGGA,181703.200,5209.6815,N,00643.0724,E,1,08,01,+0025,M,+0047,M,00,0425*46\r\n",
+        "$GPRMC,010003,A,1248.7047,S,03827.5797,W,0.0,94.9,290505,23.0,W,A*03\r\n",
+        "$GPRMC,062455,A,6009.2054,N,02453.6493,E,000.0,001.3,171009,,,A*78\r\n",
+        "$GPRMC,081836,A,3751.65,S,14507.36,E,000.0,360.0,130998,011.3,E*62\r\n",
+        "$GPRMC,220516,A,5133.82,N,00042.24,W,173.8,231.8,130694,004.2,W*70\r\n",
+        "$GPRMC,225446,A,4916.45,N,12311.12,W,000.5,054.7,191194,020.3,E*68\r\n",
+        "$GPVTG,94.9,117.9,0.0,0.0*68\r\n",
+        "$GPVTG,94.9,T,117.9,M,0.0,N,0.0,K,A*19\r\n",
+        "$IIDPT,007.4,+0.3,*47\r\n",
+        "$IIDPT,025.6,+0.3,*45\r\n",
+        "$IIHDT,171,T*3b\r\n",
+        "$IIHDT,177,T*3d\r\n",
+        "$IIMWV,180,R,14.3,N,A*1C\r\n",
+        "$IIMWV,282,T,11.6,N,A*1B\r\n"
+    };
+    private static final String[] REJECTED = new String[] {
+        "$GPRMC,062457,A,6009.2053,N,02453.6493,E,000.0,001.9,171009,,,A*70\r\n",
+        "$GPRMC,A010003,A,1248.7047,S,03827.5797,W,0.0,94.9,290505,23.0,W,A*03\r\n",
+        "$IIHDG,171,,,06,E*13\r\n",
+        "$IIMWV,282,X,11.6,N,A*07\r\n"
+    };
+    private final NMEAParser parser = NMEAParser.newInstance();
+    private final NMEAFastParser fastParser = new NMEAFastParser();
+    private final GPSClock parserClock = new GPSClock(false);
+    private final GPSClock fastClock = new GPSClock(false);
+
+    public NMEAFastParserTest()
+    {
+    }
+
+    @Test
+    public void testSentences() throws IOException
+    {
+        for (String sentence : SENTENCES)
+        {
+            compare(sentence);
+        }
+    }
+
+    @Test
+    public void testRejected() throws IOException
+    {
+        Recorder recorder = new Recorder();
+        for (String sentence : REJECTED)
+        {
+            byte[] bytes = sentence.getBytes(US_ASCII);
+            assertFalse(sentence, fastParser.parse(bytes, 0, bytes.length, fastClock, null, recorder.getObserver()));
+        }
+        assertTrue(recorder.calls.isEmpty());
+    }
+
+    @Test
+    public void testSample() throws IOException
+    {
+        int count = 0;
+        try (InputStream is = NMEAFastParserTest.class.getResourceAsStream("/sample.nmea");
+                BufferedReader reader = new BufferedReader(new InputStreamReader(is, US_ASCII)))
+        {
+            String line = reader.readLine();
+            while (line != null && count < 5000)
+            {
+                if (line.length() > 6 && NMEAFastParser.isFast(MessageType.valueOf(line.substring(3, 6))))
+                {
+                    compare(line+"\r\n");
+                    count++;
+                }
+                line = reader.readLine();
+            }
+        }
+        assertEquals(5000, count);
+    }
+
+    @Test
+    public void testFastPath() throws IOException
+    {
+        Counter plain = new Counter();
+        try (InputStream is = NMEAFastParserTest.class.getResourceAsStream("/sample.nmea"))
+        {
+            parser.parse(is, false, null, plain, null);
+        }
+        NMEAParser fastPathParser = NMEAParser.newInstance();
+        fastPathParser.setFastPath(true);
+        assertTrue(fastPathParser.isFastPath());
+        Counter fast = new Counter();
+        try (InputStream is = NMEAFastParserTest.class.getResourceAsStream("/sample.nmea"))
+        {
+            fastPathParser.parse(is, false, null, fast, null);
+        }
+        assertEquals(plain.commits, fast.commits);
+        assertEquals(plain.headings, fast.headings);
+        assertEquals(plain.latitude, fast.latitude, 0);
+        assertEquals(plain.windSpeed, fast.windSpeed, 0);
+        assertEquals(plain.depth, fast.depth, 0);
+    }
+
+    private void compare(String sentence) throws IOException
+    {
+        Recorder expected = new Recorder();
+        parser.parse(sentence, parserClock, null, expected.getObserver(), null);
+        Recorder actual = new Recorder();
+        byte[] bytes = sentence.getBytes(US_ASCII);
+        assertTrue(sentence, fastParser.parse(bytes, 0, bytes.length, fastClock, null, actual.getObserver()));
+        // parse starts with start and commit for clock
+        List<Object[]> exp = expected.calls.subList(2, expected.calls.size());
+        assertEquals(sentence, exp.size(), actual.calls.size());
+        for (int ii=0;ii<exp.size();ii++)
+        {
+            Object[] e = exp.get(ii);
+            Object[] a = actual.calls.get(ii);
+            assertEquals(sentence, e[0], a[0]);
+            if (e[1] instanceof Float)
+            {
+                float f = (Float) e[1];
+                assertEquals(sentence+" "+e[0], f, (Float) a[1], Math.ulp(f));
+            }
+            else
+            {
+                assertEquals(sentence+" "+e[0], e[1], a[1]);
+            }
+        }
+        assertEquals(sentence, parserClock.millis(), fastClock.millis());
+    }
+
+    private static class Recorder
+    {
+        private final List<Object[]> calls = new ArrayList<>();
+
+        private NMEAObserver getObserver()
+        {
+            return (NMEAObserver) Proxy.newProxyInstance(
+                    NMEAObserver.class.getClassLoader(), 
+                    new Class<?>[] {NMEAObserver.class}, 
+                    (proxy, method, args)->
+                    {
+                        switch (method.getName())
+                        {
+                            case "setClock":
+                            case "setOrigin":
+                                break;
+                            default:
+                                calls.add(new Object[] {method.getName(), args != null ? args[0] : null});
+                                break;
+                        }
+                        return null;
+                    });
+        }
+    }
+    private static class Counter extends AbstractNMEAObserver
+    {
+        private int commits;
+        private int headings;
+        private float latitude;
+        private float windSpeed;
+        private float depth;
+
+        @Override
+        public void setMagneticSensorHeading(float magneticSensorHeading)
+        {
+            headings++;
+        }
+
+        @Override
+        public void setLatitude(float latitude)
+        {
+            this.latitude = latitude;
+        }
+
+        @Override
+        public void setWindSpeed(float windSpeed)
+        {
+            this.windSpeed = windSpeed;
+        }
+
+        @Override
+        public void setDepthOfWater(float depth)
+        {
+            this.depth = depth;
+        }
+
+        @Override
+        public void commit(String reason)
+        {
+            if ("ok".equals(reason))
+            {
+                commits++;
+            }
+        }
+        
+    }
+}
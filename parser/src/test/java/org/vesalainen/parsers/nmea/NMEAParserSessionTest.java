@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.parsers.nmea;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.vesalainen.parsers.nmea.ais.AISDecoding;
+import org.vesalainen.parsers.nmea.ais.AbstractAISObserver;
+import org.vesalainen.parsers.nmea.time.GPSClock;
+
+/**
+ *
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public class NMEAParserSessionTest
+{
+    
+    public NMEAParserSessionTest()
+    {
+    }
+
+    @Test
+    public void testReuse() throws IOException
+    {
+        Counter counter = new Counter();
+        NMEAParserSession session = new NMEAParserSession(false, counter, null);
+        session.parse("$IIHDG,171,,,06,E*13\r\n");
+        session.parse("$IIHDG,177,,,06,E*15\r\n$IIHDG,171,,,06,E*13\r\n");
+        assertEquals(1, counter.clockCommits);
+        assertEquals(3, counter.commits);
+        assertEquals(3, counter.headings);
+    }
+    @Test
+    public void testReset() throws IOException
+    {
+        AISCounter counter = new AISCounter();
+        NMEAParserSession session = new NMEAParserSession(NMEAParser.newInstance(), new GPSClock(false), null, counter, AISDecoding.Synchronous);
+        session.parse("!AIVDM,2,1,9,B,53nFBv01SJ<thHp6220H4heHTf2222222222221?50:454o<`9QSlUDp,0*09\r\n");
+        assertTrue(counter.rollbacks.isEmpty());
+        session.parse("!AIVDM,2,2,9,B,888888888888880,2*2E\r\n");
+        assertEquals(0, counter.commits);
+        assertEquals(1, counter.rollbacks.size());
+        assertEquals("reset", counter.rollbacks.get(0));
+        session.parse(
+                "!AIVDM,2,1,9,B,53nFBv01SJ<thHp6220H4heHTf2222222222221?50:454o<`9QSlUDp,0*09\r\n"+
+                "!AIVDM,2,2,9,B,888888888888880,2*2E\r\n");
+        assertEquals(1, counter.commits);
+        assertEquals(1, counter.rollbacks.size());
+    }
+    @Test
+    public void testGrammarReuse() throws IOException
+    {
+        AISCounter counter = new AISCounter();
+        NMEAParserSession session = new NMEAParserSession(NMEAParser.newInstance(), new GPSClock(false), null, counter, AISDecoding.Grammar);
+        String input = 
+                "!AIVDM,2,1,9,B,53nFBv01SJ<thHp6220H4heHTf2222222222221?50:454o<`9QSlUDp,0*09\r\n"+
+                "!AIVDM,1,1,,A,13HOI:0P0000VOHLCnHQKwvL05Ip,0*23\r\n"+
+                "!AIVDM,2,2,9,B,888888888888880,2*2E\r\n";
+        session.parse(input);
+        assertEquals(2, counter.commits);
+        session.parse(input);
+        assertEquals(4, counter.commits);
+        session.parse(
+                "!AIVDM,2,1,9,B,53nFBv01SJ<thHp6220H4heHTf2222222222221?50:454o<`9QSlUDp,0*09\r\n"+
+                "!AIVDM,1,1,,A,13HOI:0P0000VOHLCnHQKwvL05Ip,0*23\r\n");
+        assertEquals(5, counter.commits);
+        assertTrue(counter.rollbacks.isEmpty());
+        session.parse(input);
+        assertEquals(7, counter.commits);
+        assertEquals(1, counter.rollbacks.size());
+        assertEquals("reset", counter.rollbacks.get(0));
+    }
+    private static class Counter extends AbstractNMEAObserver
+    {
+        private int clockCommits;
+        private int commits;
+        private int headings;
+
+        @Override
+        public void setMagneticSensorHeading(float magneticSensorHeading)
+        {
+            headings++;
+        }
+
+        @Override
+        public void commit(String reason)
+        {
+            switch (reason)
+            {
+                case "Set clock":
+                    clockCommits++;
+                    break;
+                case "ok":
+                    commits++;
+                    break;
+            }
+        }
+        
+    }
+    private static class AISCounter extends AbstractAISObserver
+    {
+        private int commits;
+        private final List<String> rollbacks = new ArrayList<>();
+
+        @Override
+        public void commit(String reason)
+        {
+            if ("Commit".equals(reason))
+            {
+                commits++;
+            }
+        }
+
+        @Override
+        public void rollback(String reason)
+        {
+            rollbacks.add(reason);
+        }
+        
+    }
+}
@@ -1580,6 +1580,109 @@ public class NMEAParserTest
         }
     }
 
+    @Test
+    public void wanted()
+    {
+        try
+        {
+            String nmea = 
+                "$GPGSV,3,1,12,01,43,333,54,03,43,237,49,06,05,030,43,09,02,120,00*7C\r\n"+
+                "$IIHDG,171,,,06,E*13\r\n"+
+                "$GPGSV,3,2,12,14,86,032,47,15,46,140,45,16,18,315,47,18,19,143,49*71\r\n"+
+                "$IIHDG,177,,,06,E*15\r\n";
+            assertFalse(parser.setWanted("talkerId"));
+            assertTrue(parser.isWanted(TalkerId.GP, MessageType.GSV));
+            assertTrue(parser.setWanted("magneticSensorHeading"));
+            assertTrue(parser.isWanted(TalkerId.II, MessageType.HDG));
+            assertFalse(parser.isWanted(TalkerId.GP, MessageType.GSV));
+            WantedObserver wo = new WantedObserver();
+            parser.parse(nmea, wo, null);
+            assertEquals(2, wo.commits);
+            assertEquals(2, wo.headings);
+            assertEquals(0, wo.prns);
+            assertEquals(NMEAParser.SKIPPED, wo.rollbacks.get(0));
+            assertEquals(NMEAParser.CHECKSUM, wo.rollbacks.get(1));
+            assertEquals(1, parser.getSkipCount());
+            
+            parser.clearWanted();
+            wo = new WantedObserver();
+            parser.parse(nmea, wo, null);
+            assertEquals(3, wo.commits);
+            assertEquals(8, wo.prns);
+            assertEquals(1, parser.getSkipCount());
+        }
+        catch (Exception ex)
+        {
+            ex.printStackTrace();
+            fail(ex.getMessage());
+        }
+    }
+
+    @Test
+    public void resync()
+    {
+        try
+        {
+            String nmea = 
+                "$GPRMC,062455,A,60#9.2054,N,02453.6493,E,000.0,001.3,171009,,,A*78$IIHDG,171,,,06,E*13\r\n"+
+                "$IIHDG,177,,,06,E*15\r\n"+
+                "$IIHDG,1#1,,,06,E*13\r\n"+
+                "$IIHDG,171,,,06,E*13\r\n";
+            long syntaxErrors = parser.getSyntaxErrorCount();
+            long resyncs = parser.getResyncCount();
+            WantedObserver wo = new WantedObserver();
+            parser.parse(nmea, wo, null);
+            assertEquals(3, wo.commits);
+            assertEquals(3, wo.headings);
+            assertEquals(2, parser.getSyntaxErrorCount()-syntaxErrors);
+            assertEquals(1, parser.getResyncCount()-resyncs);
+            assertEquals(2, wo.rollbacks.size());
+            assertEquals(NMEAParser.SYNTAX, wo.rollbacks.get(0));
+            assertEquals(NMEAParser.SYNTAX, wo.rollbacks.get(1));
+        }
+        catch (Exception ex)
+        {
+            ex.printStackTrace();
+            fail(ex.getMessage());
+        }
+    }
+
+    private static class WantedObserver extends AbstractNMEAObserver
+    {
+        private int commits;
+        private int headings;
+        private int prns;
+        private List<String> rollbacks = new ArrayList<>();
+
+        @Override
+        public void setMagneticSensorHeading(float magneticSensorHeading)
+        {
+            headings++;
+        }
+
+        @Override
+        public void setPrn(int prn)
+        {
+            prns++;
+        }
+
+        @Override
+        public void rollback(String reason)
+        {
+            rollbacks.add(reason);
+        }
+
+        @Override
+        public void commit(String reason)
+        {
+            if ("ok".equals(reason))
+            {
+                commits++;
+            }
+        }
+        
+    }
+
     public class NMEAParserImpl extends NMEAParser
     {
 
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2018 Timo Vesalainen <timo.vesalainen@iki.fi>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.vesalainen.parsers.nmea.ais;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.vesalainen.parsers.nmea.NMEAParser;
+
+/**
+ *
+ * @author Timo Vesalainen <timo.vesalainen@iki.fi>
+ */
+public class SyncAISContextTest
+{
+    private static final String[] NMEAS = new String[] {
+        "!AIVDM,1,1,,A,13HOI:0P0000VOHLCnHQKwvL05Ip,0*23\r\n",
+        "!AIVDM,1,1,,B,4020ssAuho;N?PeNwjOAp<70089A,0*09\r\n",
+        "!AIVDM,2,1,9,B,53nFBv01SJ<thHp6220H4heHTf2222222222221?50:454o<`9QSlUDp,0*09\r\n"+
+            "!AIVDM,2,2,9,B,888888888888880,2*2E\r\n",
+        "!AIVDM,1,1,,A,802R5Ph0BkEachFWA2GaOwwwwwwwwwwwwkBwwwwwwwwwwwwwwwwwwwwwwwu,2*57\r\n",
+        "!AIVDM,1,1,,B,B6:fOUh0=R1oRQSC=jo9Gwb61P06,0*6F\r\n",
+        "!AIVDM,1,1,,A,E04<o5AaWdPnaGaP00000000000DPmHl:aCUp00000Qh20,4*64\r\n",
+        "!AIVDM,1,1,,A,H7P<1>4UB1I0000F=Aqpoo2P2220,0*3A\r\n"
+    };
+
+    public SyncAISContextTest()
+    {
+    }
+
+    @Test
+    public void testSameAsGrammar() throws IOException, IllegalAccessException
+    {
+        NMEAParser parser = NMEAParser.newInstance();
+        for (String nmea : NMEAS)
+        {
+            TC exp = new TC();
+            parser.parse(nmea, false, null, null, exp, AISDecoding.Grammar);
+            TC got = new TC();
+            parser.parse(nmea, false, null, null, got, AISDecoding.Synchronous);
+            for (Field field : TC.class.getDeclaredFields())
+            {
+                field.setAccessible(true);
+                assertTrue(nmea+" "+field.getName(), Objects.equals(field.get(exp), field.get(got)));
+            }
+        }
+    }
+    @Test
+    public void testMismatchingFragment() throws IOException
+    {
+        NMEAParser parser = NMEAParser.newInstance();
+        TC tc = new TC();
+        parser.parse(
+                "!AIVDM,2,1,9,B,53nFBv01SJ<thHp6220H4heHTf2222222222221?50:454o<`9QSlUDp,0*09\r\n"+
+                "!AIVDM,2,2,6,B,000000000000008,2*29\r\n",
+                false, null, null, tc, AISDecoding.Synchronous);
+        assertNull(tc.messageType);
+        assertEquals(-1, tc.mmsi);
+    }
+    @Test
+    public void testInterleaved() throws IOException
+    {
+        NMEAParser parser = NMEAParser.newInstance();
+        MMSICollector mc = new MMSICollector();
+        parser.parse(
+                "!AIVDM,2,1,9,B,53nFBv01SJ<thHp6220H4heHTf2222222222221?50:454o<`9QSlUDp,0*09\r\n"+
+                "!AIVDM,2,1,8,A,53Q6SR02=21U`@H?800l4E9<f1HTLt000000001?BhL<@4q30Glm841E,0*7C\r\n"+
+                "!AIVDM,2,2,9,B,888888888888880,2*2E\r\n"+
+                "!AIVDM,2,2,8,A,1DThUDQh0000000,2*4D\r\n",
+                false, null, null, mc, AISDecoding.Synchronous);
+        assertEquals(2, mc.mmsis.size());
+        assertEquals(Integer.valueOf(258315000), mc.mmsis.get(0));
+        assertEquals(0, mc.rollbacks);
+    }
+    @Test
+    public void testUnsupportedType() throws IOException
+    {
+        NMEAParser parser = NMEAParser.newInstance();
+        MMSICollector mc = new MMSICollector();
+        parser.parse(
+                "!AIVDM,1,1,,A,I0000000000,0*6F\r\n"+
+                "!AIVDM,1,1,,A,00000000000,0*16\r\n"+
+                "!AIVDM,1,1,,A,13HOI:0P0000VOHLCnHQKwvL05Ip,0*23\r\n",
+                false, null, null, mc, AISDecoding.Synchronous);
+        assertEquals(2, mc.rollbacks);
+        assertEquals(1, mc.mmsis.size());
+    }
+    @Test
+    public void testInterleavedGrammar() throws IOException
+    {
+        NMEAParser parser = NMEAParser.newInstance();
+        MMSICollector mc = new MMSICollector();
+        parser.parse(
+                "!AIVDM,2,1,9,B,53nFBv01SJ<thHp6220H4heHTf2222222222221?50:454o<`9QSlUDp,0*09\r\n"+
+                "!AIVDM,2,1,8,A,53Q6SR02=21U`@H?800l4E9<f1HTLt000000001?BhL<@4q30Glm841E,0*7C\r\n"+
+                "!AIVDM,1,1,,A,13HOI:0P0000VOHLCnHQKwvL05Ip,0*23\r\n"+
+                "!AIVDM,2,2,9,B,888888888888880,2*2E\r\n"+
+                "!AIVDM,2,2,8,A,1DThUDQh0000000,2*4D\r\n",
+                false, null, null, mc, AISDecoding.Grammar);
+        assertEquals(3, mc.mmsis.size());
+        assertEquals(Integer.valueOf(258315000), mc.mmsis.get(1));
+        assertEquals(0, mc.rollbacks);
+    }
+    private static class MMSICollector extends AbstractAISObserver
+    {
+        private final List<Integer> mmsis = new ArrayList<>();
+        private int mmsi;
+        private int rollbacks;
+
+        @Override
+        public void setMmsi(int mmsi)
+        {
+            this.mmsi = mmsi;
+        }
+
+        @Override
+        public void commit(String reason)
+        {
+            if ("Commit".equals(reason))
+            {
+                mmsis.add(mmsi);
+            }
+        }
+
+        @Override
+        public void rollback(String reason)
+        {
+            rollbacks++;
+        }
+        
+    }
+}